@@ -14,6 +14,9 @@ plugins {
     // Only needed when you want to apply the OpenRewriteBestPractices recipe to your recipes through
     // ./gradlew rewriteRun -Drewrite.activeRecipe=org.openrewrite.recipes.OpenRewriteBestPractices
     id("org.openrewrite.rewrite") version "latest.release"
+
+    // Benchmarks for the recipes in this project live in src/jmh/java; run them with ./gradlew jmh
+    id("me.champeau.jmh") version "latest.release"
 }
 
 // Set as appropriate for your organization
@@ -29,7 +32,6 @@ dependencies {
     implementation("org.openrewrite.recipe:rewrite-java-dependencies")
     implementation("org.openrewrite:rewrite-yaml")
     implementation("org.openrewrite.meta:rewrite-analysis")
-    implementation("org.assertj:assertj-core:3.24.2")
     runtimeOnly("org.openrewrite:rewrite-java-17")
 
     // Refaster style recipes need the rewrite-templating annotation processor and dependency for generated recipes
@@ -44,6 +46,11 @@ dependencies {
     // Need to have a slf4j binding to see any output enabled from the parser.
     runtimeOnly("ch.qos.logback:logback-classic:1.2.+")
 
+    // AssertEqualsToAssertThat compiles its templates against the stubs in src/main/resources, which
+    // createTypeTable writes from this version of AssertJ
+    testImplementation("org.assertj:assertj-core:3.26.3")
+    testImplementation("org.ow2.asm:asm:latest.release")
+
     // Our recipe converts Guava's `Lists` type
     testRuntimeOnly("com.google.guava:guava:latest.release")
     testRuntimeOnly("org.apache.commons:commons-lang3:latest.release")
@@ -53,6 +60,40 @@ dependencies {
     rewrite("org.openrewrite.recipe:rewrite-recommendations:latest.release")
 }
 
+tasks.register<JavaExec>("createTypeTable") {
+    description = "Writes the type table of the AssertJ stubs that templates are compiled against."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.yourorg.TypeTableGenerator")
+    args(layout.projectDirectory.dir("src/main/resources").asFile.absolutePath)
+}
+
+// The recipe budgets of RecipeBudgetsIT are a tier of their own, which `check` runs after the unit tests
+val performanceTest by tasks.registering(Test::class) {
+    description = "Runs each recipe over a synthetic corpus and checks it against its allocation and work budgets."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform()
+    include("**/*IT.class")
+    System.getProperty("com.yourorg.budgets.update")?.let { systemProperty("com.yourorg.budgets.update", it) }
+    shouldRunAfter(tasks.test)
+}
+
+tasks.test {
+    exclude("**/*IT.class")
+}
+
+tasks.check {
+    dependsOn(performanceTest)
+}
+
+jmh {
+    // The benchmarks share the fixtures in src/test/java with RecipeBudgetsIT
+    includeTests.set(true)
+    // Report the allocation rate next to the throughput of every benchmark
+    profilers.add("gc")
+}
+
 signing {
     // To enable signing have your CI workflow set the "signingKey" and "signingPassword" Gradle project properties
     isRequired = false
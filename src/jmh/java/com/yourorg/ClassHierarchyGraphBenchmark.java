@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.ClassHierarchyReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries over a synthetic hierarchy of {@link #types} classes, each extending a random earlier class and implementing
+ * up to two of a pool of interfaces, as {@link ClassHierarchyAnalysis} answers them for every declared type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ClassHierarchyGraphBenchmark {
+
+    @Param({"10000", "300000"})
+    int types;
+
+    ClassHierarchyGraph.Builder builder;
+    ClassHierarchyGraph graph;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        NameTable names = new NameTable(types);
+        builder = ClassHierarchyGraph.builder(names);
+        for (int i = 0; i < types; i++) {
+            String name = "com.example.C" + i;
+            builder.add(name, ClassHierarchyReport.Relationship.EXTENDS, i == 0 ? "java.lang.Object" : "com.example.C" + random.nextInt(i));
+            for (int j = random.nextInt(3); j > 0; j--) {
+                builder.add(name, ClassHierarchyReport.Relationship.IMPLEMENTS, "com.example.I" + random.nextInt(100));
+            }
+        }
+        graph = builder.build();
+    }
+
+    @Benchmark
+    public ClassHierarchyGraph build() {
+        return builder.build();
+    }
+
+    @Benchmark
+    public long metricsForEveryType() {
+        long sum = 0;
+        for (int type = 0; type < graph.size(); type++) {
+            sum += graph.depth(type) + graph.fanOut(type) + graph.transitiveSupertypeCount(type) +
+                   graph.transitiveSubtypeCount(type);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.ClassHierarchyReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the rows of {@link #classes} classes as {@link ClassHierarchy} does, and prints the heap the rows and the
+ * names interned for the run retain.
+ * Each class extends {@code java.lang.Object} or an earlier class, and implements up to two of a handful of popular
+ * interfaces. The types of every {@link #classesPerParse} classes have names of their own, as the types of separately
+ * parsed or loaded LSTs do. Unless {@link #interned}, each row keeps the names it was given, as rows did before they
+ * referred to the names held by {@link ClassHierarchy.EmittedRows}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+UseParallelGC"})
+public class ClassHierarchyReportBenchmark {
+
+    private static final String[] INTERFACES = {"java.io.Serializable", "java.lang.Comparable", "java.lang.Cloneable",
+            "java.lang.Runnable", "java.util.function.Supplier", "java.util.EventListener"};
+
+    @Param({"1000000"})
+    int classes;
+
+    @Param({"1", "1000"})
+    int classesPerParse;
+
+    @Param({"true", "false"})
+    boolean interned;
+
+    ClassHierarchy.EmittedRows emitted;
+    List<ClassHierarchyReport.Row> rows;
+
+    @Benchmark
+    public List<ClassHierarchyReport.Row> report() {
+        Random random = new Random(42);
+        emitted = new ClassHierarchy.EmittedRows();
+        rows = new ArrayList<>();
+        String[] parsed = new String[classesPerParse];
+        for (int i = 0; i < classes; i++) {
+            int inParse = i % classesPerParse;
+            String className = "com.example.m" + i % 100 + ".C" + i;
+            parsed[inParse] = className;
+            String superClassName = inParse == 0 || random.nextInt(10) < 6 ?
+                    copy("java.lang.Object") : parsed[random.nextInt(inParse)];
+            add(className, ClassHierarchyReport.Relationship.EXTENDS, superClassName);
+            for (int j = random.nextInt(3); j > 0; j--) {
+                add(className, ClassHierarchyReport.Relationship.IMPLEMENTS,
+                        copy(INTERFACES[random.nextInt(INTERFACES.length)]));
+            }
+        }
+        return rows;
+    }
+
+    private void add(String className, ClassHierarchyReport.Relationship relationship, String superClassName) {
+        ClassHierarchyReport.Row row = emitted.add(className, relationship, superClassName);
+        if (row != null) {
+            rows.add(interned ? row : new ClassHierarchyReport.Row(className, relationship, superClassName));
+        }
+    }
+
+    /**
+     * @return a name of its own, as the parser gives every type it maps
+     */
+    private static String copy(String name) {
+        return new StringBuilder(name).toString();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printRetainedHeap() {
+        long withRows = usedHeap();
+        int rowCount = rows.size();
+        emitted = null;
+        rows = null;
+        long retained = withRows - usedHeap();
+        System.out.printf("%n%d rows and the names of the run retain %d bytes, %d bytes per row%n", rowCount, retained, retained / rowCount);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs every recipe of this project with the {@link LocalRecipeRunner} over a corpus from the
+ * {@link CorpusGenerator}, parsing included, as a scale test would. The corpus only depends on the parameters, so
+ * scores of runs with the same seed and sizes are comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CorpusBenchmark {
+
+    @Param({"0"})
+    long seed;
+
+    @Param({"500"})
+    int javaFiles;
+
+    @Param({"8"})
+    int methodsPerFile;
+
+    @Param({"1"})
+    int parallelism;
+
+    Path root;
+    Recipe recipe;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("corpus-benchmark");
+        new CorpusGenerator(seed, javaFiles, methodsPerFile, 6, 20, 10, 1000).write(root);
+        recipe = LocalRecipeRunner.activate(root, CorpusGenerator.RECIPE);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public LocalRecipeRunner.Run run() {
+        return LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(Throwable::printStackTrace),
+                pool, parallelism);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running {@code AssertEqualsToAssertThat}, {@code NoGuavaListsNewArrayList}, {@code NoCollectionMutation}
+ * and {@code ClassHierarchy} one after the other, one traversal of each source file per recipe, against
+ * {@link FusedJavaRecipes}, one traversal of each source file for all four. Each operation is a full recipe run, with
+ * as many cycles as it takes, over a corpus with source files for each of the recipes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FusedJavaRecipesBenchmark {
+
+    @Param({"10"})
+    int methodsPerFile;
+
+    /**
+     * Number of source files of each of the four kinds.
+     */
+    @Param({"4"})
+    int files;
+
+    List<SourceFile> corpus;
+    Recipe sequential;
+    Recipe fused;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        corpus = new ArrayList<>();
+        for (LstFixtures.Kind kind : new LstFixtures.Kind[]{LstFixtures.Kind.JUNIT_ASSERTIONS,
+                LstFixtures.Kind.GUAVA_LISTS, LstFixtures.Kind.LST_MUTATION, LstFixtures.Kind.CLASS_HIERARCHY}) {
+            corpus.addAll(LstFixtures.java(kind, files, methodsPerFile));
+        }
+        sequential = Environment.builder()
+                .scanRuntimeClasspath("com.yourorg")
+                .build()
+                .activateRecipes(
+                        "com.yourorg.AssertEqualsToAssertThat",
+                        "com.yourorg.NoGuavaListsNewArrayList",
+                        "com.yourorg.NoCollectionMutation",
+                        "com.yourorg.ClassHierarchy");
+        fused = new FusedJavaRecipes();
+    }
+
+    @Benchmark
+    public void sequential(Blackhole bh) {
+        bh.consume(sequential.run(new InMemoryLargeSourceSet(corpus), new InMemoryExecutionContext())
+                .getChangeset()
+                .getAllResults());
+    }
+
+    @Benchmark
+    public void fused(Blackhole bh) {
+        bh.consume(fused.run(new InMemoryLargeSourceSet(corpus), new InMemoryExecutionContext())
+                .getChangeset()
+                .getAllResults());
+    }
+}
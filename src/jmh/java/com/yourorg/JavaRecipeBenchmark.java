@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each Java recipe of this project over one compilation unit per benchmark operation, so that the reported
+ * throughput is compilation units per second. Run with {@code -prof gc} (the default in both builds) to see the
+ * allocation rate next to it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JavaRecipeBenchmark {
+
+    @Param({
+            "com.yourorg.AssertEqualsToAssertThat",
+            "com.yourorg.NoGuavaListsNewArrayList",
+            "com.yourorg.NoCollectionMutation",
+            "com.yourorg.ClassHierarchy",
+            "com.yourorg.ClassHierarchyAnalysis",
+            "com.yourorg.SimplifyTernaryRecipes",
+            "com.yourorg.SimplifyTernaryIndexed",
+            "com.yourorg.StringIsEmptyRecipes",
+            "com.yourorg.UseOpenRewriteNullable",
+            "com.yourorg.UseApacheStringUtils"
+    })
+    String recipeName;
+
+    /**
+     * Size of each compilation unit, in methods that give the recipe something to do.
+     */
+    @Param({"10", "100"})
+    int methodsPerFile;
+
+    /**
+     * Number of distinct compilation units the benchmark cycles through.
+     */
+    @Param({"16"})
+    int files;
+
+    Recipe recipe;
+    List<SourceFile> compilationUnits;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recipe = Environment.builder()
+                .scanRuntimeClasspath("com.yourorg")
+                .build()
+                .activateRecipes(recipeName);
+        compilationUnits = LstFixtures.java(fixtureFor(recipeName), files, methodsPerFile);
+    }
+
+    @Benchmark
+    public void compilationUnit(Blackhole bh) {
+        SourceFile cu = compilationUnits.get(next++ % compilationUnits.size());
+        bh.consume(recipe.run(new InMemoryLargeSourceSet(Collections.singletonList(cu)), new InMemoryExecutionContext())
+                .getChangeset()
+                .getAllResults());
+    }
+
+    static LstFixtures.Kind fixtureFor(String recipeName) {
+        switch (recipeName) {
+            case "com.yourorg.AssertEqualsToAssertThat":
+                return LstFixtures.Kind.JUNIT_ASSERTIONS;
+            case "com.yourorg.NoGuavaListsNewArrayList":
+                return LstFixtures.Kind.GUAVA_LISTS;
+            case "com.yourorg.NoCollectionMutation":
+                return LstFixtures.Kind.LST_MUTATION;
+            case "com.yourorg.ClassHierarchy":
+            case "com.yourorg.ClassHierarchyAnalysis":
+                return LstFixtures.Kind.CLASS_HIERARCHY;
+            case "com.yourorg.SimplifyTernaryRecipes":
+            case "com.yourorg.SimplifyTernaryIndexed":
+                return LstFixtures.Kind.TERNARY;
+            case "com.yourorg.StringIsEmptyRecipes":
+                return LstFixtures.Kind.STRING_LENGTH;
+            case "com.yourorg.UseOpenRewriteNullable":
+                return LstFixtures.Kind.JETBRAINS_NULLABLE;
+            case "com.yourorg.UseApacheStringUtils":
+                return LstFixtures.Kind.SPRING_STRING_UTILS;
+            default:
+                throw new IllegalArgumentException("No fixture for " + recipeName);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares parsing and type attributing a directory of Java sources with loading the same trees from an
+ * {@link LstStore}, including the validation of every source file's content against the store. Each operation is a
+ * cold load or parse of the whole directory, as when a recipe run starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LstStoreBenchmark {
+
+    @Param({"10000"})
+    int files;
+
+    @Param({"5"})
+    int methodsPerFile;
+
+    Path root;
+    List<Path> sources;
+    LstStore store;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("lst-store-benchmark");
+        sources = LstFixtures.writeJava(root, LstFixtures.Kind.TERNARY, files, methodsPerFile);
+        store = new LstStore(root.resolve("lst.bin"));
+        store.save(root, sources, parse());
+        System.out.printf("%nStore of %d files: %d bytes%n", files, Files.size(store.getFile()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SourceFile> parse() {
+        return JavaParser.fromJavaVersion().build()
+                .parse(sources, root, new InMemoryExecutionContext(Throwable::printStackTrace))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<Path, SourceFile> load() {
+        Map<Path, SourceFile> loaded = store.load(root, sources);
+        if (loaded.size() != sources.size()) {
+            throw new IllegalStateException("The store doesn't hold the trees of the sources");
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The YAML and plain text counterparts of {@link JavaRecipeBenchmark}: one source file per benchmark operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ResourceRecipeBenchmark {
+
+    /**
+     * Resources per pipeline file, and releases per RELEASE.md.
+     */
+    @Param({"10", "1000"})
+    int size;
+
+    List<SourceFile> pipelines;
+    SourceFile releaseNotes;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pipelines = LstFixtures.concoursePipelines(16, size);
+        releaseNotes = LstFixtures.releaseNotes(size);
+    }
+
+    @Benchmark
+    public void updateConcoursePipeline(Blackhole bh) {
+        SourceFile pipeline = pipelines.get(next++ % pipelines.size());
+        bh.consume(new UpdateConcoursePipeline("8.2.0")
+                .run(new InMemoryLargeSourceSet(Collections.singletonList(pipeline)), new InMemoryExecutionContext())
+                .getChangeset()
+                .getAllResults());
+    }
+
+    @Benchmark
+    public void appendToReleaseNotes(Blackhole bh) {
+        bh.consume(new AppendToReleaseNotes("## 2.0.0\n\n- New feature")
+                .run(new InMemoryLargeSourceSet(Collections.singletonList(releaseNotes)), new InMemoryExecutionContext())
+                .getChangeset()
+                .getAllResults());
+    }
+
+    @Benchmark
+    public void appendToReleaseNotesSearchWindow(Blackhole bh) {
+        bh.consume(new AppendToReleaseNotes("## 2.0.0\n\n- New feature", 4096)
+                .run(new InMemoryLargeSourceSet(Collections.singletonList(releaseNotes)), new InMemoryExecutionContext())
+                .getChangeset()
+                .getAllResults());
+    }
+}
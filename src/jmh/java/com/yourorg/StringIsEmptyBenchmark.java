@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaIsoVisitor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Visits a large corpus with the recipes generated from {@link StringIsEmpty}, to show what their {@code UsesMethod}
+ * preconditions save. On a corpus that never calls {@code String.length()} or {@code String.equals(Object)}, each
+ * source file should only cost a look at the methods it uses, far less than the plain traversal of the
+ * {@code traversal} benchmark. On a corpus that does, each source file costs a traversal plus matching the templates,
+ * and as the parsed templates are only cached for the visit of one source file, that is by far the most expensive
+ * case; pass a larger {@code files} to see how the guarded case scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StringIsEmptyBenchmark {
+
+    @Param({"STRING_LENGTH", "NO_STRING_LENGTH"})
+    String corpus;
+
+    @Param({"200"})
+    int files;
+
+    @Param({"20"})
+    int methodsPerFile;
+
+    List<SourceFile> compilationUnits;
+    List<TreeVisitor<?, ExecutionContext>> visitors;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        compilationUnits = LstFixtures.java(LstFixtures.Kind.valueOf(corpus), files, methodsPerFile);
+        visitors = new StringIsEmptyRecipes().getRecipeList().stream()
+                .map(Recipe::getVisitor)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void stringIsEmpty(Blackhole bh) {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        for (SourceFile cu : compilationUnits) {
+            for (TreeVisitor<?, ExecutionContext> visitor : visitors) {
+                bh.consume(visitor.visit(cu, ctx));
+            }
+        }
+    }
+
+    @Benchmark
+    public void traversal(Blackhole bh) {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        JavaIsoVisitor<ExecutionContext> visitor = new JavaIsoVisitor<>();
+        for (SourceFile cu : compilationUnits) {
+            bh.consume(visitor.visit(cu, ctx));
+        }
+    }
+}
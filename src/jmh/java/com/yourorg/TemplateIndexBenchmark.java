@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.TreeVisitor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares applying the rules of {@link SimplifyTernary} with the generated recipes, one traversal per rule that
+ * tries the rule's template on every ternary, against {@link SimplifyTernaryIndexed}, a single traversal that only
+ * tries the templates a ternary's shape selects from a {@link TemplateIndex}. Each operation visits every source file
+ * of the corpus, so scores are corpus passes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TemplateIndexBenchmark {
+
+    @Param({"10", "100"})
+    int methodsPerFile;
+
+    @Param({"16"})
+    int files;
+
+    List<SourceFile> compilationUnits;
+    List<TreeVisitor<?, ExecutionContext>> generated;
+    TreeVisitor<?, ExecutionContext> indexed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        compilationUnits = LstFixtures.java(LstFixtures.Kind.TERNARY, files, methodsPerFile);
+        generated = new SimplifyTernaryRecipes().getRecipeList().stream()
+                .map(Recipe::getVisitor)
+                .collect(Collectors.toList());
+        indexed = new SimplifyTernaryIndexed().getVisitor();
+    }
+
+    @Benchmark
+    public void generatedRecipes(Blackhole bh) {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        for (SourceFile cu : compilationUnits) {
+            for (TreeVisitor<?, ExecutionContext> visitor : generated) {
+                bh.consume(visitor.visit(cu, ctx));
+            }
+        }
+    }
+
+    @Benchmark
+    public void indexedRules(Blackhole bh) {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        for (SourceFile cu : compilationUnits) {
+            bh.consume(indexed.visit(cu, ctx));
+        }
+    }
+}
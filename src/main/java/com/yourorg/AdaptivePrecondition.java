@@ -0,0 +1,259 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The counterpart of {@link org.openrewrite.Preconditions#or} and {@link org.openrewrite.Preconditions#and} that
+ * checks its branches in the order that has been cheapest so far, rather than in the order they were declared in.
+ * <p>
+ * Each branch keeps the time its checks took and how often it decided the outcome on its own: for {@code or}, how
+ * often it was met, and for {@code and}, how often it wasn't. The branches are checked in ascending order of their
+ * mean cost divided by the share of checks they decided, which is the order that minimizes the expected cost of the
+ * composite when the branches are independent. The order is recomputed every {@value #REORDER_INTERVAL} source files,
+ * so it follows the corpus being run over rather than the one the recipe was written against.
+ * <p>
+ * A branch that doesn't {@linkplain TreeVisitor#isAcceptable accept} a source file isn't met by it, as a precondition
+ * passed to {@link org.openrewrite.Preconditions#check} on its own wouldn't be: an {@code and} with a Java-only branch
+ * rejects every other kind of file. {@code Preconditions.and} skips such a branch instead.
+ * <p>
+ * The outcome doesn't depend on the order, only the time it takes. What the branches learn is kept in the
+ * {@link ExecutionContext} of a run, so that each run starts from the declared order and learns from its own corpus
+ * only, while an instance may be kept in a constant and shared by the visitors of every run. The state is safe to
+ * share between the threads of a partitioned run.
+ */
+public final class AdaptivePrecondition {
+
+    /**
+     * The number of source files checked between reorderings of the branches.
+     */
+    static final int REORDER_INTERVAL = 64;
+
+    private final boolean or;
+    private final List<Branch> branches;
+
+    private AdaptivePrecondition(boolean or, Branch... branches) {
+        if (branches.length == 0) {
+            throw new IllegalArgumentException("A precondition needs at least one branch");
+        }
+        this.or = or;
+        this.branches = Collections.unmodifiableList(Arrays.asList(branches.clone()));
+    }
+
+    /**
+     * @return a precondition that is met when any of the branches is
+     */
+    public static AdaptivePrecondition or(Branch... branches) {
+        return new AdaptivePrecondition(true, branches);
+    }
+
+    /**
+     * @return a precondition that is met when all the branches are
+     */
+    public static AdaptivePrecondition and(Branch... branches) {
+        return new AdaptivePrecondition(false, branches);
+    }
+
+    /**
+     * @param name         the name of the branch in the {@code PreconditionSelectivity} data table
+     * @param precondition creates the visitor checking the branch, once per visitor of the composite
+     */
+    public static Branch branch(String name, Supplier<TreeVisitor<?, ExecutionContext>> precondition) {
+        return new Branch(name, precondition);
+    }
+
+    /**
+     * @return the state of every adaptive precondition checked in the run of the execution context, which execution
+     * contexts that defer to it, such as those of the partitions of a {@link LocalRecipeRunner} run, share once it has
+     * been created
+     */
+    static Map<AdaptivePrecondition, Learned> learned(ExecutionContext ctx) {
+        Map<AdaptivePrecondition, Learned> learned = ctx.getMessage(Learned.class.getName());
+        if (learned == null) {
+            synchronized (Learned.class) {
+                learned = ctx.getMessage(Learned.class.getName());
+                if (learned == null) {
+                    learned = new ConcurrentHashMap<>();
+                    ctx.putMessage(Learned.class.getName(), learned);
+                }
+            }
+        }
+        return learned;
+    }
+
+    private Learned learnedIn(ExecutionContext ctx) {
+        Map<AdaptivePrecondition, Learned> learned = learned(ctx);
+        Learned state = learned.get(this);
+        return state != null ? state : learned.computeIfAbsent(this, p -> new Learned(branches));
+    }
+
+    /**
+     * @return the branches, in the order they were declared in
+     */
+    public List<Branch> getBranches() {
+        return branches;
+    }
+
+    /**
+     * @return the branches, in the order they are currently checked in by the run of the execution context
+     */
+    public List<Branch> getOrder(ExecutionContext ctx) {
+        return learnedIn(ctx).order;
+    }
+
+    /**
+     * @return the number of checks of the branch, in the run of the execution context, whose outcome decided the
+     * outcome of the composite
+     */
+    public long getDecisions(ExecutionContext ctx, Branch branch) {
+        return learnedIn(ctx).statistics(branch).decisions.sum();
+    }
+
+    /**
+     * @return a new visitor checking the precondition, to pass to {@link org.openrewrite.Preconditions#check}
+     */
+    public TreeVisitor<?, ExecutionContext> visitor() {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            private final Map<Branch, TreeVisitor<?, ExecutionContext>> visitors = new IdentityHashMap<>();
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                Learned learned = learnedIn(ctx);
+                SourceFile sourceFile = tree instanceof SourceFile ? (SourceFile) tree : null;
+                Tree result = tree;
+                for (Branch branch : learned.order) {
+                    TreeVisitor<?, ExecutionContext> visitor = visitors.computeIfAbsent(branch, b -> b.precondition.get());
+                    // A branch that doesn't accept the source file leaves it unchanged, so it isn't met
+                    long start = System.nanoTime();
+                    Tree after = visitor.visit(tree, ctx);
+                    boolean met = after != tree;
+                    long nanos = System.nanoTime() - start;
+                    learned.statistics(branch).record(nanos, met == or);
+                    RecipeMetrics.preconditionChecked(branch.name, nanos, !met);
+                    // Like Preconditions.or() and Preconditions.and(), the tree is returned unchanged when the
+                    // precondition isn't met, and as changed by the last branch checked when it is
+                    result = after;
+                    if (met == or) {
+                        break;
+                    }
+                }
+                if (sourceFile != null && learned.checked.incrementAndGet() % REORDER_INTERVAL == 0) {
+                    learned.reorder();
+                }
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(or ? " or " : " and ");
+        for (Branch branch : branches) {
+            joiner.add(branch.name);
+        }
+        return joiner.toString();
+    }
+
+    public static final class Branch {
+        private final String name;
+        private final Supplier<TreeVisitor<?, ExecutionContext>> precondition;
+
+        private Branch(String name, Supplier<TreeVisitor<?, ExecutionContext>> precondition) {
+            this.name = name;
+            this.precondition = precondition;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * What the branches of a precondition have learned in a run, and the order that follows from it.
+     */
+    static final class Learned {
+        private final List<Branch> branches;
+        private final Map<Branch, Statistics> statistics = new IdentityHashMap<>();
+        private final AtomicLong checked = new AtomicLong();
+        private volatile List<Branch> order;
+
+        Learned(List<Branch> branches) {
+            this.branches = branches;
+            this.order = branches;
+            for (Branch branch : branches) {
+                statistics.put(branch, new Statistics());
+            }
+        }
+
+        private Statistics statistics(Branch branch) {
+            return statistics.get(branch);
+        }
+
+        private void reorder() {
+            List<Branch> order = new ArrayList<>(branches);
+            Map<Branch, Double> ranks = new IdentityHashMap<>();
+            for (Branch branch : order) {
+                ranks.put(branch, statistics(branch).rank());
+            }
+            order.sort(Comparator.comparingDouble(ranks::get));
+            this.order = Collections.unmodifiableList(order);
+        }
+    }
+
+    private static final class Statistics {
+        private final LongAdder checks = new LongAdder();
+        private final LongAdder decisions = new LongAdder();
+        private final LongAdder timeNanos = new LongAdder();
+
+        private void record(long nanos, boolean decided) {
+            checks.increment();
+            timeNanos.add(nanos);
+            if (decided) {
+                decisions.increment();
+            }
+        }
+
+        /**
+         * The expected cost of a decision by this branch, with the share of decisions smoothed so that a branch
+         * that has never decided anything still gets tried. A branch that has never been checked ranks first.
+         */
+        private double rank() {
+            long checks = this.checks.sum();
+            if (checks == 0) {
+                return 0;
+            }
+            double meanNanos = (double) timeNanos.sum() / checks;
+            double decided = (decisions.sum() + 1.0) / (checks + 2.0);
+            return meanNanos / decided;
+        }
+    }
+}
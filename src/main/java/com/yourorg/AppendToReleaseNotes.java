@@ -15,6 +15,8 @@
  */
 package com.yourorg;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
@@ -31,7 +33,8 @@ import java.util.stream.Collectors;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class AppendToReleaseNotes extends ScanningRecipe<AppendToReleaseNotes.Accumulator> {
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+public class AppendToReleaseNotes extends ScanningRecipe<AppendToReleaseNotes.Accumulator> implements FileInterest {
 
     @Override
     public String getDisplayName() {
@@ -43,11 +46,29 @@ public class AppendToReleaseNotes extends ScanningRecipe<AppendToReleaseNotes.Ac
         return "Adds the specified line to RELEASE.md.";
     }
 
+    @Override
+    public Collection<String> fileInterest() {
+        return Collections.singletonList("RELEASE.md");
+    }
+
     @Option(displayName = "Message",
             description = "Message to append to the bottom of RELEASE.md.",
             example = "## 1.0.0\n\n- New feature")
     String message;
 
+    @Option(displayName = "Search window",
+            description = "Only look for the message in this many characters at the end of RELEASE.md, rather than in " +
+                          "the whole file. As messages are appended at the end, this avoids searching years of " +
+                          "release notes, at the cost of appending a message again if it only appears further up.",
+            example = "4096",
+            required = false)
+    @Nullable
+    Integer searchWindow;
+
+    public AppendToReleaseNotes(String message) {
+        this(message, null);
+    }
+
     // The shared state between the scanner and the visitor. The custom class ensures we can easily extend the recipe.
     public static class Accumulator {
         boolean found;
@@ -88,7 +109,7 @@ public class AppendToReleaseNotes extends ScanningRecipe<AppendToReleaseNotes.Ac
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
-        return new PlainTextVisitor<ExecutionContext>() {
+        return RecipeEvents.visitor(this, new PlainTextVisitor<ExecutionContext>() {
             @Override
             public PlainText visitText(PlainText text, ExecutionContext ctx) {
                 PlainText t = super.visitText(text, ctx);
@@ -97,12 +118,14 @@ public class AppendToReleaseNotes extends ScanningRecipe<AppendToReleaseNotes.Ac
                     return t;
                 }
                 // If the file already contains the message, don't append it again
-                if (t.getText().contains(message)) {
+                String notes = t.getText();
+                int searchFrom = searchWindow == null ? 0 : Math.max(0, notes.length() - searchWindow - message.length());
+                if (notes.indexOf(message, searchFrom) >= 0) {
                     return t;
                 }
-                // Append the message to the end of the file
-                return t.withText(t.getText() + "\n" + message);
+                // Append the message to the end of the file, copying the existing text only once
+                return t.withText(notes.concat("\n" + message));
             }
-        };
+        });
     }
 }
@@ -18,22 +18,21 @@ package com.yourorg;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.JavaParser;
-import org.openrewrite.java.JavaTemplate;
 import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class AssertEqualsToAssertThat extends Recipe {
+public class AssertEqualsToAssertThat extends Recipe implements FileInterest, FusibleRecipe {
     @Override
     public String getDisplayName() {
         // language=markdown
@@ -45,45 +44,63 @@ public class AssertEqualsToAssertThat extends Recipe {
         return "Use AssertJ assertThat instead of JUnit assertEquals().";
     }
 
+    @Override
+    public Collection<String> fileInterest() {
+        return JAVA_SOURCES;
+    }
+
     private static MethodMatcher MATCHER = new MethodMatcher("org.junit.jupiter.api.Assertions assertEquals(..)");
 
+    private static final AdaptivePrecondition USES_ASSERT_EQUALS = AdaptivePrecondition.and(
+            AdaptivePrecondition.branch("UsesType org.junit.jupiter.api.Assertions",
+                    () -> new UsesType<>("org.junit.jupiter.api.Assertions", null)),
+            AdaptivePrecondition.branch("UsesMethod org.junit.jupiter.api.Assertions assertEquals(..)",
+                    () -> new UsesMethod<>(MATCHER)));
+
+    private static final List<String> ASSERTJ_IMPORTS = Collections.singletonList("org.assertj.core.api.Assertions");
+    private static final List<String> ASSERTJ_CLASSPATH = Collections.singletonList("assertj-core");
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new UsesType<>("org.junit.jupiter.api.Assertions", null),
-                new JavaIsoVisitor<ExecutionContext>() {
-                    @Override
-                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
-                        J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
-                        if (!MATCHER.matches(m)) {
-                            return m;
-                        }
-                        List<Expression> arguments = m.getArguments();
-                        maybeAddImport("org.assertj.core.api.Assertions");
-                        maybeRemoveImport("org.junit.jupiter.api.Assertions");
-                        if (arguments.size() == 2) {
-                            Expression expected = arguments.get(0);
-                            Expression actual = arguments.get(1);
+        return RecipeEvents.check(this, fusiblePrecondition(), fusibleVisitor());
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> fusiblePrecondition() {
+        return USES_ASSERT_EQUALS.visitor();
+    }
+
+    @Override
+    public FusibleJavaVisitor fusibleVisitor() {
+        return new FusibleJavaVisitor() {
+            @Override
+            public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J j = super.visitMethodInvocation(method, ctx);
+                if (!(j instanceof J.MethodInvocation) || !MATCHER.matches((J.MethodInvocation) j)) {
+                    return j;
+                }
+                J.MethodInvocation m = (J.MethodInvocation) j;
+                List<Expression> arguments = m.getArguments();
+                maybeAddImport("org.assertj.core.api.Assertions");
+                maybeRemoveImport("org.junit.jupiter.api.Assertions");
+                if (arguments.size() == 2) {
+                    Expression expected = arguments.get(0);
+                    Expression actual = arguments.get(1);
 
-                            m = JavaTemplate.builder("Assertions.assertThat(#{any()}).isEqualTo(#{any()})")
-                                    .imports("org.assertj.core.api.Assertions")
-                                    .javaParser(JavaParser.fromJavaVersion()
-                                            .classpath("assertj-core"))
-                                    .build()
-                                    .apply(getCursor(), m.getCoordinates().replace(), actual, expected);
-                        } else if (arguments.size() == 3) {
-                            Expression expected = arguments.get(0);
-                            Expression actual = arguments.get(1);
-                            Expression description = arguments.get(2);
+                    m = JavaTemplateCache.apply(JavaTemplateCache.shared()
+                                    .get("Assertions.assertThat(#{any()}).isEqualTo(#{any()})", ASSERTJ_IMPORTS, ASSERTJ_CLASSPATH),
+                            getCursor(), m.getCoordinates().replace(), actual, expected);
+                } else if (arguments.size() == 3) {
+                    Expression expected = arguments.get(0);
+                    Expression actual = arguments.get(1);
+                    Expression description = arguments.get(2);
 
-                            m = JavaTemplate.builder("Assertions.assertThat(#{any()}).as(#{any()}).isEqualTo(#{any()})")
-                                    .imports("org.assertj.core.api.Assertions")
-                                    .javaParser(JavaParser.fromJavaVersion()
-                                            .classpath("assertj-core"))
-                                    .build()
-                                    .apply(getCursor(), m.getCoordinates().replace(), actual, description, expected);
-                        }
-                        return m;
-                    }
-                });
+                    m = JavaTemplateCache.apply(JavaTemplateCache.shared()
+                                    .get("Assertions.assertThat(#{any()}).as(#{any()}).isEqualTo(#{any()})", ASSERTJ_IMPORTS, ASSERTJ_CLASSPATH),
+                            getCursor(), m.getCoordinates().replace(), actual, description, expected);
+                }
+                return m;
+            }
+        };
     }
 }
@@ -21,13 +21,16 @@ import lombok.Value;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
 
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class ClassHierarchy extends Recipe {
+public class ClassHierarchy extends Recipe implements FileInterest, FusibleRecipe {
 
     transient ClassHierarchyReport report = new ClassHierarchyReport(this);
 
@@ -41,33 +44,138 @@ public class ClassHierarchy extends Recipe {
         return "Produces a data table showing inheritance relationships between classes.";
     }
 
+    @Override
+    public Collection<String> fileInterest() {
+        return JAVA_SOURCES;
+    }
+
+    /**
+     * The (class, relationship, supertype) triples already reported in a run, so that a type seen again in a later
+     * cycle, or declared in more than one source set, is only reported once.
+     * <p>
+     * The rows reported refer to the names held by the run's {@link NameTable} rather than to the names they were
+     * given. Each type parsed on its own, in another source set or LST, has its own copy of the name of every supertype,
+     * so {@code java.lang.Object} and popular interfaces would otherwise be held once for every row that names them.
+     */
+    public static class EmittedRows {
+        final NameTable names;
+        final ConcurrentLongSet rows = new ConcurrentLongSet();
+        final LongAdder duplicatesDropped = new LongAdder();
+
+        public EmittedRows() {
+            this(new NameTable());
+        }
+
+        private EmittedRows(NameTable names) {
+            this.names = names;
+        }
+
+        /**
+         * @return the rows of a part of the run, such as a partition of its source files, which are dropped only if
+         * reported in that part but refer to the names of this run, so that they can be {@link #merge merged} into it
+         */
+        EmittedRows part() {
+            return new EmittedRows(names);
+        }
+
+        /**
+         * @return the row to report, with the run's instances of its names, or null if it was already reported
+         */
+        @Nullable ClassHierarchyReport.Row add(String className, ClassHierarchyReport.Relationship relationship,
+                                               String superClassName) {
+            int classId = names.intern(className);
+            int supertypeId = names.intern(superClassName);
+            if (rows.add((long) classId << 32 | (long) supertypeId << 1 | relationship.ordinal())) {
+                return new ClassHierarchyReport.Row(names.name(classId), relationship, names.name(supertypeId));
+            }
+            duplicatesDropped.increment();
+            return null;
+        }
+
+        /**
+         * @param row a row reported by a {@link #part} of this run, which already refers to the names of this run
+         * @return the same row, or null if it was already reported
+         */
+        @Nullable ClassHierarchyReport.Row merge(ClassHierarchyReport.Row row) {
+            int classId = names.intern(row.getClassName());
+            int supertypeId = names.intern(row.getSuperClassName());
+            if (rows.add((long) classId << 32 | (long) supertypeId << 1 | row.getRelationship().ordinal())) {
+                return row;
+            }
+            duplicatesDropped.increment();
+            return null;
+        }
+
+        public long getRowsEmitted() {
+            return rows.size();
+        }
+
+        public long getDuplicatesDropped() {
+            return duplicatesDropped.sum();
+        }
+    }
+
+    /**
+     * @param ctx the execution context of a recipe run
+     * @return the rows reported in that run
+     */
+    public static EmittedRows emittedRows(ExecutionContext ctx) {
+        EmittedRows emitted = ctx.getMessage(EmittedRows.class.getName());
+        if (emitted == null) {
+            synchronized (EmittedRows.class) {
+                emitted = ctx.getMessage(EmittedRows.class.getName());
+                if (emitted == null) {
+                    emitted = new EmittedRows();
+                    ctx.putMessage(EmittedRows.class.getName(), emitted);
+                }
+            }
+        }
+        return emitted;
+    }
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new JavaIsoVisitor<ExecutionContext>() {
+        return RecipeEvents.visitor(this, fusibleVisitor());
+    }
+
+    @Override
+    public @Nullable TreeVisitor<?, ExecutionContext> fusiblePrecondition() {
+        return null;
+    }
+
+    @Override
+    public FusibleJavaVisitor fusibleVisitor() {
+        return new FusibleJavaVisitor() {
 
             @Override
-            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+            public J visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
                 JavaType.FullyQualified type = classDecl.getType();
                 // Capture all classes, which all extend java.lang.Object
                 if (type instanceof JavaType.Class && type.getSupertype() != null) {
                     JavaType.FullyQualified supertype = type.getSupertype();
                     // Capture the direct superclass
-                    report.insertRow(ctx, new ClassHierarchyReport.Row(
-                            type.getFullyQualifiedName(),
-                            ClassHierarchyReport.Relationship.EXTENDS,
-                            supertype.getFullyQualifiedName()));
+                    insertOnce(ctx, type.getFullyQualifiedName(), ClassHierarchyReport.Relationship.EXTENDS,
+                            supertype.getFullyQualifiedName());
 
                     // Capture all interfaces
                     for (JavaType.FullyQualified anInterface : type.getInterfaces()) {
-                        report.insertRow(ctx, new ClassHierarchyReport.Row(
-                                type.getFullyQualifiedName(),
-                                ClassHierarchyReport.Relationship.IMPLEMENTS,
-                                anInterface.getFullyQualifiedName()
-                        ));
+                        insertOnce(ctx, type.getFullyQualifiedName(), ClassHierarchyReport.Relationship.IMPLEMENTS,
+                                anInterface.getFullyQualifiedName());
                     }
                 }
                 return super.visitClassDeclaration(classDecl, ctx);
             }
+
+            private void insertOnce(ExecutionContext ctx, String className,
+                                    ClassHierarchyReport.Relationship relationship, String superClassName) {
+                // Rows from cycles the report ignores anyway are neither new nor duplicates
+                if (ctx.getCycle() <= report.getMaxCycle()) {
+                    ClassHierarchyReport.Row row = emittedRows(ctx).add(className, relationship, superClassName);
+                    if (row != null) {
+                        report.insertRow(ctx, row);
+                    }
+                }
+            }
         };
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.ClassHierarchyReport;
+import com.yourorg.table.TypeHierarchyMetrics;
+import com.yourorg.table.TypeHierarchyRelations;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.*;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class ClassHierarchyAnalysis extends ScanningRecipe<ClassHierarchyAnalysis.Accumulator> implements FileInterest {
+
+    transient TypeHierarchyMetrics metrics = new TypeHierarchyMetrics(this);
+    transient TypeHierarchyRelations relations = new TypeHierarchyRelations(this);
+
+    @Option(displayName = "Type name",
+            description = "Fully qualified name of a type to list every subtype and supertype of.",
+            example = "java.util.List",
+            required = false)
+    @Nullable
+    String typeName;
+
+    @Override
+    public String getDisplayName() {
+        return "Class hierarchy analysis";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Builds the inheritance graph of the types in the source set and reports the depth and fan-out of each " +
+               "declared type, and optionally every subtype and supertype of one type.";
+    }
+
+    @Override
+    public Collection<String> fileInterest() {
+        return JAVA_SOURCES;
+    }
+
+    public static class Accumulator {
+        final NameTable names = new NameTable();
+        final ClassHierarchyGraph.Builder graph = ClassHierarchyGraph.builder(names);
+        final BitSet declared = new BitSet();
+    }
+
+    @Override
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                JavaType.FullyQualified type = classDecl.getType();
+                if (type instanceof JavaType.Class) {
+                    String name = type.getFullyQualifiedName();
+                    acc.declared.set(acc.names.intern(name));
+                    // Interfaces have no superclass, but may extend other interfaces
+                    if (type.getSupertype() != null) {
+                        acc.graph.add(name, ClassHierarchyReport.Relationship.EXTENDS, type.getSupertype().getFullyQualifiedName());
+                    }
+                    for (JavaType.FullyQualified anInterface : type.getInterfaces()) {
+                        acc.graph.add(name, ClassHierarchyReport.Relationship.IMPLEMENTS, anInterface.getFullyQualifiedName());
+                    }
+                }
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+        };
+    }
+
+    @Override
+    public Collection<? extends SourceFile> generate(Accumulator acc, ExecutionContext ctx) {
+        ClassHierarchyGraph graph = acc.graph.build();
+        for (int type = acc.declared.nextSetBit(0); type >= 0; type = acc.declared.nextSetBit(type + 1)) {
+            metrics.insertRow(ctx, new TypeHierarchyMetrics.Row(
+                    acc.names.name(type),
+                    graph.depth(type),
+                    graph.fanIn(type),
+                    graph.transitiveSupertypeCount(type),
+                    graph.fanOut(type),
+                    graph.transitiveSubtypeCount(type)));
+        }
+
+        int queried = typeName == null ? -1 : acc.names.id(typeName);
+        if (queried >= 0) {
+            String queriedName = acc.names.name(queried);
+            graph.forEachSupertype(queried, (type, distance) -> relations.insertRow(ctx, new TypeHierarchyRelations.Row(
+                    queriedName, TypeHierarchyRelations.Relation.SUPERTYPE, acc.names.name(type), distance)));
+            graph.forEachSubtype(queried, (type, distance) -> relations.insertRow(ctx, new TypeHierarchyRelations.Row(
+                    queriedName, TypeHierarchyRelations.Relation.SUBTYPE, acc.names.name(type), distance)));
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.ClassHierarchyReport;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * An immutable graph of the inheritance relationships between types, held as int arrays in compressed sparse row form
+ * and indexed by the ids of a {@link NameTable}, so that transitive queries over hundreds of thousands of types neither
+ * box ids nor compare strings.
+ * <p>
+ * Traversals reuse a single visited-marker array, so a graph must be queried from one thread at a time.
+ */
+public final class ClassHierarchyGraph {
+
+    private static final int NONE = -1;
+
+    /**
+     * Called for each type reached by a traversal, in breadth-first order.
+     */
+    public interface TypeConsumer {
+        /**
+         * @param type     the id of the type reached
+         * @param distance the number of edges between the type and the type the traversal started at
+         */
+        void accept(int type, int distance);
+    }
+
+    private final NameTable names;
+    private final int size;
+
+    private final int[] supertypeOffsets;
+    private final int[] supertypes;
+    private final int[] subtypeOffsets;
+    private final int[] subtypes;
+
+    /**
+     * The direct superclass of each type, or -1 if it has none.
+     */
+    private final int[] superclass;
+    private final int[] depth;
+
+    private final int[] visited;
+    private int epoch;
+    private int[] queue;
+
+    private ClassHierarchyGraph(NameTable names, int[] from, int[] to, byte[] relationship, int edges) {
+        this.names = names;
+        this.size = names.size();
+
+        long[] sorted = new long[edges];
+        for (int i = 0; i < edges; i++) {
+            sorted[i] = (long) from[i] << 32 | to[i];
+        }
+        Arrays.sort(sorted);
+
+        this.supertypeOffsets = new int[size + 1];
+        this.subtypeOffsets = new int[size + 1];
+        this.superclass = new int[size];
+        Arrays.fill(superclass, NONE);
+        int unique = 0;
+        for (int i = 0; i < edges; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                // The same relationship recorded again, e.g. by a later cycle of the scan
+                continue;
+            }
+            sorted[unique++] = sorted[i];
+            supertypeOffsets[(int) (sorted[i] >>> 32) + 1]++;
+            subtypeOffsets[(int) sorted[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            supertypeOffsets[i + 1] += supertypeOffsets[i];
+            subtypeOffsets[i + 1] += subtypeOffsets[i];
+        }
+
+        this.supertypes = new int[unique];
+        this.subtypes = new int[unique];
+        int[] subtypeFill = Arrays.copyOf(subtypeOffsets, size);
+        for (int i = 0; i < unique; i++) {
+            int sub = (int) (sorted[i] >>> 32);
+            int sup = (int) sorted[i];
+            // Edges are sorted by subtype, so each subtype's supertypes are contiguous and in order
+            supertypes[i] = sup;
+            subtypes[subtypeFill[sup]++] = sub;
+        }
+        for (int i = 0; i < edges; i++) {
+            if (relationship[i] == ClassHierarchyReport.Relationship.EXTENDS.ordinal()) {
+                superclass[from[i]] = to[i];
+            }
+        }
+
+        this.depth = new int[size];
+        Arrays.fill(depth, NONE);
+        this.visited = new int[size];
+        this.queue = new int[Math.min(size, 1024)];
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * @return the number of types in the graph, whose ids are 0 up to but excluding this number
+     */
+    public int size() {
+        return size;
+    }
+
+    public int[] directSupertypes(int type) {
+        return Arrays.copyOfRange(supertypes, supertypeOffsets[type], supertypeOffsets[type + 1]);
+    }
+
+    public int[] directSubtypes(int type) {
+        return Arrays.copyOfRange(subtypes, subtypeOffsets[type], subtypeOffsets[type + 1]);
+    }
+
+    /**
+     * @return the number of types that directly extend or implement the type
+     */
+    public int fanOut(int type) {
+        return subtypeOffsets[type + 1] - subtypeOffsets[type];
+    }
+
+    /**
+     * @return the number of types the type directly extends or implements
+     */
+    public int fanIn(int type) {
+        return supertypeOffsets[type + 1] - supertypeOffsets[type];
+    }
+
+    /**
+     * @return the length of the chain of superclasses above the type, which is 0 for a type whose superclass is not
+     * in the graph, such as {@code java.lang.Object}
+     */
+    public int depth(int type) {
+        if (depth[type] != NONE) {
+            return depth[type];
+        }
+        // Walk up to the first type whose depth is known, then fill in the depths on the way back down
+        int chain = 0;
+        int top = type;
+        int steps = 0;
+        while (superclass[top] != NONE && depth[top] == NONE && steps++ < size) {
+            ensureQueueCapacity(chain + 1);
+            queue[chain++] = top;
+            top = superclass[top];
+        }
+        int d = depth[top] == NONE ? 0 : depth[top];
+        depth[top] = d;
+        while (chain > 0) {
+            depth[queue[--chain]] = ++d;
+        }
+        return depth[type];
+    }
+
+    /**
+     * @return every type the type extends or implements, directly or indirectly, nearest first
+     */
+    public int[] supertypes(int type) {
+        return collect(type, supertypeOffsets, supertypes);
+    }
+
+    /**
+     * @return every type that extends or implements the type, directly or indirectly, nearest first
+     */
+    public int[] subtypes(int type) {
+        return collect(type, subtypeOffsets, subtypes);
+    }
+
+    public int transitiveSupertypeCount(int type) {
+        return traverse(type, supertypeOffsets, supertypes, null);
+    }
+
+    public int transitiveSubtypeCount(int type) {
+        return traverse(type, subtypeOffsets, subtypes, null);
+    }
+
+    public void forEachSupertype(int type, TypeConsumer consumer) {
+        traverse(type, supertypeOffsets, supertypes, consumer);
+    }
+
+    public void forEachSubtype(int type, TypeConsumer consumer) {
+        traverse(type, subtypeOffsets, subtypes, consumer);
+    }
+
+    private int[] collect(int type, int[] offsets, int[] targets) {
+        int count = traverse(type, offsets, targets, null);
+        // The traversal leaves the types it reached at the head of the queue
+        return Arrays.copyOf(queue, count);
+    }
+
+    /**
+     * Breadth-first traversal that marks visited types with a fresh epoch rather than clearing a visited set.
+     *
+     * @return the number of types reached, not counting the type the traversal started at
+     */
+    private int traverse(int type, int[] offsets, int[] targets, @Nullable TypeConsumer consumer) {
+        if (++epoch == 0) {
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+        visited[type] = epoch;
+        int head = 0;
+        int tail = 0;
+        int distance = 0;
+        int levelEnd = 0;
+        int current = type;
+        while (true) {
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int next = targets[i];
+                if (visited[next] != epoch) {
+                    visited[next] = epoch;
+                    ensureQueueCapacity(tail + 1);
+                    queue[tail++] = next;
+                }
+            }
+            if (head == levelEnd) {
+                distance++;
+                levelEnd = tail;
+            }
+            if (head == tail) {
+                return tail;
+            }
+            current = queue[head++];
+            if (consumer != null) {
+                consumer.accept(current, distance);
+            }
+        }
+    }
+
+    private void ensureQueueCapacity(int capacity) {
+        if (capacity > queue.length) {
+            queue = Arrays.copyOf(queue, Math.max(capacity, queue.length * 2));
+        }
+    }
+
+    public static Builder builder(NameTable names) {
+        return new Builder(names);
+    }
+
+    /**
+     * Collects relationships between types by name, interning the names as it goes.
+     */
+    public static final class Builder {
+        private final NameTable names;
+        private int[] from = new int[256];
+        private int[] to = new int[256];
+        private byte[] relationship = new byte[256];
+        private int edges;
+
+        private Builder(NameTable names) {
+            this.names = names;
+        }
+
+        public synchronized Builder add(String type, ClassHierarchyReport.Relationship relationship, String supertype) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+                this.relationship = Arrays.copyOf(this.relationship, edges * 2);
+            }
+            from[edges] = names.intern(type);
+            to[edges] = names.intern(supertype);
+            this.relationship[edges] = (byte) relationship.ordinal();
+            edges++;
+            return this;
+        }
+
+        public synchronized ClassHierarchyGraph build() {
+            return new ClassHierarchyGraph(names, from, to, relationship, edges);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+/**
+ * A set of primitive longs that several threads can add to at once, held in open-addressing arrays rather than as
+ * boxed entries of a {@code ConcurrentHashMap}.
+ * <p>
+ * The set is split into segments by hash, each guarded by its own lock, so that threads adding different values
+ * rarely contend.
+ */
+public final class ConcurrentLongSet {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public ConcurrentLongSet() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @return true if the value was not already in the set
+     */
+    public boolean add(long value) {
+        long hash = mix(value);
+        return segments[(int) (hash >>> 60)].add(value, (int) hash);
+    }
+
+    public boolean contains(long value) {
+        long hash = mix(value);
+        return segments[(int) (hash >>> 60)].contains(value, (int) hash);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Segment {
+        // Zero marks an empty slot, so whether zero itself is in the set is kept apart
+        private long[] slots = new long[16];
+        private boolean containsZero;
+        private int size;
+
+        synchronized boolean add(long value, int hash) {
+            if (value == 0) {
+                if (containsZero) {
+                    return false;
+                }
+                containsZero = true;
+                size++;
+                return true;
+            }
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                if (slots[i] == value) {
+                    return false;
+                }
+                if (slots[i] == 0) {
+                    slots[i] = value;
+                    if (++size * 2 > slots.length) {
+                        rehash();
+                    }
+                    return true;
+                }
+            }
+        }
+
+        synchronized boolean contains(long value, int hash) {
+            if (value == 0) {
+                return containsZero;
+            }
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                if (slots[i] == value) {
+                    return true;
+                }
+                if (slots[i] == 0) {
+                    return false;
+                }
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void rehash() {
+            long[] rehashed = new long[slots.length * 2];
+            int mask = rehashed.length - 1;
+            for (long value : slots) {
+                if (value != 0) {
+                    int i = (int) mix(value) & mask;
+                    while (rehashed[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    rehashed[i] = value;
+                }
+            }
+            slots = rehashed;
+        }
+    }
+}
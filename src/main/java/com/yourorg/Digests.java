@@ -0,0 +1,147 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 digests of content and of code, for keys that must change whenever what they stand for does.
+ */
+final class Digests {
+
+    private static final String JDK = "jdk:";
+
+    /**
+     * The digest of each jar and class directory code is loaded from, which can't change while it is loaded, nor is
+     * expected to while a classpath is in use.
+     */
+    private static final Map<String, String> CODE_DIGESTS = new ConcurrentHashMap<>();
+
+    private Digests() {
+    }
+
+    static String sha256(byte[] bytes) {
+        return hex(sha256().digest(bytes));
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @param classes classes whose code matters
+     * @return a digest of the content of every jar and class directory the classes are loaded from, and of the JVM
+     * for classes that come with it
+     */
+    static String code(Collection<? extends Class<?>> classes) {
+        Set<String> locations = new TreeSet<>();
+        for (Class<?> c : classes) {
+            locations.add(codeLocation(c));
+        }
+        StringBuilder code = new StringBuilder();
+        for (String location : locations) {
+            code.append(location).append('=').append(codeDigest(location)).append('\n');
+        }
+        return sha256(code.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param paths files and directories, such as the entries of a classpath
+     * @return a digest of the content of every file and directory
+     */
+    static String files(Collection<Path> paths) {
+        StringBuilder files = new StringBuilder();
+        for (Path path : paths) {
+            String location = path.toAbsolutePath().normalize().toString();
+            files.append(location).append('=').append(codeDigest(location)).append('\n');
+        }
+        return sha256(files.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String codeLocation(Class<?> c) {
+        CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            // Loaded by the bootstrap class loader, so it comes with the JVM
+            return JDK + System.getProperty("java.home") + ":" + System.getProperty("java.runtime.version");
+        }
+        try {
+            return Paths.get(codeSource.getLocation().toURI()).toString();
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return codeSource.getLocation().toString();
+        }
+    }
+
+    private static String codeDigest(String location) {
+        return CODE_DIGESTS.computeIfAbsent(location, l -> {
+            if (l.startsWith(JDK) || !Files.exists(Paths.get(l))) {
+                // Nothing to read, so the location is all there is to tell one version from another
+                return l;
+            }
+            Path path = Paths.get(l);
+            try {
+                MessageDigest digest = sha256();
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> files = Files.walk(path)) {
+                        for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                            digest.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                            digest.update(Files.readAllBytes(file));
+                        }
+                    }
+                } else {
+                    try (InputStream in = Files.newInputStream(path)) {
+                        byte[] buffer = new byte[8192];
+                        for (int n; (n = in.read(buffer)) > 0; ) {
+                            digest.update(buffer, 0, n);
+                        }
+                    }
+                }
+                return hex(digest.digest());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
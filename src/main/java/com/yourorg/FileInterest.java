@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implemented by recipes that only ever read or change some of the files in a repository, so that whoever runs them
+ * can skip reading and parsing the rest. See {@link FileInterestMatcher}.
+ */
+public interface FileInterest {
+
+    List<String> JAVA_SOURCES = Collections.singletonList("**.java");
+
+    /**
+     * @return globs, in the syntax of {@link java.nio.file.FileSystem#getPathMatcher(String)} but without
+     * {@code {...}} groups, of the source paths this recipe reads or changes, relative to the root of the repository
+     */
+    Collection<String> fileInterest();
+}
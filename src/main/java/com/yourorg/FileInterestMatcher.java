@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.marker.SearchResult;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The {@link FileInterest} of one or more recipes, compiled into a single {@link PathMatcher}.
+ * <p>
+ * A recipe that doesn't declare its file interest may need any file, so a matcher for a recipe list that contains
+ * one matches every path.
+ */
+public final class FileInterestMatcher {
+
+    private static final FileInterestMatcher ALL = new FileInterestMatcher(null, Collections.emptySet());
+
+    @Nullable
+    private final PathMatcher matcher;
+
+    private final Set<String> globs;
+
+    private FileInterestMatcher(@Nullable PathMatcher matcher, Set<String> globs) {
+        this.matcher = matcher;
+        this.globs = globs;
+    }
+
+    /**
+     * @param recipe a recipe, whose recipe list is searched for file interests too
+     * @return a matcher for the files that the recipe or any recipe in its recipe list reads or changes
+     */
+    public static FileInterestMatcher of(Recipe recipe) {
+        Set<String> globs = new TreeSet<>();
+        return collect(recipe, globs) ? of(globs) : ALL;
+    }
+
+    /**
+     * @param globs the globs of {@link FileInterest#fileInterest()}
+     */
+    public static FileInterestMatcher of(Collection<String> globs) {
+        if (globs.isEmpty()) {
+            return new FileInterestMatcher(path -> false, Collections.emptySet());
+        }
+        for (String glob : globs) {
+            if (glob.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("File interest globs are combined into one {...} group, so they " +
+                                                   "can't contain groups of their own: " + glob);
+            }
+        }
+        Set<String> sorted = new TreeSet<>(globs);
+        return new FileInterestMatcher(FileSystems.getDefault().getPathMatcher("glob:{" + String.join(",", sorted) + "}"),
+                Collections.unmodifiableSet(sorted));
+    }
+
+    private static boolean collect(Recipe recipe, Set<String> globs) {
+        if (recipe instanceof FileInterest) {
+            globs.addAll(((FileInterest) recipe).fileInterest());
+            return true;
+        }
+        if (recipe.getRecipeList().isEmpty()) {
+            return false;
+        }
+        for (Recipe child : recipe.getRecipeList()) {
+            if (!collect(child, globs)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if this matcher matches every path, because some recipe didn't declare its file interest
+     */
+    public boolean matchesAll() {
+        return matcher == null;
+    }
+
+    public Set<String> getGlobs() {
+        return globs;
+    }
+
+    /**
+     * @param sourcePath a path relative to the root of the repository
+     */
+    public boolean matches(Path sourcePath) {
+        return matcher == null || matcher.matches(sourcePath);
+    }
+
+    /**
+     * @return a precondition that finds the source files this matcher matches
+     */
+    public <P> TreeVisitor<?, P> precondition() {
+        return new TreeVisitor<Tree, P>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, P p) {
+                if (tree instanceof SourceFile && matches(((SourceFile) tree).getSourcePath())) {
+                    return SearchResult.found(tree);
+                }
+                return tree;
+            }
+        };
+    }
+}
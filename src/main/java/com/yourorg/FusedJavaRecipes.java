@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import lombok.EqualsAndHashCode;
+import org.openrewrite.*;
+import org.openrewrite.config.DataTableDescriptor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+
+import java.util.*;
+
+/**
+ * Runs the imperative Java recipes of this project in a single depth-first traversal of each source file, rather than
+ * one traversal per recipe.
+ * <p>
+ * For each source file, the recipes whose precondition it meets contribute their {@link FusibleJavaVisitor}. After
+ * the children of a tree have been visited, the tree is handed to each of those visitors that override the
+ * {@code visit} method of its kind, in the order of the recipes, and each sees the tree as rewritten by the ones
+ * before it. Visitors that a visitor schedules to run after a source file, such as those adding and removing imports,
+ * run once the whole file has been visited.
+ * <p>
+ * This differs from running the recipes one after the other in that a recipe doesn't see what the recipes after it
+ * change elsewhere in the same source file until the next cycle, and in that every visitor handles a tree after its
+ * children rather than choosing when to visit them. Neither matters to recipes whose changes don't overlap.
+ */
+@EqualsAndHashCode(callSuper = false)
+public class FusedJavaRecipes extends Recipe implements FileInterest {
+
+    private final List<Recipe> recipes;
+
+    public FusedJavaRecipes() {
+        this(Arrays.asList(
+                new AssertEqualsToAssertThat(),
+                new NoGuavaListsNewArrayList(),
+                new NoCollectionMutation(),
+                new ClassHierarchy()));
+    }
+
+    /**
+     * @param recipes recipes that each implement {@link FusibleRecipe}, in the order they would otherwise run in
+     */
+    public FusedJavaRecipes(List<? extends Recipe> recipes) {
+        for (Recipe recipe : recipes) {
+            if (!(recipe instanceof FusibleRecipe)) {
+                throw new IllegalArgumentException(recipe.getName() + " can't share a traversal with other recipes");
+            }
+        }
+        this.recipes = Collections.unmodifiableList(new ArrayList<>(recipes));
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Run Java recipes in a single pass";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Runs `AssertEqualsToAssertThat`, `NoGuavaListsNewArrayList`, `NoCollectionMutation` and " +
+               "`ClassHierarchy` in a single traversal of each Java source file.";
+    }
+
+    @Override
+    public Collection<String> fileInterest() {
+        Set<String> globs = new LinkedHashSet<>();
+        for (Recipe recipe : recipes) {
+            if (!(recipe instanceof FileInterest)) {
+                return Collections.singletonList("**");
+            }
+            globs.addAll(((FileInterest) recipe).fileInterest());
+        }
+        return globs;
+    }
+
+    @Override
+    public List<DataTableDescriptor> getDataTableDescriptors() {
+        List<DataTableDescriptor> dataTables = new ArrayList<>(super.getDataTableDescriptors());
+        for (Recipe recipe : recipes) {
+            for (DataTableDescriptor dataTable : recipe.getDataTableDescriptors()) {
+                if (!dataTables.contains(dataTable)) {
+                    dataTables.add(dataTable);
+                }
+            }
+        }
+        return dataTables;
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeEvents.visitor(this, new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public boolean isAcceptable(SourceFile sourceFile, ExecutionContext ctx) {
+                return sourceFile instanceof JavaSourceFile;
+            }
+
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (!(tree instanceof JavaSourceFile)) {
+                    return tree;
+                }
+                List<FusibleJavaVisitor> visitors = new ArrayList<>(recipes.size());
+                for (Recipe recipe : recipes) {
+                    FusibleRecipe fusible = (FusibleRecipe) recipe;
+                    TreeVisitor<?, ExecutionContext> precondition = fusible.fusiblePrecondition();
+                    if (precondition != null) {
+                        precondition = RecipeEvents.precondition(recipe, precondition);
+                    }
+                    if (precondition == null ||
+                        precondition.isAcceptable((SourceFile) tree, ctx) && precondition.visit(tree, ctx) != tree) {
+                        visitors.add(fusible.fusibleVisitor());
+                    }
+                }
+                // Visit under the cursor this visitor was given, whose root outlives the source file, as JavaTemplate
+                // caches the snippets it parses there
+                return visitors.isEmpty() ? tree : new FusedJavaVisitor(visitors).visit(tree, ctx, getCursor());
+            }
+        });
+    }
+
+    private static class FusedJavaVisitor extends JavaVisitor<ExecutionContext> {
+        private final List<FusibleJavaVisitor> visitors;
+
+        FusedJavaVisitor(List<FusibleJavaVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public @Nullable J postVisit(J tree, ExecutionContext ctx) {
+            J j = tree;
+            for (FusibleJavaVisitor visitor : visitors) {
+                if (j == null) {
+                    return null;
+                }
+                if (visitor.visits(j.getClass())) {
+                    j = visitor.visitFused(j, getCursor(), ctx);
+                    for (TreeVisitor<?, ExecutionContext> afterVisit : visitor.takeAfterVisits()) {
+                        // Visitors such as AddImport are scheduled for every tree that needs them, but only need to
+                        // run once, as maybeAddImport() already ensures for a visitor on its own
+                        if (!getAfterVisit().contains(afterVisit)) {
+                            doAfterVisit(afterVisit);
+                        }
+                    }
+                }
+            }
+            return j;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * A Java visitor that can share a single traversal of a source file with other visitors, in a
+ * {@link FusedJavaRecipes}. On its own it behaves like any other {@link JavaVisitor}.
+ * <p>
+ * When fused, the traversal visits the children of each tree before handing the tree to the visitors that override
+ * the {@code visit} method of its kind, and a visitor only sees the tree itself: calls to {@code super.visitXxx} that
+ * would visit its children return them as they are, as the fused traversal has already visited them. Visitors that
+ * must run on every tree, by overriding {@link #visit}, {@link #preVisit} or {@link #postVisit}, can't be fused, so
+ * those methods are final.
+ */
+public abstract class FusibleJavaVisitor extends JavaVisitor<ExecutionContext> {
+
+    private static final ClassValue<List<Class<?>>> VISITED_KINDS = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> visitorType) {
+            Set<Class<?>> kinds = new LinkedHashSet<>();
+            for (Class<?> c = visitorType; c != FusibleJavaVisitor.class; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if (method.getName().startsWith("visit") && method.getParameterCount() == 2 &&
+                        J.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                        kinds.add(method.getParameterTypes()[0]);
+                    }
+                }
+            }
+            return new ArrayList<>(kinds);
+        }
+    };
+
+    @Nullable
+    private Tree fused;
+
+    /**
+     * @param kind the class of a tree
+     * @return whether this visitor overrides a {@code visit} method that trees of this kind are passed to
+     */
+    public boolean visits(Class<?> kind) {
+        for (Class<?> visited : VISITED_KINDS.get(getClass())) {
+            if (visited.isAssignableFrom(kind)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visit a tree whose children have already been visited, without visiting them again.
+     *
+     * @param tree   the tree, as rewritten by the fused traversal so far
+     * @param cursor the cursor of the fused traversal, pointing to the tree as it was before it was visited
+     * @return the tree as rewritten by this visitor
+     */
+    @Nullable
+    J visitFused(J tree, Cursor cursor, ExecutionContext ctx) {
+        setCursor(cursor);
+        fused = tree;
+        try {
+            return tree.accept(this, ctx);
+        } finally {
+            fused = null;
+        }
+    }
+
+    /**
+     * @return the visitors this visitor has scheduled to run after visiting a source file, which it no longer holds
+     */
+    List<TreeVisitor<?, ExecutionContext>> takeAfterVisits() {
+        List<TreeVisitor<?, ExecutionContext>> afterVisit = getAfterVisit();
+        if (afterVisit.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<TreeVisitor<?, ExecutionContext>> taken = new ArrayList<>(afterVisit);
+        afterVisit.clear();
+        return taken;
+    }
+
+    @Override
+    public final @Nullable J visit(@Nullable Tree tree, ExecutionContext ctx) {
+        if (fused != null && tree != fused) {
+            // A child of the tree handed to this visitor by a fused traversal, which has visited it already
+            return (J) tree;
+        }
+        return super.visit(tree, ctx);
+    }
+
+    @Override
+    public final J preVisit(J tree, ExecutionContext ctx) {
+        return super.preVisit(tree, ctx);
+    }
+
+    @Override
+    public final @Nullable J postVisit(J tree, ExecutionContext ctx) {
+        return super.postVisit(tree, ctx);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+
+/**
+ * Implemented by recipes whose visitor can share a single traversal of each Java source file with the visitors of
+ * other recipes. See {@link FusedJavaRecipes}.
+ */
+public interface FusibleRecipe {
+
+    /**
+     * @return the precondition a source file must meet for {@link #fusibleVisitor()} to visit it, as would be passed
+     * to {@link org.openrewrite.Preconditions#check}, or null to visit every Java source file
+     */
+    @Nullable
+    TreeVisitor<?, ExecutionContext> fusiblePrecondition();
+
+    /**
+     * @return a new instance of the recipe's visitor, without its precondition
+     */
+    FusibleJavaVisitor fusibleVisitor();
+}
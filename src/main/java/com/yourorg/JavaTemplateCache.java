@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import lombok.Value;
+import org.openrewrite.Cursor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaCoordinates;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A bounded cache of {@link JavaTemplate}s shared by the recipes in this project, so that a template is built and its
+ * classpath resolved once rather than once per matching method call or visitor instance.
+ * <p>
+ * Artifact names such as {@code "assertj-core"} are resolved to the stubs of their {@link TypeTable} when this jar
+ * bundles one, and otherwise to jars by scanning the runtime classpath, so resolved classpaths are shared by all
+ * threads. A {@link JavaTemplate} on the other hand compiles its stubs with a parser whose type
+ * cache is not thread-safe, so templates are confined to the thread that built them: every visitor on that thread
+ * shares the same instance, and the least recently used templates are evicted once a thread holds more than
+ * {@link #getMaximumSize()} of them.
+ * <p>
+ * The templates report their compilations and applications to {@link RecipeMetrics}, and recipes apply them with
+ * {@link #apply} so that the applications are recorded as {@link RecipeEvents} too.
+ */
+public final class JavaTemplateCache {
+
+    private static final Consumer<String> APPLIED = substituted -> RecipeMetrics.templateApplied();
+    private static final Consumer<String> COMPILING = stub -> {
+        RecipeMetrics.templateCompiled();
+        RecipeEvents.templateCompiling();
+    };
+
+    private static final JavaTemplateCache SHARED = new JavaTemplateCache(
+            Integer.getInteger("com.yourorg.templateCache.maximumSize", 256));
+
+    /**
+     * @return the cache used by all recipes in this project. Its size per thread can be configured with the
+     * {@code com.yourorg.templateCache.maximumSize} system property.
+     */
+    public static JavaTemplateCache shared() {
+        return SHARED;
+    }
+
+    private final int maximumSize;
+    private final Map<List<String>, Classpath> classpaths = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<Key, JavaTemplate>> templates;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JavaTemplateCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive, was " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.templates = ThreadLocal.withInitial(() -> new LinkedHashMap<Key, JavaTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, JavaTemplate> eldest) {
+                if (size() > JavaTemplateCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @param code    the template snippet
+     * @param imports fully qualified names of the types the snippet imports
+     * @return a template parsed against the JDK only
+     */
+    public JavaTemplate get(String code, String... imports) {
+        return get(code, Arrays.asList(imports), Collections.emptyList());
+    }
+
+    /**
+     * @param code      the template snippet
+     * @param imports   fully qualified names of the types the snippet imports
+     * @param classpath artifact names, as accepted by {@link JavaParser.Builder#classpath(String...)}
+     * @return a template parsed against the type tables of the artifacts that have one, and the jars of the others
+     */
+    public JavaTemplate get(String code, Collection<String> imports, Collection<String> classpath) {
+        Key key = new Key(code, new TreeSet<>(imports), new ArrayList<>(classpath));
+        Map<Key, JavaTemplate> threadTemplates = templates.get();
+        JavaTemplate template = threadTemplates.get(key);
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+        misses.increment();
+        JavaParser.Builder<?, ?> parser = JavaParser.fromJavaVersion();
+        if (!key.getClasspath().isEmpty()) {
+            Classpath resolved = classpaths.computeIfAbsent(key.getClasspath(), Classpath::resolve);
+            parser.classpath(resolved.getJars()).classpath(resolved.getClasses());
+        }
+        // Compilations and applications are reported to RecipeMetrics and RecipeEvents
+        template = JavaTemplate.builder(code)
+                .imports(key.getImports().toArray(new String[0]))
+                .javaParser(parser)
+                .doAfterVariableSubstitution(APPLIED)
+                .doBeforeParseTemplate(COMPILING)
+                .build();
+        threadTemplates.put(key, template);
+        return template;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Apply a template, timing the application as a {@link RecipeEvents} event of the recipe applying it.
+     */
+    public static <J2 extends J> J2 apply(JavaTemplate template, Cursor scope, JavaCoordinates coordinates,
+                                          Object... parameters) {
+        return RecipeEvents.templateApply(template.getCode(), scope,
+                () -> template.<J2>apply(scope, coordinates, parameters));
+    }
+
+    @Value
+    private static class Classpath {
+        List<Path> jars;
+        byte[][] classes;
+
+        static Classpath resolve(List<String> artifacts) {
+            List<String> unbundled = new ArrayList<>();
+            List<byte[]> classes = new ArrayList<>();
+            for (String artifact : artifacts) {
+                TypeTable table = TypeTable.of(artifact);
+                if (table.isEmpty()) {
+                    unbundled.add(artifact);
+                } else {
+                    classes.addAll(table.getClasses());
+                }
+            }
+            return new Classpath(
+                    unbundled.isEmpty() ? Collections.emptyList() :
+                            JavaParser.dependenciesFromClasspath(unbundled.toArray(new String[0])),
+                    classes.toArray(new byte[0][]));
+        }
+    }
+
+    @Value
+    private static class Key {
+        String code;
+        SortedSet<String> imports;
+        List<String> classpath;
+    }
+}
@@ -0,0 +1,749 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.ClassHierarchyReport;
+import com.yourorg.table.ClassHierarchyReportSink;
+import com.yourorg.table.PreconditionSelectivity;
+import com.yourorg.table.RecipeExecutionMetrics;
+import lombok.Value;
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.config.YamlResourceLoader;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.text.PlainTextParser;
+import org.openrewrite.yaml.YamlParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a recipe over the files of a local directory, such as a checked out repository, without a build tool.
+ * <p>
+ * Only the files matched by the {@link FileInterestMatcher} of the recipe are read and parsed: Java sources with a
+ * {@link JavaParser} on the given classpath, or the JDK's alone, YAML with a {@link YamlParser}, and everything else as
+ * plain text. Types that are neither on the classpath nor declared in the directory are unknown to the recipe, so
+ * recipes looking for uses of a library, such as {@link NoGuavaListsNewArrayList}, only find them given the library
+ * on the classpath. The number and size of the files skipped are reported on the {@link Run}.
+ * <p>
+ * Given an executor and a parallelism greater than one, YAML and plain text files are parsed in partitions on the
+ * executor, and the recipe is run on partitions of the source files concurrently, each with an execution context of
+ * its own. Java sources are always parsed in a single compilation, so that the types each declares are attributed in
+ * the others. The results and data table rows of the partitions are merged in the order of the source files, so a run
+ * produces the same results and rows, in the same order, whatever its parallelism. Recipes that scan the whole source
+ * set before editing it, and composites including any, are run on all the source files at once.
+ * <p>
+ * Parsing Java in one compilation also means parsing it on one thread. Splitting the sources between parsers that
+ * share a {@link org.openrewrite.java.internal.JavaTypeCache} doesn't help: the cache only shares the types that javac
+ * has already attributed and mapped, not the symbols javac needs to attribute one source against the declarations of
+ * another, so each parser would leave the types declared in the other partitions unknown. And javac doesn't allow
+ * one compilation to be used by several threads. A run on a directory parsed before can load its trees from an
+ * {@link LstStore} instead.
+ * <p>
+ * Given a {@link ResultCache}, files the recipe has seen before with the same content aren't parsed at all, and what
+ * the recipe did to them is replayed from the cache instead.
+ * <p>
+ * Given an {@link LstStore}, the trees of the files to parse are loaded from it rather than parsed when it holds them
+ * for the same content, those of the Java sources only when it holds them all, and the trees parsed are added to it.
+ */
+public final class LocalRecipeRunner {
+
+    /**
+     * The file at the root of a directory that may declare recipes to activate, as for the build plugins.
+     */
+    public static final String REWRITE_YML = "rewrite.yml";
+
+    /**
+     * Partitions per thread, so that threads finishing early can take on the partitions of others.
+     */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private LocalRecipeRunner() {
+    }
+
+    @Value
+    public static class Run {
+        Path root;
+        RecipeRun recipeRun;
+        int filesParsed;
+        long bytesParsed;
+        int filesSkipped;
+        long bytesSkipped;
+        int filesCached;
+        long bytesCached;
+
+        /**
+         * The changes replayed from a {@link ResultCache} to files that weren't parsed, by the path of the file.
+         */
+        Map<Path, ResultCache.Entry> cachedChanges;
+
+        /**
+         * How many of the files counted as parsed had their trees loaded from an {@link LstStore} instead.
+         */
+        int filesLoaded;
+
+        /**
+         * The file the rows of the {@link ClassHierarchyReport} were streamed to, when a
+         * {@value ClassHierarchyReport#SINK_DIRECTORY} was set, which the runner closes once the recipe has run.
+         * Read it with {@link ClassHierarchyReportSink#read(Path)}.
+         */
+        @Nullable
+        Path classHierarchyReport;
+
+        /**
+         * @return the results of the files parsed and run on, which don't include {@link #getCachedChanges()}
+         */
+        public List<Result> getResults() {
+            return recipeRun.getChangeset().getAllResults();
+        }
+
+        /**
+         * Write the results of the run to the directory it ran on, deleting the files the recipe deleted or moved.
+         *
+         * @return the number of files written or deleted
+         */
+        public int write() {
+            int written = 0;
+            try {
+                for (Result result : getResults()) {
+                    SourceFile before = result.getBefore();
+                    SourceFile after = result.getAfter();
+                    if (before != null && (after == null || !before.getSourcePath().equals(after.getSourcePath()))) {
+                        Files.deleteIfExists(root.resolve(before.getSourcePath()));
+                    }
+                    if (after != null) {
+                        Path file = root.resolve(after.getSourcePath());
+                        Files.createDirectories(file.getParent());
+                        Charset charset = after.getCharset() == null ? StandardCharsets.UTF_8 : after.getCharset();
+                        Files.write(file, after.printAll().getBytes(charset));
+                    }
+                    written++;
+                }
+                for (Map.Entry<Path, ResultCache.Entry> cached : cachedChanges.entrySet()) {
+                    Path afterSourcePath = cached.getValue().getAfterSourcePath();
+                    if (!cached.getKey().equals(afterSourcePath)) {
+                        Files.deleteIfExists(root.resolve(cached.getKey()));
+                    }
+                    if (afterSourcePath != null) {
+                        Path file = root.resolve(afterSourcePath);
+                        Files.createDirectories(file.getParent());
+                        Files.write(file, Objects.requireNonNull(cached.getValue().getAfter()));
+                    }
+                    written++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * @param root   the directory to run the recipe on, which becomes the root of every source path
+     * @param recipe the recipe to run
+     * @param ctx    the execution context of the run
+     */
+    public static Run run(Path root, Recipe recipe, ExecutionContext ctx) {
+        return run(root, recipe, ctx, Runnable::run, 1);
+    }
+
+    /**
+     * @param root        the directory to run the recipe on, which becomes the root of every source path
+     * @param recipe      the recipe to run
+     * @param ctx         the execution context of the run
+     * @param executor    the executor to parse and run on, such as a {@link ForkJoinPool} or a virtual thread per task
+     *                    executor, which is not shut down
+     * @param parallelism the number of threads expected to work on the run, or 1 to run on the calling thread
+     */
+    public static Run run(Path root, Recipe recipe, ExecutionContext ctx, Executor executor, int parallelism) {
+        return run(root, recipe, ctx, executor, parallelism, null);
+    }
+
+    /**
+     * @param root        the directory to run the recipe on, which becomes the root of every source path
+     * @param recipe      the recipe to run
+     * @param ctx         the execution context of the run
+     * @param executor    the executor to parse and run on, such as a {@link ForkJoinPool} or a virtual thread per task
+     *                    executor, which is not shut down
+     * @param parallelism the number of threads expected to work on the run, or 1 to run on the calling thread
+     * @param cache       the cache to replay the results of files seen before from and to record new results in, which
+     *                    is ignored for recipes that aren't {@link ResultCache#isCacheable cacheable}
+     */
+    public static Run run(Path root, Recipe recipe, ExecutionContext ctx, Executor executor, int parallelism,
+                          @Nullable ResultCache cache) {
+        return run(root, recipe, ctx, executor, parallelism, cache, null);
+    }
+
+    /**
+     * @param root        the directory to run the recipe on, which becomes the root of every source path
+     * @param recipe      the recipe to run
+     * @param ctx         the execution context of the run
+     * @param executor    the executor to parse and run on, such as a {@link ForkJoinPool} or a virtual thread per task
+     *                    executor, which is not shut down
+     * @param parallelism the number of threads expected to work on the run, or 1 to run on the calling thread
+     * @param cache       the cache to replay the results of files seen before from and to record new results in, which
+     *                    is ignored for recipes that aren't {@link ResultCache#isCacheable cacheable}
+     * @param store       the store to load the trees of the files to parse from, and to save them to when it doesn't
+     *                    hold them
+     */
+    public static Run run(Path root, Recipe recipe, ExecutionContext ctx, Executor executor, int parallelism,
+                          @Nullable ResultCache cache, @Nullable LstStore store) {
+        return run(root, recipe, ctx, executor, parallelism, cache, store, Collections.emptyList());
+    }
+
+    /**
+     * @param root        the directory to run the recipe on, which becomes the root of every source path
+     * @param recipe      the recipe to run
+     * @param ctx         the execution context of the run
+     * @param executor    the executor to parse and run on, such as a {@link ForkJoinPool} or a virtual thread per task
+     *                    executor, which is not shut down
+     * @param parallelism the number of threads expected to work on the run, or 1 to run on the calling thread
+     * @param cache       the cache to replay the results of files seen before from and to record new results in, which
+     *                    is ignored for recipes that aren't {@link ResultCache#isCacheable cacheable}
+     * @param store       the store to load the trees of the files to parse from, and to save them to when it doesn't
+     *                    hold them, created with the same classpath
+     * @param classpath   the jars and class directories of the types the Java sources use besides those of the JDK
+     */
+    public static Run run(Path root, Recipe recipe, ExecutionContext ctx, Executor executor, int parallelism,
+                          @Nullable ResultCache cache, @Nullable LstStore store, Collection<Path> classpath) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive, was " + parallelism);
+        }
+        FileInterestMatcher interest = FileInterestMatcher.of(recipe);
+        String recipeKey = cache != null && ResultCache.isCacheable(recipe) ?
+                ResultCache.recipeKey(recipe, classpath, Recipe.class, JavaParser.fromJavaVersion().getClass(),
+                        YamlParser.class, PlainTextParser.class, LocalRecipeRunner.class) :
+                null;
+        List<Path> java = new ArrayList<>();
+        List<Path> yaml = new ArrayList<>();
+        List<Path> text = new ArrayList<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        long[] skipped = new long[2];
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return ".git".equals(String.valueOf(dir.getFileName())) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    // The size comes from the directory listing, so skipped files are never opened
+                    if (!interest.matches(root.relativize(file))) {
+                        skipped[0]++;
+                        skipped[1] += attrs.size();
+                        return FileVisitResult.CONTINUE;
+                    }
+                    sizes.put(file, attrs.size());
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".java")) {
+                        java.add(file);
+                    } else if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+                        yaml.add(file);
+                    } else {
+                        text.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // The order of a directory listing depends on the file system
+        Collections.sort(java);
+        Collections.sort(yaml);
+        Collections.sort(text);
+
+        long[] cached = new long[2];
+        Map<Path, String> contentKeys = new HashMap<>();
+        Map<Path, ResultCache.Entry> cachedChanges = new TreeMap<>();
+        if (recipeKey != null) {
+            // Java sources are attributed against the types the others declare, so what a recipe does to one may
+            // depend on any other, and they are only replayed all together, for exactly the same sources
+            Map<Path, String> javaContentKeys = new HashMap<>();
+            for (Path file : java) {
+                javaContentKeys.put(root.relativize(file), contentKey(file));
+            }
+            String javaContentKey = ResultCache.contentKey(javaContentKeys);
+            Map<Path, ResultCache.Entry> javaEntries = new HashMap<>();
+            for (Path file : java) {
+                ResultCache.Entry entry = cache.get(recipeKey, root.relativize(file), javaContentKey);
+                if (entry == null) {
+                    break;
+                }
+                javaEntries.put(file, entry);
+            }
+            if (javaEntries.size() == java.size()) {
+                replay(root, java, javaEntries, sizes, cached, cachedChanges);
+            } else {
+                for (Path sourcePath : javaContentKeys.keySet()) {
+                    contentKeys.put(sourcePath, javaContentKey);
+                }
+            }
+            for (List<Path> files : Arrays.asList(yaml, text)) {
+                Map<Path, ResultCache.Entry> entries = new HashMap<>();
+                for (Path file : files) {
+                    Path sourcePath = root.relativize(file);
+                    String contentKey = contentKey(file);
+                    ResultCache.Entry entry = cache.get(recipeKey, sourcePath, contentKey);
+                    if (entry == null) {
+                        contentKeys.put(sourcePath, contentKey);
+                    } else {
+                        entries.put(file, entry);
+                    }
+                }
+                replay(root, files, entries, sizes, cached, cachedChanges);
+            }
+        }
+        long[] parsed = new long[2];
+        for (List<Path> files : Arrays.asList(java, yaml, text)) {
+            for (Path file : files) {
+                parsed[0]++;
+                parsed[1] += sizes.get(file);
+            }
+        }
+
+        List<Path> files = new ArrayList<>(java.size() + yaml.size() + text.size());
+        files.addAll(java);
+        files.addAll(yaml);
+        files.addAll(text);
+        Map<Path, SourceFile> loaded = store == null ? Collections.emptyMap() : store.load(root, files);
+        List<Path> toParse = new ArrayList<>(files.size() - loaded.size());
+        for (List<Path> sources : Arrays.asList(java, yaml, text)) {
+            sources.removeIf(loaded::containsKey);
+            toParse.addAll(sources);
+        }
+        List<SourceFile> parsedTrees = parse(root, java, yaml, text, classpath, ctx, executor, parallelism);
+        if (store != null && !toParse.isEmpty()) {
+            store.save(root, toParse, parsedTrees);
+        }
+        // The parsers return the trees in the order of the files they were given
+        List<SourceFile> sourceFiles = new ArrayList<>(files.size());
+        Iterator<SourceFile> parsedTree = parsedTrees.iterator();
+        for (Path file : files) {
+            SourceFile tree = loaded.get(file);
+            sourceFiles.add(tree == null ? parsedTree.next() : tree);
+        }
+
+        // A recipe that fails on a file may not fail the next time, so nothing from a run with errors is cached
+        AtomicBoolean failed = new AtomicBoolean();
+        ExecutionContext runCtx = recipeKey == null ? ctx : new DelegatingExecutionContext(ctx) {
+            @Override
+            public Consumer<Throwable> getOnError() {
+                Consumer<Throwable> onError = super.getOnError();
+                return t -> {
+                    failed.set(true);
+                    onError.accept(t);
+                };
+            }
+        };
+        RecipeRun recipeRun;
+        Path classHierarchyReport;
+        try {
+            recipeRun = parallelism == 1 || sourceFiles.size() < 2 || scansSourceSet(recipe) ?
+                    recipe.run(new InMemoryLargeSourceSet(sourceFiles), runCtx) :
+                    runPartitioned(recipe, sourceFiles, runCtx, executor, parallelism);
+        } finally {
+            // Rows streamed to a sink are only all on disk once it is closed
+            classHierarchyReport = ClassHierarchyReport.closeSink(ctx);
+        }
+
+        if (recipeKey != null && !failed.get()) {
+            Map<Path, Result> results = new HashMap<>();
+            for (Result result : recipeRun.getChangeset().getAllResults()) {
+                if (result.getBefore() != null) {
+                    results.put(result.getBefore().getSourcePath(), result);
+                }
+            }
+            for (Map.Entry<Path, String> contentKey : contentKeys.entrySet()) {
+                Result result = results.get(contentKey.getKey());
+                SourceFile after = result == null ? null : result.getAfter();
+                ResultCache.Entry entry = result == null ? ResultCache.Entry.UNCHANGED :
+                        after == null ? ResultCache.Entry.deleted() :
+                                ResultCache.Entry.changed(after.getSourcePath(), after.printAll().getBytes(
+                                        after.getCharset() == null ? StandardCharsets.UTF_8 : after.getCharset()));
+                cache.put(recipeKey, contentKey.getKey(), contentKey.getValue(), entry);
+            }
+            cache.trim();
+        }
+        return new Run(root, recipeRun, (int) parsed[0], parsed[1], (int) skipped[0], skipped[1],
+                (int) cached[0], cached[1], cachedChanges, loaded.size(), classHierarchyReport);
+    }
+
+    /**
+     * Replay the cached entries of some of the files, removing them from the files to parse.
+     */
+    private static void replay(Path root, List<Path> files, Map<Path, ResultCache.Entry> entries, Map<Path, Long> sizes,
+                               long[] cached, Map<Path, ResultCache.Entry> cachedChanges) {
+        for (Iterator<Path> i = files.iterator(); i.hasNext(); ) {
+            Path file = i.next();
+            ResultCache.Entry entry = entries.get(file);
+            if (entry == null) {
+                continue;
+            }
+            cached[0]++;
+            cached[1] += sizes.get(file);
+            if (entry.isChanged()) {
+                cachedChanges.put(root.relativize(file), entry);
+            }
+            i.remove();
+        }
+    }
+
+    private static List<SourceFile> parse(Path root, List<Path> java, List<Path> yaml, List<Path> text,
+                                          Collection<Path> classpath, ExecutionContext ctx, Executor executor,
+                                          int parallelism) {
+        List<CompletableFuture<List<SourceFile>>> parses = new ArrayList<>();
+        if (!java.isEmpty()) {
+            parses.add(CompletableFuture.supplyAsync(() -> JavaParser.fromJavaVersion().classpath(classpath).build()
+                    .parse(java, root, ctx).collect(Collectors.toList()), executor));
+        }
+        for (List<Path> partition : partition(yaml, parallelism)) {
+            parses.add(CompletableFuture.supplyAsync(() -> YamlParser.builder().build()
+                    .parse(partition, root, ctx).collect(Collectors.toList()), executor));
+        }
+        for (List<Path> partition : partition(text, parallelism)) {
+            parses.add(CompletableFuture.supplyAsync(() -> PlainTextParser.builder().build()
+                    .parse(partition, root, ctx).collect(Collectors.toList()), executor));
+        }
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        for (CompletableFuture<List<SourceFile>> parse : parses) {
+            sourceFiles.addAll(join(parse));
+        }
+        return sourceFiles;
+    }
+
+    private static String contentKey(Path file) {
+        try {
+            return ResultCache.contentKey(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RecipeRun runPartitioned(Recipe recipe, List<SourceFile> sourceFiles, ExecutionContext ctx,
+                                            Executor executor, int parallelism) {
+        // Rows streamed to a sink go to the one held by the run's execution context, as they are found
+        ClassHierarchyReport.sink(ctx);
+        // Adaptive preconditions learn from the source files of every partition, rather than each from its own
+        AdaptivePrecondition.learned(ctx);
+        // The dataflow statistics count the analyses of every partition, rather than each of its own
+        NoCollectionMutation.dataflowStatistics(ctx);
+
+        // Each partition drops the rows it reported itself, with the names of the run, so merging them allocates nothing
+        ClassHierarchy.EmittedRows emitted = ClassHierarchy.emittedRows(ctx);
+
+        List<PartitionExecutionContext> partitionCtxs = new ArrayList<>();
+        List<CompletableFuture<RecipeRun>> runs = new ArrayList<>();
+        for (List<SourceFile> partition : partition(sourceFiles, parallelism)) {
+            PartitionExecutionContext partitionCtx = new PartitionExecutionContext(ctx);
+            partitionCtx.putMessage(ClassHierarchy.EmittedRows.class.getName(), emitted.part());
+            partitionCtxs.add(partitionCtx);
+            runs.add(CompletableFuture.supplyAsync(() ->
+                    recipe.run(new InMemoryLargeSourceSet(partition), partitionCtx), executor));
+        }
+
+        List<Result> results = new ArrayList<>();
+        Map<DataTable<?>, List<?>> dataTables = new LinkedHashMap<>();
+        for (int i = 0; i < runs.size(); i++) {
+            RecipeRun run = join(runs.get(i));
+            results.addAll(run.getChangeset().getAllResults());
+            for (Map.Entry<DataTable<?>, List<?>> dataTable : run.getDataTables().entrySet()) {
+                @SuppressWarnings("unchecked")
+                List<Object> rows = (List<Object>) dataTables.computeIfAbsent(dataTable.getKey(), k -> new ArrayList<>());
+                for (Object row : dataTable.getValue()) {
+                    // Each partition only drops the rows it reported itself, so drop those reported by a partition
+                    // before it too, as a single run would have
+                    if (dataTable.getKey() instanceof ClassHierarchyReport) {
+                        row = emitted.merge((ClassHierarchyReport.Row) row);
+                    }
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                }
+            }
+            emitted.duplicatesDropped.add(ClassHierarchy.emittedRows(partitionCtxs.get(i)).getDuplicatesDropped());
+        }
+        return new RecipeRun(new ResultChangeset(results), dataTables);
+    }
+
+    /**
+     * @return whether the recipe, or any recipe it is composed of, must see every source file to edit any of them
+     */
+    private static boolean scansSourceSet(Recipe recipe) {
+        if (recipe instanceof ScanningRecipe) {
+            return true;
+        }
+        for (Recipe child : recipe.getRecipeList()) {
+            if (scansSourceSet(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return consecutive partitions of the list, as evenly sized as possible
+     */
+    private static <T> List<List<T>> partition(List<T> list, int parallelism) {
+        if (list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int partitions = parallelism == 1 ? 1 : Math.min(list.size(), parallelism * PARTITIONS_PER_THREAD);
+        List<List<T>> partitioned = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            partitioned.add(list.subList(i * list.size() / partitions, (i + 1) * list.size() / partitions));
+        }
+        return partitioned;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param root        the directory whose {@value #REWRITE_YML}, if it has one, may declare recipes
+     * @param recipeNames the names of recipes on the classpath or declared in {@value #REWRITE_YML}
+     * @return the recipes, composed in the order they are named
+     */
+    public static Recipe activate(Path root, String... recipeNames) {
+        Environment.Builder env = Environment.builder().scanRuntimeClasspath();
+        Path rewriteYml = root.resolve(REWRITE_YML);
+        if (Files.isRegularFile(rewriteYml)) {
+            try (InputStream in = Files.newInputStream(rewriteYml)) {
+                env.load(new YamlResourceLoader(in, rewriteYml.toUri(), new Properties()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return env.build().activateRecipes(recipeNames);
+    }
+
+    /**
+     * Run recipes over a directory and write the results back to it, printing the path of each file changed.
+     * <pre>
+     * LocalRecipeRunner [--parallelism=&lt;threads&gt;] [--virtual-threads] [--dry-run]
+     *                   [--cache=&lt;directory&gt;] [--cache-size=&lt;bytes&gt;] [--lst-store=&lt;file&gt;] [--metrics]
+     *                   [--classpath=&lt;paths&gt;] &lt;directory&gt; &lt;recipe&gt;...
+     * </pre>
+     * The parallelism defaults to the number of available processors, on a {@link ForkJoinPool} unless virtual
+     * threads, which need Java 21, are asked for. With a cache directory, results are cached in a {@link ResultCache}
+     * of at most 1 GiB unless a cache size is given. With an LST store file, parsed trees are kept in an
+     * {@link LstStore} for the next run. With metrics, the {@link RecipeMetrics} of every recipe are printed after the
+     * run, which then can't be cached as the results replayed from a cache would be missing from them. The classpath
+     * lists the jars and class directories the Java sources are parsed with, separated as on the {@code java} command
+     * line, such as the dependencies printed by {@code ./mvnw dependency:build-classpath}.
+     */
+    public static void main(String[] args) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean virtualThreads = false;
+        boolean dryRun = false;
+        Path cacheDirectory = null;
+        long cacheSize = 1L << 30;
+        Path lstStore = null;
+        boolean measure = false;
+        List<Path> classpath = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--parallelism=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallelism=".length()));
+            } else if ("--virtual-threads".equals(arg)) {
+                virtualThreads = true;
+            } else if ("--dry-run".equals(arg)) {
+                dryRun = true;
+            } else if (arg.startsWith("--cache=")) {
+                cacheDirectory = Paths.get(arg.substring("--cache=".length()));
+            } else if (arg.startsWith("--cache-size=")) {
+                cacheSize = Long.parseLong(arg.substring("--cache-size=".length()));
+            } else if (arg.startsWith("--lst-store=")) {
+                lstStore = Paths.get(arg.substring("--lst-store=".length()));
+            } else if ("--metrics".equals(arg)) {
+                measure = true;
+            } else if (arg.startsWith("--classpath=")) {
+                for (String entry : arg.substring("--classpath=".length()).split(Pattern.quote(File.pathSeparator))) {
+                    if (!entry.isEmpty()) {
+                        classpath.add(Paths.get(entry));
+                    }
+                }
+            } else {
+                arguments.add(arg);
+            }
+        }
+        if (arguments.size() < 2) {
+            System.err.println("Usage: LocalRecipeRunner [--parallelism=<threads>] [--virtual-threads] [--dry-run] " +
+                               "[--cache=<directory>] [--cache-size=<bytes>] [--lst-store=<file>] [--metrics] " +
+                               "[--classpath=<paths>] <directory> <recipe>...");
+            System.exit(2);
+            return;
+        }
+
+        Path root = Paths.get(arguments.get(0)).toAbsolutePath().normalize();
+        Recipe recipe = activate(root, arguments.subList(1, arguments.size()).toArray(new String[0]));
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        ResultCache cache = cacheDirectory == null ? null : new ResultCache(cacheDirectory, cacheSize);
+        RecipeMetrics metrics = measure ? RecipeMetrics.measure(recipe) : null;
+        LstStore store = lstStore == null ? null : new LstStore(lstStore, classpath);
+        ExecutorService executor = virtualThreads ? newVirtualThreadPerTaskExecutor() : new ForkJoinPool(parallelism);
+        try {
+            Run run = run(root, metrics == null ? recipe : metrics.getRecipe(), ctx, executor, parallelism, cache, store,
+                    classpath);
+            Set<Path> changed = new TreeSet<>(run.getCachedChanges().keySet());
+            for (Result result : run.getResults()) {
+                SourceFile sourceFile = result.getAfter() == null ? result.getBefore() : result.getAfter();
+                changed.add(sourceFile.getSourcePath());
+            }
+            changed.forEach(System.out::println);
+            if (!dryRun) {
+                run.write();
+            }
+            System.out.printf("%d files changed, %d parsed (%d bytes, %d of them loaded), %d cached (%d bytes), " +
+                              "%d skipped (%d bytes)%n",
+                    changed.size(), run.getFilesParsed(), run.getBytesParsed(), run.getFilesLoaded(), run.getFilesCached(),
+                    run.getBytesCached(), run.getFilesSkipped(), run.getBytesSkipped());
+            if (run.getClassHierarchyReport() != null) {
+                System.out.println("Class hierarchy report written to " + run.getClassHierarchyReport());
+            }
+            if (metrics != null) {
+                for (RecipeExecutionMetrics.Row row : metrics.getRows()) {
+                    System.out.printf("%s: %d ms wall, %d ms CPU, %d visited, %d passed preconditions, %d changed, " +
+                                      "%d template applications, %d template compilations%n", row.getRecipeName(),
+                            TimeUnit.NANOSECONDS.toMillis(row.getWallTimeNanos()),
+                            TimeUnit.NANOSECONDS.toMillis(row.getCpuTimeNanos()), row.getSourceFilesVisited(),
+                            row.getSourceFilesPassedPreconditions(), row.getSourceFilesChanged(),
+                            row.getTemplateApplications(), row.getTemplateCompilations());
+                }
+                for (PreconditionSelectivity.Row row : metrics.getPreconditionRows()) {
+                    System.out.printf("%s precondition%s: %d checked, %d rejected, %d ms%n", row.getRecipeName(),
+                            row.getBranch() == null ? "" : " " + row.getBranch(), row.getChecks(),
+                            row.getRejections(), TimeUnit.NANOSECONDS.toMillis(row.getTimeNanos()));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Virtual threads need Java 21 or later", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The execution context of one partition of a run, which reads the messages of the run's execution context, such
+     * as its settings, but keeps the state of the recipe run on the partition to itself.
+     */
+    private static class PartitionExecutionContext implements ExecutionContext {
+        private static final Set<String> RUN_STATE = new HashSet<>(Arrays.asList(
+                CURRENT_CYCLE,
+                CURRENT_RECIPE,
+                DATA_TABLES,
+                ClassHierarchy.EmittedRows.class.getName()));
+
+        private final ExecutionContext run;
+        private final Map<String, Object> messages = new ConcurrentHashMap<>();
+
+        PartitionExecutionContext(ExecutionContext run) {
+            this.run = run;
+        }
+
+        @Override
+        public void putMessage(String key, @Nullable Object value) {
+            if (value == null) {
+                messages.remove(key);
+            } else {
+                messages.put(key, value);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nullable <T> T getMessage(String key) {
+            Object value = messages.get(key);
+            return value != null || RUN_STATE.contains(key) ? (T) value : run.getMessage(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @Nullable <T> T pollMessage(String key) {
+            return (T) messages.remove(key);
+        }
+
+        @Override
+        public Consumer<Throwable> getOnError() {
+            return run.getOnError();
+        }
+
+        @Override
+        public BiConsumer<Throwable, ExecutionContext> getOnTimeout() {
+            return run.getOnTimeout();
+        }
+    }
+
+    private static class ResultChangeset implements Changeset {
+        private final List<Result> results;
+
+        ResultChangeset(List<Result> results) {
+            this.results = results;
+        }
+
+        @Override
+        public int size() {
+            return results.size();
+        }
+
+        @Override
+        public List<Result> getPage(int start, int pageSize) {
+            return results.subList(Math.min(start, results.size()), Math.min(start + pageSize, results.size()));
+        }
+
+        @Override
+        public List<Result> getAllResults() {
+            return results;
+        }
+    }
+}
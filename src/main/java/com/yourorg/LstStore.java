@@ -0,0 +1,417 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import lombok.Value;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.text.PlainText;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Keeps the LSTs parsed from a directory in a file on local disk, so that running recipes on the same directory again
+ * can load them instead of parsing and type attributing the sources again.
+ * <p>
+ * The trees are serialized with Jackson to Smile in segments: one for all the Java sources, in one stream so that the
+ * types they share are written once and shared again once loaded, and one for each other source file. The segments
+ * are preceded by a fingerprint of the code and classpath that parsed the trees, and followed by an index of the path
+ * and a digest of the content of the source files of every segment. The trees of a segment are only deserialized if
+ * the fingerprint matches and its source files still have the same content. The Java segment is only loaded for
+ * exactly the same Java sources, as the types of every Java source depend on all the others parsed with it.
+ * <p>
+ * Saving trees keeps the segments of other source files, so that runs of recipes interested in different files, or
+ * that only parse the files a {@link ResultCache} missed, add to the store rather than replace it. A store is written
+ * to a temporary file that replaces the previous one, so a load never sees a partial store. The file is memory-mapped
+ * to be read, a window at a time, so a store may be larger than a mapping can be.
+ */
+public final class LstStore {
+
+    private static final int MAGIC = 0x4C535431;
+    private static final int FORMAT = 2;
+
+    /**
+     * The most bytes mapped at once, which can't be more than {@link Integer#MAX_VALUE}.
+     */
+    private static final int WINDOW = 1 << 30;
+
+    private static final ObjectMapper MAPPER = mapper();
+
+    private final Path file;
+    private final String fingerprint;
+    private final int window;
+
+    /**
+     * A store of LSTs parsed on the JDK's classpath alone.
+     *
+     * @param file the file to keep the LSTs in
+     */
+    public LstStore(Path file) {
+        this(file, Collections.emptyList());
+    }
+
+    /**
+     * @param file      the file to keep the LSTs in
+     * @param classpath the classpath the Java sources are parsed with
+     */
+    public LstStore(Path file, Collection<Path> classpath) {
+        this(file, classpath, WINDOW);
+    }
+
+    LstStore(Path file, Collection<Path> classpath, int window) {
+        this.file = file;
+        this.fingerprint = Digests.code(Arrays.asList(String.class, Recipe.class, J.class,
+                JavaParser.fromJavaVersion().getClass(), Yaml.class, PlainText.class)) + ':' +
+                           Digests.files(classpath);
+        this.window = window;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @param root        the directory the source files are in, which their source paths are relative to
+     * @param sourceFiles the source files to load the trees of
+     * @return the trees saved for those of the source files that still have the same content, parsed by the same code
+     * on the same classpath, by source file in the order they were given, which include the Java sources only if the
+     * same Java sources were parsed together
+     */
+    public Map<Path, SourceFile> load(Path root, List<Path> sourceFiles) {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Path> requested = new HashMap<>();
+        Set<String> java = new HashSet<>();
+        for (Path sourceFile : sourceFiles) {
+            String sourcePath = sourcePath(root, sourceFile);
+            requested.put(sourcePath, sourceFile);
+            if (isJava(sourcePath)) {
+                java.add(sourcePath);
+            }
+        }
+        Map<Path, SourceFile> trees = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (Segment segment : index(channel)) {
+                if (segment.isJava() ? !java.equals(segment.getContentKeys().keySet()) :
+                        !requested.containsKey(segment.getContentKeys().keySet().iterator().next())) {
+                    continue;
+                }
+                if (!hasContent(root, segment)) {
+                    continue;
+                }
+                SourceFile[] segmentTrees = MAPPER.readerFor(SourceFile[].class).readValue(
+                        new MappedInputStream(channel, segment.getOffset(), segment.getOffset() + segment.getLength(), window));
+                Iterator<String> sourcePaths = segment.getContentKeys().keySet().iterator();
+                for (SourceFile tree : segmentTrees) {
+                    trees.put(requested.get(sourcePaths.next()), tree);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<Path, SourceFile> ordered = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            SourceFile tree = trees.get(sourceFile);
+            if (tree != null) {
+                ordered.put(sourceFile, tree);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Save the trees of some source files, keeping those saved before for other source files that still exist. Java
+     * sources, whose types depend on each other, replace all the Java sources saved before.
+     *
+     * @param root        the directory the source files are in, which their source paths are relative to
+     * @param sourceFiles the source files
+     * @param trees       the trees parsed from the source files, in the same order
+     */
+    public void save(Path root, List<Path> sourceFiles, List<? extends SourceFile> trees) {
+        if (sourceFiles.size() != trees.size()) {
+            throw new IllegalArgumentException(sourceFiles.size() + " source files were parsed to " + trees.size() + " trees");
+        }
+        List<Path> java = new ArrayList<>();
+        List<SourceFile> javaTrees = new ArrayList<>();
+        Map<Path, SourceFile> others = new LinkedHashMap<>();
+        Set<String> saved = new HashSet<>();
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            String sourcePath = sourcePath(root, sourceFiles.get(i));
+            saved.add(sourcePath);
+            if (isJava(sourcePath)) {
+                java.add(sourceFiles.get(i));
+                javaTrees.add(trees.get(i));
+            } else {
+                others.put(sourceFiles.get(i), trees.get(i));
+            }
+        }
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel previous = Files.isRegularFile(file) ? FileChannel.open(file, StandardOpenOption.READ) : null;
+                     FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT);
+                    out.writeUTF(fingerprint);
+                    out.flush();
+                    List<Segment> segments = new ArrayList<>();
+                    if (previous != null) {
+                        for (Segment segment : index(previous)) {
+                            boolean replaced = segment.isJava() ? !java.isEmpty() :
+                                    saved.contains(segment.getContentKeys().keySet().iterator().next());
+                            if (replaced || !exists(root, segment)) {
+                                continue;
+                            }
+                            long offset = channel.position();
+                            for (long copied = 0; copied < segment.getLength(); ) {
+                                copied += previous.transferTo(segment.getOffset() + copied, segment.getLength() - copied, channel);
+                            }
+                            segments.add(new Segment(offset, segment.getLength(), segment.isJava(), segment.getContentKeys()));
+                        }
+                    }
+                    if (!java.isEmpty()) {
+                        segments.add(write(root, java, javaTrees, true, channel, out));
+                    }
+                    for (Map.Entry<Path, SourceFile> other : others.entrySet()) {
+                        segments.add(write(root, Collections.singletonList(other.getKey()),
+                                Collections.singletonList(other.getValue()), false, channel, out));
+                    }
+
+                    long index = channel.position();
+                    out.writeInt(segments.size());
+                    for (Segment segment : segments) {
+                        out.writeLong(segment.getOffset());
+                        out.writeLong(segment.getLength());
+                        out.writeBoolean(segment.isJava());
+                        out.writeInt(segment.getContentKeys().size());
+                        for (Map.Entry<String, String> contentKey : segment.getContentKeys().entrySet()) {
+                            out.writeUTF(contentKey.getKey());
+                            out.writeUTF(contentKey.getValue());
+                        }
+                    }
+                    out.writeLong(index);
+                    out.flush();
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Segment write(Path root, List<Path> sourceFiles, List<SourceFile> trees, boolean java,
+                                 FileChannel channel, OutputStream out) throws IOException {
+        long offset = channel.position();
+        Map<String, String> contentKeys = new LinkedHashMap<>();
+        for (Path sourceFile : sourceFiles) {
+            contentKeys.put(sourcePath(root, sourceFile), contentKey(sourceFile));
+        }
+        MAPPER.writerFor(SourceFile[].class).writeValue(out, trees.toArray(new SourceFile[0]));
+        out.flush();
+        return new Segment(offset, channel.position() - offset, java, contentKeys);
+    }
+
+    /**
+     * @return the segments of a store written by the same code on the same classpath, or none
+     */
+    private List<Segment> index(FileChannel channel) throws IOException {
+        long size = channel.size();
+        try {
+            DataInputStream header = new DataInputStream(new MappedInputStream(channel, 0, size, window));
+            if (size < Long.BYTES || header.readInt() != MAGIC || header.readInt() != FORMAT ||
+                !fingerprint.equals(header.readUTF())) {
+                return Collections.emptyList();
+            }
+            long indexOffset = new DataInputStream(new MappedInputStream(channel, size - Long.BYTES, size, window)).readLong();
+            DataInputStream index = new DataInputStream(new MappedInputStream(channel, indexOffset, size - Long.BYTES, window));
+            int count = index.readInt();
+            List<Segment> segments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long offset = index.readLong();
+                long length = index.readLong();
+                boolean java = index.readBoolean();
+                int files = index.readInt();
+                Map<String, String> contentKeys = new LinkedHashMap<>();
+                for (int j = 0; j < files; j++) {
+                    contentKeys.put(index.readUTF(), index.readUTF());
+                }
+                segments.add(new Segment(offset, length, java, contentKeys));
+            }
+            return segments;
+        } catch (EOFException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static boolean hasContent(Path root, Segment segment) throws IOException {
+        for (Map.Entry<String, String> contentKey : segment.getContentKeys().entrySet()) {
+            Path sourceFile = root.resolve(contentKey.getKey());
+            if (!Files.isRegularFile(sourceFile) || !contentKey.getValue().equals(contentKey(sourceFile))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean exists(Path root, Segment segment) {
+        for (String sourcePath : segment.getContentKeys().keySet()) {
+            if (!Files.isRegularFile(root.resolve(sourcePath))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isJava(String sourcePath) {
+        return sourcePath.endsWith(".java");
+    }
+
+    private static String sourcePath(Path root, Path sourceFile) {
+        return root.relativize(sourceFile).toString().replace('\\', '/');
+    }
+
+    private static String contentKey(Path sourceFile) throws IOException {
+        return Digests.sha256(Files.readAllBytes(sourceFile));
+    }
+
+    private static ObjectMapper mapper() {
+        SmileFactory smile = new SmileFactory();
+        // Segments are written one after another to the same stream
+        smile.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Names and short values recur in every tree, so refer back to them rather than writing them again
+        smile.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        ObjectMapper mapper = new ObjectMapper(smile)
+                .registerModule(new ParameterNamesModule())
+                .registerModule(new JavaTimeModule())
+                // Jackson writes paths as URIs, which makes relative source paths absolute
+                .registerModule(new SimpleModule()
+                        .addSerializer(Path.class, ToStringSerializer.instance)
+                        .addDeserializer(Path.class, new PathDeserializer()))
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        // Trees are immutable values, written field by field and created through their constructors
+        mapper.setVisibility(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+                .withCreatorVisibility(JsonAutoDetect.Visibility.PUBLIC_ONLY)
+                .withGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withIsGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withFieldVisibility(JsonAutoDetect.Visibility.ANY));
+        return mapper;
+    }
+
+    /**
+     * The trees of some source files, and the path and content digest of each, by path.
+     */
+    @Value
+    private static class Segment {
+        long offset;
+        long length;
+        boolean java;
+        Map<String, String> contentKeys;
+    }
+
+    /**
+     * Reads part of a file through mappings of at most a window of it at a time.
+     */
+    static final class MappedInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private final int window;
+        private long position;
+        private ByteBuffer buffer = ByteBuffer.allocate(0);
+
+        MappedInputStream(FileChannel channel, long start, long end, int window) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            this.window = window;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        private boolean fill() throws IOException {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+            if (position >= end) {
+                return false;
+            }
+            long size = Math.min(window, end - position);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            position += size;
+            return true;
+        }
+    }
+
+    private static class PathDeserializer extends StdDeserializer<Path> {
+        PathDeserializer() {
+            super(Path.class);
+        }
+
+        @Override
+        public Path deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return Paths.get(p.getValueAsString());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Opt-in debugging aid that dumps the LST a recipe visits, one file per source file, as an indented list of the
+ * elements in the tree.
+ * <p>
+ * Tracing is enabled by pointing the {@value #TRACE_DIRECTORY} system property, or the execution context message of
+ * the same name, at a directory. Dumps are written to {@code <directory>/<recipe name>/<source path>.lst} and streamed
+ * through a buffered writer as the tree is walked. When neither is set, {@link #trace} returns immediately without
+ * allocating.
+ */
+public final class LstTrace {
+
+    public static final String TRACE_DIRECTORY = "com.yourorg.trace.directory";
+
+    @Nullable
+    private static final Path SYSTEM_TRACE_DIRECTORY = System.getProperty(TRACE_DIRECTORY) == null ?
+            null : Paths.get(System.getProperty(TRACE_DIRECTORY));
+
+    private LstTrace() {
+    }
+
+    public static boolean isEnabled(ExecutionContext ctx) {
+        return SYSTEM_TRACE_DIRECTORY != null || ctx.getMessage(TRACE_DIRECTORY) != null;
+    }
+
+    /**
+     * Dump the tree of {@code sourceFile} if tracing is enabled.
+     *
+     * @param recipeName the recipe visiting the tree, used to keep the dumps of different recipes apart
+     * @param sourceFile the tree to dump
+     * @param ctx        the execution context, which may enable tracing for a single run
+     */
+    public static void trace(String recipeName, SourceFile sourceFile, ExecutionContext ctx) {
+        if (SYSTEM_TRACE_DIRECTORY == null && ctx.getMessage(TRACE_DIRECTORY) == null) {
+            return;
+        }
+        Object directory = ctx.getMessage(TRACE_DIRECTORY);
+        Path root = directory == null ? SYSTEM_TRACE_DIRECTORY : Paths.get(directory.toString());
+        Path out = root.resolve(recipeName).resolve(sourceFile.getSourcePath() + ".lst");
+        try {
+            Files.createDirectories(out.getParent());
+            try (Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                new TreeDumper().visit(sourceFile, writer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class TreeDumper extends TreeVisitor<Tree, Writer> {
+        private int depth;
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, Writer writer) {
+            if (tree == null) {
+                return super.visit((Tree) null, writer);
+            }
+            try {
+                for (int i = 0; i < depth; i++) {
+                    writer.write("  ");
+                }
+                writer.write(typeName(tree.getClass()));
+                if (tree instanceof J.Identifier) {
+                    writer.write(' ');
+                    writer.write(((J.Identifier) tree).getSimpleName());
+                } else if (tree instanceof J.Literal && ((J.Literal) tree).getValueSource() != null) {
+                    writer.write(' ');
+                    writer.write(((J.Literal) tree).getValueSource());
+                } else if (tree instanceof Yaml.Scalar) {
+                    writer.write(' ');
+                    writer.write(((Yaml.Scalar) tree).getValue());
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            depth++;
+            try {
+                return super.visit(tree, writer);
+            } finally {
+                depth--;
+            }
+        }
+
+        private static String typeName(Class<?> type) {
+            String name = type.getName();
+            return name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.*;
+
+/**
+ * A set of <a href="https://docs.openrewrite.org/reference/method-patterns">method patterns</a> that answers which of
+ * them, if any, a method type matches without trying every pattern in turn.
+ * <p>
+ * Patterns naming a concrete declaring type are indexed by that type and, where the method name is concrete too, by
+ * the method name, so a lookup only confirms the few patterns that share the method's declaring type and name with
+ * {@link MethodMatcher#matches(JavaType.Method)}. Patterns with a wildcard declaring type, or that match overrides,
+ * can't be indexed this way and are tried for every method. A lookup allocates nothing, as it is done for every method
+ * invocation visited. Sets are typically held by recipes for the life of the JVM, so the method types looked up, which
+ * reach every type of the source set they were parsed in, are never kept.
+ */
+public final class MethodMatcherSet {
+
+    private static final int NO_MATCH = -1;
+
+    private final List<MethodMatcher> matchers;
+    private final Map<String, Map<String, int[]>> byTypeAndName = new HashMap<>();
+    private final Map<String, int[]> byType = new HashMap<>();
+    private final int[] unindexed;
+
+    public MethodMatcherSet(String... signatures) {
+        this(Arrays.asList(signatures), false);
+    }
+
+    /**
+     * @param signatures     method patterns, whose position in this list is the index reported by {@link #indexOf}
+     * @param matchOverrides whether the patterns also match methods that override or implement the named method
+     */
+    public MethodMatcherSet(List<String> signatures, boolean matchOverrides) {
+        List<MethodMatcher> matchers = new ArrayList<>(signatures.size());
+        Map<String, Map<String, List<Integer>>> byTypeAndName = new HashMap<>();
+        Map<String, List<Integer>> byType = new HashMap<>();
+        List<Integer> unindexed = new ArrayList<>();
+        for (int i = 0; i < signatures.size(); i++) {
+            String signature = signatures.get(i).trim();
+            matchers.add(new MethodMatcher(signature, matchOverrides));
+
+            int space = signature.indexOf(' ');
+            int paren = signature.indexOf('(');
+            String type = space < 0 ? "*" : signature.substring(0, space);
+            String name = space < 0 || paren < space ? "*" : signature.substring(space + 1, paren).trim();
+            if (matchOverrides || isPattern(type)) {
+                unindexed.add(i);
+            } else if (isPattern(name)) {
+                byType.computeIfAbsent(normalize(type), k -> new ArrayList<>()).add(i);
+            } else {
+                byTypeAndName.computeIfAbsent(normalize(type), k -> new HashMap<>())
+                        .computeIfAbsent(name, k -> new ArrayList<>()).add(i);
+            }
+        }
+        this.matchers = Collections.unmodifiableList(matchers);
+        byTypeAndName.forEach((type, byName) -> {
+            Map<String, int[]> names = new HashMap<>();
+            byName.forEach((name, indexes) -> names.put(name, toArray(indexes)));
+            this.byTypeAndName.put(type, names);
+        });
+        byType.forEach((k, v) -> this.byType.put(k, toArray(v)));
+        this.unindexed = toArray(unindexed);
+    }
+
+    public int size() {
+        return matchers.size();
+    }
+
+    /**
+     * @param index the position of a pattern in this set
+     * @return the matcher for that pattern
+     */
+    public MethodMatcher get(int index) {
+        return matchers.get(index);
+    }
+
+    /**
+     * @param type a method type
+     * @return the position of the first pattern in this set that matches the method, or -1 if none do
+     */
+    public int indexOf(@Nullable JavaType.Method type) {
+        return type == null ? NO_MATCH : lookup(type);
+    }
+
+    public int indexOf(@Nullable MethodCall methodCall) {
+        return methodCall == null ? NO_MATCH : indexOf(methodCall.getMethodType());
+    }
+
+    public boolean matches(@Nullable JavaType.Method type) {
+        return indexOf(type) != NO_MATCH;
+    }
+
+    public boolean matches(@Nullable MethodCall methodCall) {
+        return indexOf(methodCall) != NO_MATCH;
+    }
+
+    /**
+     * @return a precondition that finds source files using a method that matches any pattern in this set, the
+     * counterpart of {@code Preconditions.or(new UsesMethod<>(...), ...)} over the same patterns.
+     */
+    public <P> JavaIsoVisitor<P> usesAnyMethod() {
+        return new JavaIsoVisitor<P>() {
+            @Override
+            public @Nullable J visit(@Nullable Tree tree, P p) {
+                if (tree instanceof JavaSourceFile) {
+                    JavaSourceFile cu = (JavaSourceFile) tree;
+                    for (JavaType.Method type : cu.getTypesInUse().getUsedMethods()) {
+                        if (matches(type)) {
+                            return SearchResult.found(cu);
+                        }
+                    }
+                    return cu;
+                }
+                return super.visit(tree, p);
+            }
+        };
+    }
+
+    private int lookup(JavaType.Method type) {
+        // Names without a $ are normalized to themselves, so this only allocates for nested types
+        String declaringType = normalize(type.getDeclaringType().getFullyQualifiedName());
+        Map<String, int[]> byName = byTypeAndName.get(declaringType);
+        int first = firstMatch(byName == null ? null : byName.get(type.getName()), type, Integer.MAX_VALUE);
+        first = firstMatch(byType.get(declaringType), type, first);
+        first = firstMatch(unindexed, type, first);
+        return first == Integer.MAX_VALUE ? NO_MATCH : first;
+    }
+
+    /**
+     * @return the lower of {@code first} and the position of the first candidate that matches
+     */
+    private int firstMatch(@Nullable int[] candidates, JavaType.Method type, int first) {
+        if (candidates != null) {
+            for (int candidate : candidates) {
+                if (candidate >= first) {
+                    break;
+                }
+                if (matchers.get(candidate).matches(type)) {
+                    return candidate;
+                }
+            }
+        }
+        return first;
+    }
+
+    private static boolean isPattern(String typeOrName) {
+        return typeOrName.contains("*") || typeOrName.contains("..");
+    }
+
+    /**
+     * Nested types may be written with either {@code $} or {@code .} in patterns and fully qualified names alike.
+     */
+    private static String normalize(String fullyQualifiedName) {
+        return fullyQualifiedName.replace('$', '.');
+    }
+
+    private static int[] toArray(List<Integer> indexes) {
+        int[] array = new int[indexes.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = indexes.get(i);
+        }
+        return array;
+    }
+}
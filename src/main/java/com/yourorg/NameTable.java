@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns names to dense int ids, so that structures keyed by name can be held in primitive arrays indexed by id
+ * instead of maps of strings.
+ * <p>
+ * Ids are assigned in the order names are first interned, starting at 0. The table can be used from several threads
+ * at once without a lock of its own: a name seen before is looked up without locking at all, and a new name only locks
+ * the bin of the {@link ConcurrentHashMap} it hashes to while it is assigned the next id. Names are held by id in
+ * chunks that double in size and are never copied, so the name of an id can be read while other names are interned.
+ * The name of an id is only guaranteed to be readable by the thread {@link #intern} or {@link #id} returned it to, or
+ * by threads that happen after it, which always holds for ids returned by this table.
+ */
+public final class NameTable {
+
+    private static final int ABSENT = -1;
+
+    /**
+     * The size of the first chunk, which each chunk after it doubles.
+     */
+    private static final int FIRST_CHUNK = 16;
+    private static final int FIRST_CHUNK_BITS = Integer.numberOfTrailingZeros(FIRST_CHUNK);
+
+    private final ConcurrentHashMap<String, Integer> ids;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicReferenceArray<String[]> chunks = new AtomicReferenceArray<>(32 - FIRST_CHUNK_BITS);
+
+    public NameTable() {
+        this(64);
+    }
+
+    public NameTable(int expectedSize) {
+        this.ids = new ConcurrentHashMap<>(Math.max(expectedSize, 8));
+    }
+
+    /**
+     * @return the id of the name, assigning the next id if the name has not been seen before
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            // The name is stored before its id is published, so it is visible to every thread the id is
+            id = ids.computeIfAbsent(name, n -> {
+                int next = size.getAndIncrement();
+                chunk(next)[offset(next)] = n;
+                return next;
+            });
+        }
+        return id;
+    }
+
+    /**
+     * @return the id of the name, or -1 if it has not been interned
+     */
+    public int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? ABSENT : id;
+    }
+
+    /**
+     * @return the name interned as this id
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size.get()) {
+            throw new IndexOutOfBoundsException("No name with id " + id + ", size is " + size.get());
+        }
+        return chunks.get(chunkIndex(id))[offset(id)];
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private String[] chunk(int id) {
+        int index = chunkIndex(id);
+        String[] chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new String[FIRST_CHUNK << index]);
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    /**
+     * Chunk {@code i} holds the ids from {@code FIRST_CHUNK * (2^i - 1)}, so the chunk of an id is the position of the
+     * highest bit of {@code id + FIRST_CHUNK}, less that of {@code FIRST_CHUNK}.
+     */
+    private static int chunkIndex(int id) {
+        return 31 - Integer.numberOfLeadingZeros(id + FIRST_CHUNK) - FIRST_CHUNK_BITS;
+    }
+
+    private static int offset(int id) {
+        return (id + FIRST_CHUNK) - Integer.highestOneBit(id + FIRST_CHUNK);
+    }
+}
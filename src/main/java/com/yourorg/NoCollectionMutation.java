@@ -23,17 +23,23 @@ import org.openrewrite.analysis.dataflow.DataFlowNode;
 import org.openrewrite.analysis.dataflow.DataFlowSpec;
 import org.openrewrite.analysis.dataflow.Dataflow;
 import org.openrewrite.internal.lang.Nullable;
-import org.openrewrite.java.JavaTemplate;
-import org.openrewrite.java.JavaVisitor;
-import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.MethodCall;
 import org.openrewrite.java.tree.TypeUtils;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class NoCollectionMutation extends Recipe {
+public class NoCollectionMutation extends Recipe implements FileInterest, FusibleRecipe {
     @Override
     public String getDisplayName() {
         return "Prevent LST collection mutation";
@@ -46,14 +52,26 @@ public class NoCollectionMutation extends Recipe {
                "This recipe uses Dataflow analysis to detect and put defensive copies around collection mutations.";
     }
 
-    private static final MethodMatcher ADD_MATCHER = new MethodMatcher("java.util.List add(..)");
-    private static final MethodMatcher ADD_ALL_MATCHER = new MethodMatcher("java.util.List addAll(..)");
-    private static final MethodMatcher CLEAR_MATCHER = new MethodMatcher("java.util.List clear()");
-    private static final MethodMatcher REMOVE_MATCHER = new MethodMatcher("java.util.List remove(..)");
-    private static final MethodMatcher REMOVE_ALL_MATCHER = new MethodMatcher("java.util.List removeAll(..)");
-    private static final MethodMatcher REPLACE_MATCHER = new MethodMatcher("java.util.List replace(..)");
-    private static final MethodMatcher SET_MATCHER = new MethodMatcher("java.util.List set(..)");
-    private static final MethodMatcher SORT_MATCHER = new MethodMatcher("java.util.List sort(..)");
+    @Override
+    public Collection<String> fileInterest() {
+        return JAVA_SOURCES;
+    }
+
+    private static final MethodMatcherSet LIST_MUTATIONS = new MethodMatcherSet(
+            "java.util.List add(..)",
+            "java.util.List addAll(..)",
+            "java.util.List clear()",
+            "java.util.List remove(..)",
+            "java.util.List removeAll(..)",
+            "java.util.List replace(..)",
+            "java.util.List set(..)",
+            "java.util.List sort(..)");
+
+    // Which of these types a code base uses more of varies, so let the precondition learn which to look for first
+    private static final AdaptivePrecondition USES_TREE_OR_LIST = AdaptivePrecondition.or(
+            AdaptivePrecondition.branch("UsesType org.openrewrite.Tree", () -> new UsesType<>("org.openrewrite.Tree", true)),
+            AdaptivePrecondition.branch("UsesType java.util.List", () -> new UsesType<>("java.util.List", true)));
+
     /**
      * The "select" of a method is the receiver or target of the invocation. In the method call "aList.add(foo)" the "select" is "aList".
      *
@@ -67,38 +85,101 @@ public class NoCollectionMutation extends Recipe {
             || ((J.MethodInvocation) parentValue).getSelect() != cursor.getValue()) {
             return false;
         }
-        JavaType.Method mt = ((J.MethodInvocation) parentValue).getMethodType();
-        return ADD_MATCHER.matches(mt) ||
-               ADD_ALL_MATCHER.matches(mt) ||
-               CLEAR_MATCHER.matches(mt) ||
-               REMOVE_MATCHER.matches(mt) ||
-               REMOVE_ALL_MATCHER.matches(mt) ||
-               REPLACE_MATCHER.matches(mt) ||
-               SET_MATCHER.matches(mt) ||
-               SORT_MATCHER.matches(mt);
+        return LIST_MUTATIONS.matches((J.MethodInvocation) parentValue);
     }
 
-    private static final MethodMatcher NEW_ARRAY_LIST_MATCHER = new MethodMatcher("java.util.ArrayList <init>(java.util.Collection)");
+    /**
+     * Constructs that copy the list they are given, so that mutating their result leaves an LST element untouched.
+     * The {@code ListUtils} helpers copy on write, and are what LST elements themselves use to build modified lists.
+     */
+    private static final MethodMatcherSet DEFENSIVE_COPIES = new MethodMatcherSet(
+            "java.util.ArrayList <constructor>(java.util.Collection)",
+            "java.util.LinkedList <constructor>(java.util.Collection)",
+            "java.util.List copyOf(java.util.Collection)",
+            "com.google.common.collect.ImmutableList copyOf(..)",
+            "com.google.common.collect.Lists newArrayList(java.lang.Iterable)",
+            "org.openrewrite.internal.ListUtils concat(..)",
+            "org.openrewrite.internal.ListUtils concatAll(..)",
+            "org.openrewrite.internal.ListUtils insert(..)",
+            "org.openrewrite.internal.ListUtils insertAll(..)",
+            "org.openrewrite.internal.ListUtils insertInOrder(..)",
+            "java.util.stream.Stream toList()");
 
     /**
      * @param cursor a stack of LST elements with parent/child relationships connecting an individual LST element to the root of the tree
      * @return true if the cursor points to an LST element contained within the argument list of a constructor or
-     * function which creates a defensive copy as needed
+     * function which creates a defensive copy as needed. Only the enclosing method or lambda is searched, as a copy
+     * made outside of it can't guard a mutation inside of it.
      */
     private static boolean inDefensiveCopy(@Nullable Cursor cursor) {
-        if(cursor == null) {
-            return false;
+        for (Cursor c = cursor; c != null; c = c.getParent()) {
+            Object value = c.getValue();
+            if (value instanceof MethodCall && DEFENSIVE_COPIES.matches((MethodCall) value)) {
+                return true;
+            }
+            if (value instanceof J.MethodDeclaration || value instanceof J.Lambda ||
+                value instanceof J.ClassDeclaration || value instanceof SourceFile) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static final String UNGUARDED_MUTATION_SINKS = "UNGUARDED_MUTATION_SINKS";
+
+    /**
+     * Counts how often the per-method summary of list mutations made a dataflow analysis unnecessary.
+     */
+    public static class DataflowStatistics {
+        final LongAdder summariesComputed = new LongAdder();
+        final LongAdder analysesRun = new LongAdder();
+        final LongAdder analysesAvoided = new LongAdder();
+
+        public long getSummariesComputed() {
+            return summariesComputed.sum();
+        }
+
+        public long getAnalysesRun() {
+            return analysesRun.sum();
+        }
+
+        public long getAnalysesAvoided() {
+            return analysesAvoided.sum();
         }
-        Object value = cursor.getValue();
-        if (value instanceof J.NewClass && NEW_ARRAY_LIST_MATCHER.matches(((J.NewClass) value).getMethodType())) {
-            return true;
+    }
+
+    /**
+     * @param ctx the execution context of a recipe run
+     * @return the statistics of this recipe for that run
+     */
+    public static DataflowStatistics dataflowStatistics(ExecutionContext ctx) {
+        DataflowStatistics statistics = ctx.getMessage(DataflowStatistics.class.getName());
+        if (statistics == null) {
+            // ExecutionContext has no atomic computeMessageIfAbsent, so only the runs sharing a context wait on each other
+            synchronized (ctx) {
+                statistics = ctx.getMessage(DataflowStatistics.class.getName());
+                if (statistics == null) {
+                    statistics = new DataflowStatistics();
+                    ctx.putMessage(DataflowStatistics.class.getName(), statistics);
+                }
+            }
         }
-        return inDefensiveCopy(cursor.getParent());
+        return statistics;
     }
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        JavaVisitor<ExecutionContext> addDefensiveCopy = new JavaVisitor<ExecutionContext>() {
+        return RecipeEvents.check(this, fusiblePrecondition(), fusibleVisitor());
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> fusiblePrecondition() {
+        return USES_TREE_OR_LIST.visitor();
+    }
+
+    @Override
+    public FusibleJavaVisitor fusibleVisitor() {
+        return new FusibleJavaVisitor() {
             @Override
             public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
                 J j = super.visitMethodInvocation(method, ctx);
@@ -115,41 +196,102 @@ public class NoCollectionMutation extends Recipe {
                     return m;
                 }
 
-                boolean isMutated = Dataflow.startingAt(getCursor()).findSinks(new DataFlowSpec() {
-                            @Override
-                            public boolean isSource(DataFlowNode srcNode) {
-                                return true;
-                            }
-
-                            @Override
-                            public boolean isSink(DataFlowNode sinkNode) {
-                                return isListMutationSelect(sinkNode.getCursor());
-                            }
-                        }).bind(sinkFlow -> {
-                            for (Cursor sink : sinkFlow.getSinkCursors()) {
-                                if(!inDefensiveCopy(sink)) {
-                                    return Option.some(sink);
-                                }
-                            }
-                            return Option.none();
-                        })
-                        .isSome();
-                if(!isMutated) {
+                if (!isMutated(method, ctx)) {
                     return m;
                 }
 
                 maybeAddImport("java.util.ArrayList");
-                return JavaTemplate.builder("new ArrayList<>(#{any(java.util.List)})")
-                        .imports("java.util.ArrayList")
-                        .build()
-                        .apply(getCursor(), m.getCoordinates().replace(), m);
+                return JavaTemplateCache.apply(JavaTemplateCache.shared()
+                                .get("new ArrayList<>(#{any(java.util.List)})", "java.util.ArrayList"),
+                        getCursor(), m.getCoordinates().replace(), m);
             }
-        };
 
-        return Preconditions.check(
-                Preconditions.or(
-                        new UsesType<>("org.openrewrite.Tree", true),
-                        new UsesType<>("java.util.List", true)),
-                addDefensiveCopy);
+            private boolean isMutated(J.MethodInvocation method, ExecutionContext ctx) {
+                DataflowStatistics statistics = dataflowStatistics(ctx);
+                Set<UUID> sinks = unguardedMutationSinks(statistics);
+                if (sinks == null) {
+                    // Not in a method body, e.g. a field initializer, so there is no summary to consult
+                    statistics.analysesRun.increment();
+                    return RecipeEvents.dataflow(getCursor(), () -> Dataflow.startingAt(getCursor()).findSinks(new DataFlowSpec() {
+                                @Override
+                                public boolean isSource(DataFlowNode srcNode) {
+                                    return true;
+                                }
+
+                                @Override
+                                public boolean isSink(DataFlowNode sinkNode) {
+                                    return isListMutationSelect(sinkNode.getCursor());
+                                }
+                            }).bind(sinkFlow -> {
+                                for (Cursor sink : sinkFlow.getSinkCursors()) {
+                                    if (!inDefensiveCopy(sink)) {
+                                        return Option.some(sink);
+                                    }
+                                }
+                                return Option.none();
+                            })
+                            .isSome());
+                }
+                if (sinks.isEmpty()) {
+                    // Nothing in this method body mutates a list, so nothing can flow into such a mutation
+                    statistics.analysesAvoided.increment();
+                    return false;
+                }
+                Object parent = getCursor().getParentTreeCursor().getValue();
+                if (sinks.contains(method.getId()) || parent instanceof J.MethodInvocation ||
+                    parent instanceof J.NewClass || parent instanceof J.Block || parent instanceof J.Return) {
+                    // Either mutated in place, as in `method.getArguments().clear()`, or consumed right away without
+                    // being bound to a variable that local dataflow could follow to a mutation elsewhere
+                    statistics.analysesAvoided.increment();
+                    return sinks.contains(method.getId());
+                }
+                statistics.analysesRun.increment();
+                return RecipeEvents.dataflow(getCursor(), () -> Dataflow.startingAt(getCursor()).findSinks(new DataFlowSpec() {
+                    @Override
+                    public boolean isSource(DataFlowNode srcNode) {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isSink(DataFlowNode sinkNode) {
+                        Object value = sinkNode.getCursor().getValue();
+                        return value instanceof J && sinks.contains(((J) value).getId());
+                    }
+                }).isSome());
+            }
+
+            /**
+             * @return the ids of the list mutation selects in the enclosing method declaration that are not already
+             * defensive copies, computed once per method declaration and shared by every candidate call in its body,
+             * or null if the cursor is not inside a method declaration.
+             */
+            private @Nullable Set<UUID> unguardedMutationSinks(DataflowStatistics statistics) {
+                Cursor methodCursor = getCursor().dropParentUntil(v -> v instanceof J.MethodDeclaration ||
+                                                                       v instanceof J.ClassDeclaration ||
+                                                                       v instanceof SourceFile ||
+                                                                       Cursor.ROOT_VALUE.equals(v));
+                if (!(methodCursor.getValue() instanceof J.MethodDeclaration)) {
+                    return null;
+                }
+                return methodCursor.computeMessageIfAbsent(UNGUARDED_MUTATION_SINKS, k -> {
+                    statistics.summariesComputed.increment();
+                    Set<UUID> sinks = new HashSet<>();
+                    new JavaIsoVisitor<Set<UUID>>() {
+                        @Override
+                        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Set<UUID> found) {
+                            Expression select = method.getSelect();
+                            if (select != null) {
+                                Cursor selectCursor = new Cursor(getCursor(), select);
+                                if (isListMutationSelect(selectCursor) && !inDefensiveCopy(selectCursor)) {
+                                    found.add(select.getId());
+                                }
+                            }
+                            return super.visitMethodInvocation(method, found);
+                        }
+                    }.visit(methodCursor.<J.MethodDeclaration>getValue(), sinks, methodCursor.getParentOrThrow());
+                    return sinks;
+                });
+            }
+        };
     }
 }
@@ -18,23 +18,20 @@ package com.yourorg;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaTemplate;
-import org.openrewrite.java.JavaVisitor;
-import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.TreeVisitingPrinter;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.J;
 
+import java.util.Collection;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class NoGuavaListsNewArrayList extends Recipe {
+public class NoGuavaListsNewArrayList extends Recipe implements FileInterest, FusibleRecipe {
     // These matchers use a syntax described on https://docs.openrewrite.org/reference/method-patterns
-    private static final MethodMatcher NEW_ARRAY_LIST = new MethodMatcher("com.google.common.collect.Lists newArrayList()");
-    private static final MethodMatcher NEW_ARRAY_LIST_ITERABLE = new MethodMatcher("com.google.common.collect.Lists newArrayList(java.lang.Iterable)");
-    private static final MethodMatcher NEW_ARRAY_LIST_CAPACITY = new MethodMatcher("com.google.common.collect.Lists newArrayListWithCapacity(int)");
+    private static final MethodMatcherSet NEW_ARRAY_LIST = new MethodMatcherSet(
+            "com.google.common.collect.Lists newArrayList()",
+            "com.google.common.collect.Lists newArrayList(java.lang.Iterable)",
+            "com.google.common.collect.Lists newArrayListWithCapacity(int)");
 
     @Override
     public String getDisplayName() {
@@ -48,64 +45,66 @@ public class NoGuavaListsNewArrayList extends Recipe {
         return "Prefer the Java standard library over third-party usage of Guava in simple cases like this.";
     }
 
+    @Override
+    public Collection<String> fileInterest() {
+        return JAVA_SOURCES;
+    }
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
+        return RecipeEvents.check(this,
                 // Any change to the AST made by the preconditions check will lead to the visitor returned by Recipe
                 // .getVisitor() being applied
                 // No changes made by the preconditions check will be kept
-                Preconditions.or(new UsesMethod<>(NEW_ARRAY_LIST),
-                        new UsesMethod<>(NEW_ARRAY_LIST_ITERABLE),
-                        new UsesMethod<>(NEW_ARRAY_LIST_CAPACITY)),
+                fusiblePrecondition(),
                 // To avoid stale state persisting between cycles, getVisitor() should always return a new instance of
                 // its visitor
-                new JavaVisitor<ExecutionContext>() {
-                    private final JavaTemplate newArrayList = JavaTemplate.builder("new ArrayList<>()")
-                            .imports("java.util.ArrayList")
-                            .build();
-
-                    private final JavaTemplate newArrayListIterable =
-                            JavaTemplate.builder("new ArrayList<>(#{any(java.util.Collection)})")
-                                    .imports("java.util.ArrayList")
-                                    .build();
+                fusibleVisitor()
+        );
+    }
 
-                    private final JavaTemplate newArrayListCapacity =
-                            JavaTemplate.builder("new ArrayList<>(#{any(int)})")
-                                    .imports("java.util.ArrayList")
-                                    .build();
+    @Override
+    public TreeVisitor<?, ExecutionContext> fusiblePrecondition() {
+        return NEW_ARRAY_LIST.usesAnyMethod();
+    }
 
-                    // This method override is only here to show how to print the AST for debugging purposes.
-                    // You can remove this method if you don't need it.
-                    @Override
-                    public J visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
-                        // This is a useful debugging tool if you're ever unsure what the visitor is visiting
-                        String printed = TreeVisitingPrinter.printTree(cu);
-                        System.out.printf(printed);
-                        // You must always delegate to the super method to ensure the visitor continues to visit deeper
-                        return super.visitCompilationUnit(cu, ctx);
-                    }
+    @Override
+    public FusibleJavaVisitor fusibleVisitor() {
+        return new FusibleJavaVisitor() {
+            // This method override is only here to show how to inspect the AST for debugging purposes.
+            // You can remove this method if you don't need it.
+            @Override
+            public J visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                // Set the com.yourorg.trace.directory system property if you're ever unsure what the visitor
+                // is visiting, and the tree will be written to a file in that directory. Otherwise, this is a no-op.
+                LstTrace.trace(getName(), cu, ctx);
+                // You must always delegate to the super method to ensure the visitor continues to visit deeper
+                return super.visitCompilationUnit(cu, ctx);
+            }
 
-                    // Visit any method invocation, and replace matches with the new ArrayList instantiation.
-                    @Override
-                    public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
-                        if (NEW_ARRAY_LIST.matches(method)) {
-                            maybeRemoveImport("com.google.common.collect.Lists");
-                            maybeAddImport("java.util.ArrayList");
-                            return newArrayList.apply(getCursor(), method.getCoordinates().replace());
-                        } else if (NEW_ARRAY_LIST_ITERABLE.matches(method)) {
-                            maybeRemoveImport("com.google.common.collect.Lists");
-                            maybeAddImport("java.util.ArrayList");
-                            return newArrayListIterable.apply(getCursor(), method.getCoordinates().replace(),
-                                    method.getArguments().get(0));
-                        } else if (NEW_ARRAY_LIST_CAPACITY.matches(method)) {
-                            maybeRemoveImport("com.google.common.collect.Lists");
-                            maybeAddImport("java.util.ArrayList");
-                            return newArrayListCapacity.apply(getCursor(), method.getCoordinates().replace(),
-                                    method.getArguments().get(0));
-                        }
-                        return super.visitMethodInvocation(method, ctx);
-                    }
+            // Visit any method invocation, and replace matches with the new ArrayList instantiation.
+            @Override
+            public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                int matched = NEW_ARRAY_LIST.indexOf(method);
+                if (matched < 0) {
+                    return super.visitMethodInvocation(method, ctx);
                 }
-        );
+                maybeRemoveImport("com.google.common.collect.Lists");
+                maybeAddImport("java.util.ArrayList");
+                switch (matched) {
+                    case 0:
+                        return JavaTemplateCache.apply(JavaTemplateCache.shared().get("new ArrayList<>()", "java.util.ArrayList"),
+                                getCursor(), method.getCoordinates().replace());
+                    case 1:
+                        return JavaTemplateCache.apply(JavaTemplateCache.shared()
+                                        .get("new ArrayList<>(#{any(java.util.Collection)})", "java.util.ArrayList"),
+                                getCursor(), method.getCoordinates().replace(), method.getArguments().get(0));
+                    default:
+                        return JavaTemplateCache.apply(JavaTemplateCache.shared()
+                                        .get("new ArrayList<>(#{any(int)})", "java.util.ArrayList"),
+                                getCursor(), method.getCoordinates().replace(), method.getArguments().get(0));
+                }
+            }
+        };
     }
 }
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import jdk.jfr.*;
+import org.openrewrite.*;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Java Flight Recorder events for the hot paths of the recipes in this project: precondition checks and visits of each
+ * source file, the compilation of {@link JavaTemplateCache} templates and their application with
+ * {@link JavaTemplateCache#apply}, and the dataflow analyses of {@link NoCollectionMutation}. Every event carries the name of the recipe and the path of the source file.
+ * <p>
+ * Events are created and timed only while a recording enables them, and their fields are only filled in for events
+ * that will be committed, so they cost a check of a flag when JFR isn't recording. On a JVM without JFR, the
+ * visitors are returned as they are.
+ */
+public final class RecipeEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    /**
+     * The recipe visiting a source file on this thread, while visit events are recorded, for the events of the
+     * templates and analyses it runs.
+     */
+    private static final ThreadLocal<String> RECIPE = new ThreadLocal<>();
+
+    /**
+     * The compilation of a template that started during the template application on this thread.
+     */
+    private static final ThreadLocal<Object> COMPILATION = new ThreadLocal<>();
+
+    private RecipeEvents() {
+    }
+
+    /**
+     * Like {@link Preconditions#check(TreeVisitor, TreeVisitor)}, with precondition and visit events.
+     */
+    public static TreeVisitor<?, ExecutionContext> check(Recipe recipe, TreeVisitor<?, ExecutionContext> precondition,
+                                                         TreeVisitor<?, ExecutionContext> visitor) {
+        return Preconditions.check(precondition(recipe, precondition), visitor(recipe, visitor));
+    }
+
+    /**
+     * @return the precondition, recording whether each source file passes it, and counting its checks for
+     * {@link RecipeMetrics}
+     */
+    public static TreeVisitor<?, ExecutionContext> precondition(Recipe recipe, TreeVisitor<?, ExecutionContext> precondition) {
+        return RecipeMetrics.precondition(recipe,
+                AVAILABLE ? new TracedVisitor(recipe.getName(), precondition, true) : precondition);
+    }
+
+    /**
+     * @return the visitor, recording each visit of a source file and whether it changed the source file
+     */
+    public static TreeVisitor<?, ExecutionContext> visitor(Recipe recipe, TreeVisitor<?, ExecutionContext> visitor) {
+        return AVAILABLE ? new TracedVisitor(recipe.getName(), visitor, false) : visitor;
+    }
+
+    /**
+     * Run a dataflow analysis, recording it and whether it found what it looked for.
+     */
+    public static boolean dataflow(Cursor cursor, BooleanSupplier analysis) {
+        if (!AVAILABLE) {
+            return analysis.getAsBoolean();
+        }
+        DataflowEvent event = new DataflowEvent();
+        if (!event.isEnabled()) {
+            return analysis.getAsBoolean();
+        }
+        event.begin();
+        boolean found = analysis.getAsBoolean();
+        event.end();
+        if (event.shouldCommit()) {
+            event.recipe = RECIPE.get();
+            event.sourcePath = sourcePath(cursor);
+            event.found = found;
+            event.commit();
+        }
+        return found;
+    }
+
+    /**
+     * Apply a template, recording the application and the compilation of the template if it happens meanwhile.
+     */
+    static <T> T templateApply(String code, Cursor scope, Supplier<T> apply) {
+        if (!AVAILABLE) {
+            return apply.get();
+        }
+        TemplateApplyEvent event = new TemplateApplyEvent();
+        if (!event.isEnabled() && !new TemplateCompileEvent().isEnabled()) {
+            return apply.get();
+        }
+        // A compilation begun outside of an application, as the template was matched, is not recorded
+        COMPILATION.remove();
+        event.begin();
+        try {
+            return apply.get();
+        } finally {
+            event.end();
+            TemplateCompileEvent compilation = (TemplateCompileEvent) COMPILATION.get();
+            if (compilation != null) {
+                COMPILATION.remove();
+                compilation.end();
+                if (compilation.shouldCommit()) {
+                    compilation.recipe = RECIPE.get();
+                    compilation.sourcePath = sourcePath(scope);
+                    compilation.template = code;
+                    compilation.commit();
+                }
+            }
+            if (event.shouldCommit()) {
+                event.recipe = RECIPE.get();
+                event.sourcePath = sourcePath(scope);
+                event.template = code;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Called as a template starts compiling its stub, which ends with the application that needed it.
+     */
+    static void templateCompiling() {
+        if (AVAILABLE) {
+            TemplateCompileEvent event = new TemplateCompileEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                COMPILATION.set(event);
+            }
+        }
+    }
+
+    private static @Nullable String sourcePath(Cursor cursor) {
+        SourceFile sourceFile = cursor.firstEnclosing(SourceFile.class);
+        return sourceFile == null ? null : sourceFile.getSourcePath().toString();
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static final class TracedVisitor extends TreeVisitor<Tree, ExecutionContext> {
+        private final String recipe;
+        private final TreeVisitor<?, ExecutionContext> visitor;
+        private final boolean precondition;
+
+        TracedVisitor(String recipe, TreeVisitor<?, ExecutionContext> visitor, boolean precondition) {
+            this.recipe = recipe;
+            this.visitor = visitor;
+            this.precondition = precondition;
+        }
+
+        @Override
+        public boolean isAcceptable(SourceFile sourceFile, ExecutionContext ctx) {
+            return visitor.isAcceptable(sourceFile, ctx);
+        }
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+            return visit(tree, ctx, new Cursor(null, Cursor.ROOT_VALUE));
+        }
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx, Cursor parent) {
+            if (!(tree instanceof SourceFile)) {
+                return visitor.visit(tree, ctx, parent);
+            }
+            return precondition ? checkPrecondition((SourceFile) tree, ctx, parent) : visitSourceFile((SourceFile) tree, ctx, parent);
+        }
+
+        private @Nullable Tree checkPrecondition(SourceFile sourceFile, ExecutionContext ctx, Cursor parent) {
+            PreconditionEvent event = new PreconditionEvent();
+            if (!event.isEnabled()) {
+                return visitor.visit(sourceFile, ctx, parent);
+            }
+            event.begin();
+            Tree after = visitor.visit(sourceFile, ctx, parent);
+            event.end();
+            if (event.shouldCommit()) {
+                event.recipe = recipe;
+                event.sourcePath = sourceFile.getSourcePath().toString();
+                event.passed = after != sourceFile;
+                event.commit();
+            }
+            return after;
+        }
+
+        private @Nullable Tree visitSourceFile(SourceFile sourceFile, ExecutionContext ctx, Cursor parent) {
+            // The events of the templates and analyses of the visit carry the recipe, whether visits are recorded or not
+            String outer = RECIPE.get();
+            RECIPE.set(recipe);
+            VisitEvent event = new VisitEvent();
+            if (!event.isEnabled()) {
+                try {
+                    return visitor.visit(sourceFile, ctx, parent);
+                } finally {
+                    RECIPE.set(outer);
+                }
+            }
+            event.begin();
+            Tree after = null;
+            try {
+                after = visitor.visit(sourceFile, ctx, parent);
+                return after;
+            } finally {
+                event.end();
+                RECIPE.set(outer);
+                if (event.shouldCommit()) {
+                    event.recipe = recipe;
+                    event.sourcePath = sourceFile.getSourcePath().toString();
+                    event.changed = after != sourceFile;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    @Name("com.yourorg.Precondition")
+    @Label("Precondition Check")
+    @Description("A recipe checking whether a source file meets its precondition")
+    @Category({"OpenRewrite", "Recipe"})
+    @StackTrace(false)
+    static class PreconditionEvent extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Passed")
+        boolean passed;
+    }
+
+    @Name("com.yourorg.Visit")
+    @Label("Recipe Visit")
+    @Description("A recipe visiting a source file, from entering the visitor to leaving it")
+    @Category({"OpenRewrite", "Recipe"})
+    @StackTrace(false)
+    static class VisitEvent extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Changed")
+        boolean changed;
+    }
+
+    @Name("com.yourorg.TemplateCompile")
+    @Label("Template Compilation")
+    @Description("A JavaTemplate compiling the stub of its code, until the application that needed it ends")
+    @Category({"OpenRewrite", "Recipe", "Template"})
+    static class TemplateCompileEvent extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Template")
+        String template;
+    }
+
+    @Name("com.yourorg.TemplateApply")
+    @Label("Template Application")
+    @Description("A JavaTemplate replacing or inserting code in a source file")
+    @Category({"OpenRewrite", "Recipe", "Template"})
+    @StackTrace(false)
+    static class TemplateApplyEvent extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Template")
+        String template;
+    }
+
+    @Name("com.yourorg.Dataflow")
+    @Label("Dataflow Analysis")
+    @Description("A local dataflow analysis looking for the sinks of an expression")
+    @Category({"OpenRewrite", "Recipe", "Dataflow"})
+    static class DataflowEvent extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Found")
+        boolean found;
+    }
+}
@@ -0,0 +1,604 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.PreconditionSelectivity;
+import com.yourorg.table.RecipeExecutionMetrics;
+import org.openrewrite.*;
+import org.openrewrite.config.DataTableDescriptor;
+import org.openrewrite.config.RecipeDescriptor;
+import org.openrewrite.config.RecipeExample;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Measures the time each recipe of a recipe tree, such as a declarative composite, takes and the work it does in a
+ * run, and reports them in a {@link RecipeExecutionMetrics} data table.
+ * <p>
+ * {@link #measure(Recipe)} wraps every recipe in the tree in one that delegates to it and counts around its scanner,
+ * generator and visitor. Counters are kept per recipe and per thread, so the threads of a partitioned run never
+ * contend on them, and are only summed into rows once the run is over, by {@link #addTo(RecipeRun)}.
+ * <p>
+ * Template applications are counted for the templates built by {@link JavaTemplateCache}, which the recipes of this
+ * project use; templates that recipes build themselves, such as those of Refaster rules, aren't counted.
+ * <p>
+ * The preconditions a recipe's visitor is guarded by with {@link RecipeEvents#check} are reported in a
+ * {@link PreconditionSelectivity} data table, along with each branch of the {@link AdaptivePrecondition}s it checks.
+ * Recipes that check their preconditions otherwise, such as those generated from Refaster rules, are reported as if
+ * every source file they visit met their preconditions.
+ */
+public final class RecipeMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    /**
+     * The counters of the recipe whose visitor is running on this thread, if it is being measured.
+     */
+    private static final ThreadLocal<Counters> CURRENT = new ThreadLocal<>();
+
+    private final Recipe recipe;
+    private final List<Node> nodes;
+    private final RecipeExecutionMetrics metrics;
+    private final PreconditionSelectivity selectivity;
+
+    private RecipeMetrics(Recipe recipe, List<Node> nodes) {
+        this.recipe = recipe;
+        this.nodes = nodes;
+        this.metrics = new RecipeExecutionMetrics(recipe);
+        this.selectivity = new PreconditionSelectivity(recipe);
+    }
+
+    /**
+     * @param recipe the recipe to measure, with every recipe in its recipe list
+     * @return the metrics of a single run of the recipe returned by {@link #getRecipe()}
+     */
+    public static RecipeMetrics measure(Recipe recipe) {
+        List<Node> nodes = new ArrayList<>();
+        return new RecipeMetrics(wrap(recipe, null, nodes), nodes);
+    }
+
+    /**
+     * Called by {@link JavaTemplateCache} templates each time they are applied.
+     */
+    static void templateApplied() {
+        Counters counters = CURRENT.get();
+        if (counters != null) {
+            counters.templateApplications++;
+        }
+    }
+
+    /**
+     * Called by {@link JavaTemplateCache} templates each time they compile a stub.
+     */
+    static void templateCompiled() {
+        Counters counters = CURRENT.get();
+        if (counters != null) {
+            counters.templateCompilations++;
+        }
+    }
+
+    /**
+     * @return the precondition of a recipe, counting its checks while the recipe's visitor is measured
+     */
+    static TreeVisitor<?, ExecutionContext> precondition(Recipe recipe, TreeVisitor<?, ExecutionContext> precondition) {
+        return new MeasuredPrecondition(recipe.getName(), precondition);
+    }
+
+    /**
+     * Called by {@link AdaptivePrecondition} branches each time they are checked.
+     */
+    static void preconditionChecked(String branch, long nanos, boolean rejected) {
+        Counters counters = CURRENT.get();
+        if (counters != null) {
+            counters.branches.computeIfAbsent(branch, b -> new PreconditionCounters()).add(nanos, rejected);
+        }
+    }
+
+    /**
+     * @return the recipe to run in place of the measured one, which behaves the same
+     */
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    /**
+     * @return a row for each recipe in the tree, in depth-first order, with the counters of every thread summed
+     */
+    public List<RecipeExecutionMetrics.Row> getRows() {
+        List<RecipeExecutionMetrics.Row> rows = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            Counters sum = new Counters();
+            for (Counters counters : node.all) {
+                sum.add(counters);
+            }
+            rows.add(new RecipeExecutionMetrics.Row(node.recipe.getName(),
+                    node.parent == null ? null : node.parent.getName(),
+                    sum.wallTimeNanos, sum.cpuTimeNanos, sum.sourceFilesVisited,
+                    sum.sourceFilesPassedPreconditions, sum.sourceFilesChanged, sum.templateApplications, sum.templateCompilations));
+        }
+        return rows;
+    }
+
+    /**
+     * @return a row for the precondition of each recipe in the tree that has one, in depth-first order, each followed
+     * by a row for every adaptive precondition branch the recipe checked, in alphabetical order
+     */
+    public List<PreconditionSelectivity.Row> getPreconditionRows() {
+        List<PreconditionSelectivity.Row> rows = new ArrayList<>();
+        for (Node node : nodes) {
+            Counters sum = new Counters();
+            for (Counters counters : node.all) {
+                sum.add(counters);
+            }
+            if (sum.precondition.checks > 0) {
+                rows.add(sum.precondition.row(node.recipe.getName(), null));
+            }
+            for (Map.Entry<String, PreconditionCounters> branch : sum.branches.entrySet()) {
+                rows.add(branch.getValue().row(node.recipe.getName(), branch.getKey()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @param run the run of {@link #getRecipe()}
+     * @return the run, with the rows of this run in its {@link RecipeExecutionMetrics} and
+     * {@link PreconditionSelectivity} data tables
+     */
+    public RecipeRun addTo(RecipeRun run) {
+        Map<DataTable<?>, List<?>> dataTables = new LinkedHashMap<>(run.getDataTables());
+        dataTables.put(metrics, getRows());
+        dataTables.put(selectivity, getPreconditionRows());
+        return new RecipeRun(run.getChangeset(), dataTables);
+    }
+
+    /**
+     * Run the measured recipe and report its metrics.
+     */
+    public RecipeRun run(LargeSourceSet sourceSet, ExecutionContext ctx) {
+        return addTo(recipe.run(sourceSet, ctx));
+    }
+
+    private static Recipe wrap(Recipe recipe, @Nullable Recipe parent, List<Node> nodes) {
+        Node node = new Node(recipe, parent);
+        nodes.add(node);
+        // Recipe lists may be built anew each time they're asked for, but the run needs to see the same recipes
+        List<Recipe> recipeList = new ArrayList<>();
+        for (Recipe child : recipe.getRecipeList()) {
+            recipeList.add(wrap(child, recipe, nodes));
+        }
+        node.recipeList = Collections.unmodifiableList(recipeList);
+        return recipe instanceof ScanningRecipe ?
+                new MeasuredScanningRecipe<>(node, (ScanningRecipe<?>) recipe) :
+                new MeasuredRecipe(node);
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * The wrapper of a recipe declares the file interest the recipe would have had, or every file.
+     */
+    private static Collection<String> fileInterestOf(Recipe recipe) {
+        FileInterestMatcher interest = FileInterestMatcher.of(recipe);
+        return interest.matchesAll() ? Collections.singletonList("**") : interest.getGlobs();
+    }
+
+    private static final class Node {
+        final Recipe recipe;
+
+        @Nullable
+        final Recipe parent;
+
+        List<Recipe> recipeList = Collections.emptyList();
+
+        final Queue<Counters> all = new ConcurrentLinkedQueue<>();
+        final ThreadLocal<Counters> counters = ThreadLocal.withInitial(() -> {
+            Counters counters = new Counters();
+            all.add(counters);
+            return counters;
+        });
+
+        Node(Recipe recipe, @Nullable Recipe parent) {
+            this.recipe = recipe;
+            this.parent = parent;
+        }
+
+        List<DataTableDescriptor> dataTableDescriptors(List<DataTableDescriptor> own) {
+            List<DataTableDescriptor> dataTables = new ArrayList<>(own);
+            for (DataTableDescriptor dataTable : recipe.getDataTableDescriptors()) {
+                if (!dataTables.contains(dataTable)) {
+                    dataTables.add(dataTable);
+                }
+            }
+            return dataTables;
+        }
+
+        /**
+         * Run some work of the recipe, such as generating source files, measuring its time.
+         */
+        <T> T time(Supplier<T> work) {
+            Counters counters = this.counters.get();
+            Counters outer = CURRENT.get();
+            CURRENT.set(counters);
+            long wall = System.nanoTime();
+            long cpu = cpuTime();
+            try {
+                return work.get();
+            } finally {
+                counters.cpuTimeNanos += cpuTime() - cpu;
+                counters.wallTimeNanos += System.nanoTime() - wall;
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    /**
+     * Plain fields, as each instance is only ever updated by one thread and only read once the run is over.
+     */
+    private static final class Counters {
+        long wallTimeNanos;
+        long cpuTimeNanos;
+        long sourceFilesVisited;
+        long sourceFilesPassedPreconditions;
+        long sourceFilesChanged;
+        long templateApplications;
+        long templateCompilations;
+        final PreconditionCounters precondition = new PreconditionCounters();
+
+        /**
+         * The name of the recipe whose precondition the source file visit in progress is waiting to check, if any.
+         */
+        @Nullable
+        String checking;
+        final Map<String, PreconditionCounters> branches = new TreeMap<>();
+
+        void add(Counters other) {
+            wallTimeNanos += other.wallTimeNanos;
+            cpuTimeNanos += other.cpuTimeNanos;
+            sourceFilesVisited += other.sourceFilesVisited;
+            sourceFilesPassedPreconditions += other.sourceFilesPassedPreconditions;
+            sourceFilesChanged += other.sourceFilesChanged;
+            templateApplications += other.templateApplications;
+            templateCompilations += other.templateCompilations;
+            precondition.add(other.precondition);
+            for (Map.Entry<String, PreconditionCounters> branch : other.branches.entrySet()) {
+                branches.computeIfAbsent(branch.getKey(), b -> new PreconditionCounters()).add(branch.getValue());
+            }
+        }
+    }
+
+    private static final class PreconditionCounters {
+        long checks;
+        long rejections;
+        long timeNanos;
+
+        void add(long nanos, boolean rejected) {
+            checks++;
+            timeNanos += nanos;
+            if (rejected) {
+                rejections++;
+            }
+        }
+
+        void add(PreconditionCounters other) {
+            checks += other.checks;
+            rejections += other.rejections;
+            timeNanos += other.timeNanos;
+        }
+
+        PreconditionSelectivity.Row row(String recipeName, @Nullable String branch) {
+            return new PreconditionSelectivity.Row(recipeName, branch, checks, rejections, timeNanos);
+        }
+    }
+
+    /**
+     * Measures a source file visit of a visitor. The source file only counts as passing the preconditions if the
+     * {@link MeasuredPrecondition} of the recipe, if it checks one, doesn't reject it.
+     */
+    private static final class MeasuredVisitor extends TreeVisitor<Tree, ExecutionContext> {
+        private final Node node;
+        private final TreeVisitor<?, ExecutionContext> visitor;
+        private final boolean edit;
+
+        MeasuredVisitor(Node node, TreeVisitor<?, ExecutionContext> visitor, boolean edit) {
+            this.node = node;
+            this.visitor = visitor;
+            this.edit = edit;
+        }
+
+        @Override
+        public boolean isAcceptable(SourceFile sourceFile, ExecutionContext ctx) {
+            return visitor.isAcceptable(sourceFile, ctx);
+        }
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+            return visit(tree, ctx, new Cursor(null, Cursor.ROOT_VALUE));
+        }
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx, Cursor parent) {
+            if (!(tree instanceof SourceFile)) {
+                return visitor.visit(tree, ctx, parent);
+            }
+            return node.time(() -> {
+                if (!edit) {
+                    return visitor.visit(tree, ctx, parent);
+                }
+                Counters counters = node.counters.get();
+                counters.sourceFilesVisited++;
+                long rejections = counters.precondition.rejections;
+                counters.checking = node.recipe.getName();
+                Tree after;
+                try {
+                    after = visitor.visit(tree, ctx, parent);
+                } finally {
+                    counters.checking = null;
+                }
+                if (counters.precondition.rejections == rejections) {
+                    counters.sourceFilesPassedPreconditions++;
+                    if (after != tree) {
+                        counters.sourceFilesChanged++;
+                    }
+                }
+                return after;
+            });
+        }
+    }
+
+    /**
+     * Counts the checks of a recipe's precondition, as built by {@link RecipeEvents#precondition}. Only the first
+     * check of a source file visit counts, and only while the visitor of that same recipe is measured, so that the
+     * preconditions of the recipes a recipe such as {@link FusedJavaRecipes} checks for itself are not taken for its
+     * own.
+     */
+    private static final class MeasuredPrecondition extends TreeVisitor<Tree, ExecutionContext> {
+        private final String recipeName;
+        private final TreeVisitor<?, ExecutionContext> precondition;
+
+        MeasuredPrecondition(String recipeName, TreeVisitor<?, ExecutionContext> precondition) {
+            this.recipeName = recipeName;
+            this.precondition = precondition;
+        }
+
+        @Override
+        public boolean isAcceptable(SourceFile sourceFile, ExecutionContext ctx) {
+            return precondition.isAcceptable(sourceFile, ctx);
+        }
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+            return visit(tree, ctx, new Cursor(null, Cursor.ROOT_VALUE));
+        }
+
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx, Cursor parent) {
+            Counters counters = CURRENT.get();
+            if (!(tree instanceof SourceFile) || counters == null || !recipeName.equals(counters.checking)) {
+                return precondition.visit(tree, ctx, parent);
+            }
+            counters.checking = null;
+            long start = System.nanoTime();
+            Tree after = precondition.visit(tree, ctx, parent);
+            counters.precondition.add(System.nanoTime() - start, after == tree);
+            return after;
+        }
+    }
+
+    private static final class MeasuredRecipe extends Recipe implements FileInterest {
+        private final Node node;
+
+        MeasuredRecipe(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public String getName() {
+            return node.recipe.getName();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return node.recipe.getDisplayName();
+        }
+
+        @Override
+        public String getInstanceName() {
+            return node.recipe.getInstanceName();
+        }
+
+        @Override
+        public String getDescription() {
+            return node.recipe.getDescription();
+        }
+
+        @Override
+        public Set<String> getTags() {
+            return node.recipe.getTags();
+        }
+
+        @Override
+        public @Nullable Duration getEstimatedEffortPerOccurrence() {
+            return node.recipe.getEstimatedEffortPerOccurrence();
+        }
+
+        @Override
+        protected RecipeDescriptor createRecipeDescriptor() {
+            return node.recipe.getDescriptor();
+        }
+
+        @Override
+        public List<DataTableDescriptor> getDataTableDescriptors() {
+            return node.dataTableDescriptors(super.getDataTableDescriptors());
+        }
+
+        @Override
+        public List<Contributor> getContributors() {
+            return node.recipe.getContributors();
+        }
+
+        @Override
+        public List<RecipeExample> getExamples() {
+            return node.recipe.getExamples();
+        }
+
+        @Override
+        public int maxCycles() {
+            return node.recipe.maxCycles();
+        }
+
+        @Override
+        public boolean causesAnotherCycle() {
+            return node.recipe.causesAnotherCycle();
+        }
+
+        @Override
+        public Validated<Object> validate(ExecutionContext ctx) {
+            return node.recipe.validate(ctx);
+        }
+
+        @Override
+        public Collection<String> fileInterest() {
+            return fileInterestOf(node.recipe);
+        }
+
+        @Override
+        public List<Recipe> getRecipeList() {
+            return node.recipeList;
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getVisitor() {
+            return new MeasuredVisitor(node, node.recipe.getVisitor(), true);
+        }
+    }
+
+    private static final class MeasuredScanningRecipe<T> extends ScanningRecipe<T> implements FileInterest {
+        private final Node node;
+        private final ScanningRecipe<T> recipe;
+
+        @SuppressWarnings("unchecked")
+        MeasuredScanningRecipe(Node node, ScanningRecipe<?> recipe) {
+            this.node = node;
+            this.recipe = (ScanningRecipe<T>) recipe;
+        }
+
+        @Override
+        public String getName() {
+            return recipe.getName();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return recipe.getDisplayName();
+        }
+
+        @Override
+        public String getInstanceName() {
+            return recipe.getInstanceName();
+        }
+
+        @Override
+        public String getDescription() {
+            return recipe.getDescription();
+        }
+
+        @Override
+        public Set<String> getTags() {
+            return recipe.getTags();
+        }
+
+        @Override
+        public @Nullable Duration getEstimatedEffortPerOccurrence() {
+            return recipe.getEstimatedEffortPerOccurrence();
+        }
+
+        @Override
+        protected RecipeDescriptor createRecipeDescriptor() {
+            return recipe.getDescriptor();
+        }
+
+        @Override
+        public List<DataTableDescriptor> getDataTableDescriptors() {
+            return node.dataTableDescriptors(super.getDataTableDescriptors());
+        }
+
+        @Override
+        public List<Contributor> getContributors() {
+            return recipe.getContributors();
+        }
+
+        @Override
+        public List<RecipeExample> getExamples() {
+            return recipe.getExamples();
+        }
+
+        @Override
+        public int maxCycles() {
+            return recipe.maxCycles();
+        }
+
+        @Override
+        public boolean causesAnotherCycle() {
+            return recipe.causesAnotherCycle();
+        }
+
+        @Override
+        public Validated<Object> validate(ExecutionContext ctx) {
+            return recipe.validate(ctx);
+        }
+
+        @Override
+        public Collection<String> fileInterest() {
+            return fileInterestOf(recipe);
+        }
+
+        @Override
+        public List<Recipe> getRecipeList() {
+            return node.recipeList;
+        }
+
+        @Override
+        public T getInitialValue(ExecutionContext ctx) {
+            return node.time(() -> recipe.getInitialValue(ctx));
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getScanner(T acc) {
+            return new MeasuredVisitor(node, recipe.getScanner(acc), false);
+        }
+
+        @Override
+        public Collection<? extends SourceFile> generate(T acc, Collection<SourceFile> generatedInThisCycle,
+                                                         ExecutionContext ctx) {
+            return node.time(() -> recipe.generate(acc, generatedInThisCycle, ctx));
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getVisitor(T acc) {
+            return new MeasuredVisitor(node, recipe.getVisitor(acc), true);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import lombok.Value;
+import org.openrewrite.Recipe;
+import org.openrewrite.ScanningRecipe;
+import org.openrewrite.config.DataTableDescriptor;
+import org.openrewrite.config.OptionDescriptor;
+import org.openrewrite.config.RecipeDescriptor;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An on-disk cache of what a recipe did to a file, so that a file seen before by the same recipe can skip parsing and
+ * visiting entirely when the recipe is run again, as in campaigns that rerun the same recipes over repositories that
+ * have barely changed. The data tables OpenRewrite keeps on every run, such as the source files that had results, only
+ * cover the files that were parsed.
+ * <p>
+ * Entries are keyed by a digest of the recipe and of the path and content of the file. The digest of a recipe covers
+ * the name and option values of it and every recipe it is composed of, the code they and the parsers run, which is the
+ * content of every jar or class directory their classes are loaded from, and the content of the classpath Java
+ * sources are parsed with. A new build of a recipe, or of OpenRewrite, therefore misses every entry of the build before
+ * it rather than replaying them, and those entries age out.
+ * <p>
+ * An entry records either that the recipe left the file unchanged, or the path and content it changed the file to.
+ * The cache is bounded in size by evicting the entries least recently used, by last modified time, which is refreshed
+ * on every hit. Entries are written to a temporary file and moved into place, so concurrent runs sharing a directory
+ * never read a partial entry.
+ * <p>
+ * Only recipes whose change to a file depends on that file alone can be cached. Recipes that scan the source set and
+ * recipes that produce data tables, whose rows would be lost on a hit, are never cached. Java sources are attributed
+ * against the types every other Java source declares, so what a recipe does to one may depend on all of them: their
+ * entries are keyed by the {@linkplain #contentKey(Map) content of the whole set} rather than of each file, and are
+ * only replayed all together, when no Java source was added, removed or changed.
+ */
+public final class ResultCache {
+
+    private static final String RUN_DATA_TABLES = "org.openrewrite.table.";
+    private static final int FORMAT = 1;
+    private static final byte UNCHANGED = 0;
+    private static final byte CHANGED = 1;
+    private static final byte DELETED = 2;
+
+    private final Path directory;
+    private final long maximumSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param directory   the directory holding the entries, which is created if it doesn't exist
+     * @param maximumSize the total size in bytes entries are trimmed to by {@link #trim()}
+     */
+    public ResultCache(Path directory, long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative, was " + maximumSize);
+        }
+        this.directory = directory;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * What a recipe did to a file.
+     */
+    @Value
+    public static class Entry {
+        public static final Entry UNCHANGED = new Entry(false, null, null);
+
+        boolean changed;
+
+        /**
+         * The path of the file after the recipe ran, or null if the recipe left it unchanged or deleted it.
+         */
+        @Nullable
+        Path afterSourcePath;
+
+        /**
+         * The content of the file after the recipe ran, or null if the recipe left it unchanged or deleted it.
+         */
+        @Nullable
+        byte[] after;
+
+        public static Entry changed(Path afterSourcePath, byte[] after) {
+            return new Entry(true, afterSourcePath, after);
+        }
+
+        public static Entry deleted() {
+            return new Entry(true, null, null);
+        }
+
+        public boolean isDeleted() {
+            return changed && afterSourcePath == null;
+        }
+    }
+
+    /**
+     * @return whether the changes of the recipe to each file depend on that file alone, and leave nothing else behind
+     */
+    public static boolean isCacheable(Recipe recipe) {
+        if (recipe instanceof ScanningRecipe) {
+            return false;
+        }
+        for (DataTableDescriptor dataTable : recipe.getDataTableDescriptors()) {
+            // Every recipe has the tables that describe the run itself, which only cover the files parsed
+            if (!dataTable.getName().startsWith(RUN_DATA_TABLES)) {
+                return false;
+            }
+        }
+        for (Recipe child : recipe.getRecipeList()) {
+            if (!isCacheable(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param recipe the recipe, with its options set
+     * @param code   classes besides those of the recipe whose code determines the result, such as the parsers
+     * @return a digest of the recipe's name, options and code, and those of the recipes it is composed of
+     */
+    public static String recipeKey(Recipe recipe, Class<?>... code) {
+        return recipeKey(recipe, Collections.emptyList(), code);
+    }
+
+    /**
+     * @param recipe    the recipe, with its options set
+     * @param classpath the classpath the Java sources the recipe runs on are parsed with
+     * @param code      classes besides those of the recipe whose code determines the result, such as the parsers
+     * @return a digest of the recipe's name, options and code, those of the recipes it is composed of, and the content
+     * of the classpath
+     */
+    public static String recipeKey(Recipe recipe, Collection<Path> classpath, Class<?>... code) {
+        StringBuilder key = new StringBuilder();
+        describe(recipe.getDescriptor(), key);
+        List<Class<?>> classes = new ArrayList<>(Arrays.asList(code));
+        addRecipeClasses(recipe, classes);
+        key.append('\n').append(Digests.code(classes));
+        key.append('\n').append(Digests.files(classpath));
+        return Digests.sha256(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void describe(RecipeDescriptor descriptor, StringBuilder key) {
+        key.append(descriptor.getName()).append('(');
+        for (OptionDescriptor option : descriptor.getOptions()) {
+            key.append(option.getName()).append('=').append(option.getValue()).append(';');
+        }
+        for (RecipeDescriptor child : descriptor.getRecipeList()) {
+            describe(child, key);
+        }
+        key.append(')');
+    }
+
+    private static void addRecipeClasses(Recipe recipe, List<Class<?>> classes) {
+        classes.add(recipe.getClass());
+        for (Recipe child : recipe.getRecipeList()) {
+            addRecipeClasses(child, classes);
+        }
+    }
+
+    /**
+     * @param recipeKey  the {@link #recipeKey} of the recipe
+     * @param sourcePath the path of the file, relative to the directory the recipe runs on
+     * @param content    the {@link #contentKey} of the file
+     * @return what the recipe did to the file when it last ran on the same content, or null if not known
+     */
+    public @Nullable Entry get(String recipeKey, Path sourcePath, String content) {
+        Path file = entryFile(recipeKey, sourcePath, content);
+        Entry entry;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            entry = read(in);
+        } catch (NoSuchFileException e) {
+            entry = null;
+        } catch (IOException e) {
+            // A corrupt or unreadable entry is as good as none, and is overwritten by the next put
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only affects the order of eviction, if the entry has just been evicted by another run
+        }
+        return entry;
+    }
+
+    /**
+     * @param recipeKey  the {@link #recipeKey} of the recipe
+     * @param sourcePath the path of the file, relative to the directory the recipe runs on
+     * @param content    the {@link #contentKey} of the file the recipe ran on
+     * @param entry      what the recipe did to the file
+     */
+    public void put(String recipeKey, Path sourcePath, String content, Entry entry) {
+        Path file = entryFile(recipeKey, sourcePath, content);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    write(entry, out);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Evict the entries least recently used until the entries take up no more than the maximum size.
+     *
+     * @return the number of entries evicted
+     */
+    public int trim() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> entries = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long[] size = new long[1];
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (file.getFileName().toString().endsWith(".entry")) {
+                        entries.add(file);
+                        attributes.put(file, attrs);
+                        size[0] += attrs.size();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            if (size[0] <= maximumSize) {
+                return 0;
+            }
+            entries.sort(Comparator.comparing((Path entry) -> attributes.get(entry).lastModifiedTime()).thenComparing(entry -> entry));
+            int evicted = 0;
+            for (Path entry : entries) {
+                if (size[0] <= maximumSize) {
+                    break;
+                }
+                Files.deleteIfExists(entry);
+                size[0] -= attributes.get(entry).size();
+                evicted++;
+            }
+            evictions.add(evicted);
+            return evicted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return a digest of the content of a file, which stands in for the content in keys
+     */
+    public static String contentKey(byte[] content) {
+        return Digests.sha256(content);
+    }
+
+    /**
+     * @param contentKeys the {@link #contentKey} of every file of a set, by path
+     * @return a digest of the paths and content of the whole set, which stands in for the content of any file of the
+     * set whose changes may depend on the others
+     */
+    public static String contentKey(Map<Path, String> contentKeys) {
+        Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<Path, String> contentKey : contentKeys.entrySet()) {
+            sorted.put(contentKey.getKey().toString().replace('\\', '/'), contentKey.getValue());
+        }
+        MessageDigest digest = Digests.sha256();
+        for (Map.Entry<String, String> contentKey : sorted.entrySet()) {
+            digest.update(contentKey.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(contentKey.getValue().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return Digests.hex(digest.digest());
+    }
+
+    private Path entryFile(String recipeKey, Path sourcePath, String content) {
+        MessageDigest digest = Digests.sha256();
+        digest.update(recipeKey.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        // Separators differ between operating systems, but the path a recipe sees doesn't
+        digest.update(sourcePath.toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(content.getBytes(StandardCharsets.UTF_8));
+        String key = Digests.hex(digest.digest());
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".entry");
+    }
+
+    private static void write(Entry entry, DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT);
+        if (!entry.isChanged()) {
+            out.writeByte(UNCHANGED);
+        } else if (entry.isDeleted()) {
+            out.writeByte(DELETED);
+        } else {
+            byte[] after = Objects.requireNonNull(entry.getAfter());
+            out.writeByte(CHANGED);
+            out.writeUTF(Objects.requireNonNull(entry.getAfterSourcePath()).toString().replace('\\', '/'));
+            out.writeInt(after.length);
+            out.write(after);
+        }
+    }
+
+    private static @Nullable Entry read(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT) {
+            return null;
+        }
+        switch (in.readByte()) {
+            case UNCHANGED:
+                return Entry.UNCHANGED;
+            case DELETED:
+                return Entry.deleted();
+            case CHANGED:
+                Path afterSourcePath = Paths.get(in.readUTF());
+                byte[] after = new byte[in.readInt()];
+                in.readFully(after);
+                return Entry.changed(afterSourcePath, after);
+            default:
+                return null;
+        }
+    }
+}
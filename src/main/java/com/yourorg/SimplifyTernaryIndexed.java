@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+
+import java.util.Collection;
+
+/**
+ * The rules of {@link SimplifyTernary}, applied by a single {@link TemplateRules} visitor rather than by one generated
+ * recipe per rule. Each ternary is only matched against the rules whose before template has the same shape, such as
+ * a {@code true} literal as its true part, so the cost of a pass grows with the ternaries in a source file rather than
+ * with the ternaries times the number of rules.
+ * <p>
+ * Where one rule's ternary contains another's, such as {@code (a ? true : false) ? false : true}, the outer ternary is
+ * rewritten first, whereas the generated recipes apply each rule to the whole source file in turn. The result after the
+ * next cycle is the same.
+ * <p>
+ * The rules are copies of the before and after templates of {@link SimplifyTernary}, written out again as template
+ * strings, because the compiled Refaster recipes don't keep their template source. The two are separate sources of
+ * truth: a rule changed in one must be changed in the other, and only {@code SimplifyTernaryIndexedTest}, which checks
+ * that both recipes make the same changes, notices when they drift apart.
+ */
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class SimplifyTernaryIndexed extends Recipe implements FileInterest {
+
+    // The before and after templates of the nested classes of SimplifyTernary, in the same order.
+    // SimplifyTernaryIndexedTest checks that both recipes make the same changes.
+    private static final TemplateRules RULES = new TemplateRules(
+            new TemplateRules.Rule("#{expr:any(boolean)} ? true : false", "#{expr:any(boolean)}"),
+            new TemplateRules.Rule("#{expr:any(boolean)} ? false : true", "!(#{expr:any(boolean)})")
+    );
+
+    @Override
+    public String getDisplayName() {
+        //language=markdown
+        return "Simplify ternary expressions in a single pass";
+    }
+
+    @Override
+    public String getDescription() {
+        //language=markdown
+        return "Simplifies various types of ternary expressions to improve code readability, matching each ternary " +
+               "only against the templates that could apply to it.";
+    }
+
+    @Override
+    public Collection<String> fileInterest() {
+        return JAVA_SOURCES;
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return RecipeEvents.visitor(this, RULES.getVisitor());
+    }
+}
@@ -15,8 +15,119 @@
  */
 package com.yourorg;
 
-// TODO - This is a placeholder for a Refaster recipe. Implement the recipe by adding before and after annotated methods.
-// The rule should replace calls to `String.length() == 0` with `String.isEmpty()`, as well as similar variants.
-// You're done when all the tests in `StringIsEmptyTest` passes.
-public class StringIsEmpty {
+import com.google.errorprone.refaster.Refaster;
+import com.google.errorprone.refaster.annotation.AfterTemplate;
+import com.google.errorprone.refaster.annotation.BeforeTemplate;
+import org.openrewrite.java.template.RecipeDescriptor;
+
+// Each rule generates a recipe with a single visit method, so comparisons of `String.length()` and calls to
+// `String.equals(Object)` are matched by separate rules. Every before template calls one of those two methods, so the
+// generated recipes are guarded by `UsesMethod` preconditions on them, and source files that call neither are never
+// visited.
+@SuppressWarnings({"SizeReplaceableByIsEmpty", "unused"})
+@RecipeDescriptor(
+        name = "Standardize empty String checks",
+        description = "Replace calls to `String.length() == 0` with `String.isEmpty()`."
+)
+public class StringIsEmpty { // This class should not extend Recipe; a generated class will extend Recipe instead
+
+    @RecipeDescriptor(
+            name = "Replace `String.length() == 0` with `String.isEmpty()`",
+            description = "Replace comparisons of `String.length()` that hold only for the empty String with `String.isEmpty()`."
+    )
+    public static class LengthIsZero {
+        @BeforeTemplate
+        boolean lengthEqualsZero(String s) {
+            return s.length() == 0;
+        }
+
+        @BeforeTemplate
+        boolean zeroEqualsLength(String s) {
+            return 0 == s.length();
+        }
+
+        @BeforeTemplate
+        boolean lengthLessThanOne(String s) {
+            return s.length() < 1;
+        }
+
+        @BeforeTemplate
+        boolean oneGreaterThanLength(String s) {
+            return 1 > s.length();
+        }
+
+        @BeforeTemplate
+        boolean lengthAtMostZero(String s) {
+            return s.length() <= 0;
+        }
+
+        @BeforeTemplate
+        boolean zeroAtLeastLength(String s) {
+            return 0 >= s.length();
+        }
+
+        @AfterTemplate
+        boolean after(String s) {
+            return s.isEmpty();
+        }
+    }
+
+    @RecipeDescriptor(
+            name = "Replace `String.length() != 0` with `!String.isEmpty()`",
+            description = "Replace comparisons of `String.length()` that hold for every non-empty String with `!String.isEmpty()`."
+    )
+    public static class LengthIsNotZero {
+        @BeforeTemplate
+        boolean lengthNotEqualsZero(String s) {
+            return s.length() != 0;
+        }
+
+        @BeforeTemplate
+        boolean zeroNotEqualsLength(String s) {
+            return 0 != s.length();
+        }
+
+        @BeforeTemplate
+        boolean lengthGreaterThanZero(String s) {
+            return s.length() > 0;
+        }
+
+        @BeforeTemplate
+        boolean zeroLessThanLength(String s) {
+            return 0 < s.length();
+        }
+
+        @BeforeTemplate
+        boolean lengthAtLeastOne(String s) {
+            return s.length() >= 1;
+        }
+
+        @BeforeTemplate
+        boolean oneAtMostLength(String s) {
+            return 1 <= s.length();
+        }
+
+        @AfterTemplate
+        boolean after(String s) {
+            return !s.isEmpty();
+        }
+    }
+
+    @RecipeDescriptor(
+            name = "Replace `String.equals(\"\")` with `String.isEmpty()`",
+            description = "Replace comparisons of a String with the empty String literal with `String.isEmpty()`."
+    )
+    public static class EqualsEmptyString {
+        @BeforeTemplate
+        boolean before(String s) {
+            return Refaster.anyOf(
+                    s.equals(""),
+                    "".equals(s));
+        }
+
+        @AfterTemplate
+        boolean after(String s) {
+            return s.isEmpty();
+        }
+    }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A discrimination tree over the shape of template patterns, which answers which of the templates it holds could
+ * possibly match a given tree without trying any of them.
+ * <p>
+ * A tree is described by a short path of tokens: the kind of its root, which is its class followed by its operator,
+ * literal value or method name and arity where it has one, then the kind of each of its operands. The tokens are the
+ * class, operator, value and name objects the tree already holds, so a lookup builds no keys, and a tree of a class no
+ * pattern has is dismissed with a single probe. Patterns are described the same way, except that template parameters,
+ * and operands whose shape depends on imports and types rather than syntax such as names, are wildcards. Patterns are
+ * stored in a trie of these paths, so a lookup follows at most an exact and a wildcard edge per token, and every
+ * pattern it returns shares the tree's shape as far as the path describes it. Candidates still need to be confirmed
+ * with a real match, for example with
+ * {@link org.openrewrite.java.JavaTemplate#matcher(org.openrewrite.Cursor)}.
+ *
+ * @param <T> the templates, or whatever identifies them
+ */
+public final class TemplateIndex<T> {
+
+    private final Node root = new Node();
+    private final List<Entry<T>> anyTree = new ArrayList<>();
+    private int size;
+
+    /**
+     * @param pattern     the tree of a template, such as a Refaster before template parsed with identifiers in place
+     *                    of its parameters
+     * @param isParameter identifies the parts of the pattern that stand for any tree
+     * @param template    the value returned by {@link #candidates} for trees of the pattern's shape
+     */
+    public void add(J pattern, Predicate<J> isParameter, T template) {
+        Entry<T> entry = new Entry<>(size++, template);
+        if (isParameter.test(pattern) || !isSyntactic(pattern)) {
+            anyTree.add(entry);
+            return;
+        }
+        Node node = root.kind(pattern);
+        for (J operand : operands(pattern)) {
+            node = isParameter.test(operand) || !isSyntactic(operand) ? node.wildcard() : node.kind(operand);
+        }
+        node.entries.add(entry);
+    }
+
+    /**
+     * @return the number of templates in this index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param tree a tree that may match some of the templates
+     * @return the templates whose pattern has the same shape as the tree, in the order they were added
+     */
+    public List<T> candidates(J tree) {
+        Node node = root.findKind(tree);
+        if (node == null && anyTree.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Entry<T>> found = new ArrayList<>(anyTree);
+        if (node != null) {
+            collect(node, operands(tree), 0, found);
+        }
+        if (found.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (found.size() > 1) {
+            found.sort(Comparator.comparingInt(e -> e.order));
+        }
+        List<T> candidates = new ArrayList<>(found.size());
+        for (Entry<T> entry : found) {
+            candidates.add(entry.template);
+        }
+        return candidates;
+    }
+
+    private void collect(Node node, List<J> operands, int i, List<Entry<T>> found) {
+        if (i == operands.size()) {
+            found.addAll(node.entries);
+            return;
+        }
+        Node exact = node.findKind(operands.get(i));
+        if (exact != null) {
+            collect(exact, operands, i + 1, found);
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, operands, i + 1, found);
+        }
+    }
+
+    /**
+     * The token that tells trees of the same class apart, if their class has one.
+     */
+    private static @Nullable Object discriminator(J tree) {
+        if (tree instanceof J.Literal) {
+            // By value rather than source, so that 0 and 0x0 share a token
+            return ((J.Literal) tree).getValue();
+        } else if (tree instanceof J.Binary) {
+            return ((J.Binary) tree).getOperator();
+        } else if (tree instanceof J.Unary) {
+            return ((J.Unary) tree).getOperator();
+        } else if (tree instanceof J.MethodInvocation) {
+            return ((J.MethodInvocation) tree).getSimpleName();
+        }
+        return null;
+    }
+
+    /**
+     * The operands that follow a tree's own token in its path. Trees of other kinds are described by their kind only.
+     */
+    static List<J> operands(J tree) {
+        if (tree instanceof J.Ternary) {
+            J.Ternary ternary = (J.Ternary) tree;
+            return Arrays.asList(ternary.getCondition(), ternary.getTruePart(), ternary.getFalsePart());
+        } else if (tree instanceof J.Binary) {
+            J.Binary binary = (J.Binary) tree;
+            return Arrays.asList(binary.getLeft(), binary.getRight());
+        } else if (tree instanceof J.Unary) {
+            return Collections.singletonList(((J.Unary) tree).getExpression());
+        } else if (tree instanceof J.Parentheses) {
+            return Collections.singletonList(((J.Parentheses<?>) tree).getTree());
+        } else if (tree instanceof J.MethodInvocation) {
+            // The select is left out, as a template may call a static method on a type that the code imports statically
+            return arguments((J.MethodInvocation) tree);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Names and field accesses may be written qualified or not, and are matched by type rather than by name, so the
+     * pattern's spelling of them says nothing about the spelling of a matching tree.
+     */
+    private static boolean isSyntactic(J operand) {
+        return !(operand instanceof J.Identifier) && !(operand instanceof J.FieldAccess);
+    }
+
+    private static int arity(J.MethodInvocation method) {
+        List<Expression> arguments = method.getArguments();
+        return arguments.size() == 1 && arguments.get(0) instanceof J.Empty ? 0 : arguments.size();
+    }
+
+    private static List<J> arguments(J.MethodInvocation method) {
+        List<Expression> arguments = method.getArguments();
+        if (arguments.size() == 1 && arguments.get(0) instanceof J.Empty) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(arguments);
+    }
+
+    private static final class Entry<T> {
+        final int order;
+        final T template;
+
+        Entry(int order, T template) {
+            this.order = order;
+            this.template = template;
+        }
+    }
+
+    private final class Node {
+        /**
+         * By class for the kinds of trees, by their discriminator or arity below that, and by the kind of the next
+         * operand below the kind of a tree.
+         */
+        @Nullable
+        Map<Object, Node> children;
+
+        @Nullable
+        Node wildcard;
+
+        final List<Entry<T>> entries = new ArrayList<>(1);
+
+        Node kind(J tree) {
+            Node node = child(tree.getClass());
+            if (tree instanceof J.Literal || tree instanceof J.Binary || tree instanceof J.Unary) {
+                node = node.child(discriminator(tree));
+            } else if (tree instanceof J.MethodInvocation) {
+                node = node.child(discriminator(tree)).child(arity((J.MethodInvocation) tree));
+            }
+            return node;
+        }
+
+        @Nullable Node findKind(J tree) {
+            Node node = find(tree.getClass());
+            if (node == null) {
+                return null;
+            }
+            if (tree instanceof J.Literal || tree instanceof J.Binary || tree instanceof J.Unary) {
+                return node.find(discriminator(tree));
+            } else if (tree instanceof J.MethodInvocation) {
+                node = node.find(discriminator(tree));
+                return node == null ? null : node.find(arity((J.MethodInvocation) tree));
+            }
+            return node;
+        }
+
+        Node child(@Nullable Object token) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(token, k -> new Node());
+        }
+
+        @Nullable Node find(@Nullable Object token) {
+            return children == null ? null : children.get(token);
+        }
+
+        Node wildcard() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.template.internal.AbstractRefasterJavaVisitor;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Statement;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.openrewrite.java.template.internal.AbstractRefasterJavaVisitor.EmbeddingOption.*;
+
+/**
+ * An ordered set of before and after expression templates, in the style of the recipes generated from Refaster
+ * templates, that are all applied in a single traversal.
+ * <p>
+ * Rather than trying every before template against every tree of the right kind, the before templates are parsed
+ * once into patterns and held in a {@link TemplateIndex}, so each tree is only matched against the templates whose
+ * pattern has the same shape. When several rules match a tree, the first one wins. As with the generated recipes,
+ * the trees a rule produces are not visited again until the next cycle, boolean expressions in them are simplified,
+ * and the parentheses of after templates are removed where they turn out to be unnecessary.
+ */
+public final class TemplateRules {
+
+    private static final Pattern PARAMETER = Pattern.compile("#\\{([^}]*)}");
+
+    private final List<Rule> rules;
+
+    @Nullable
+    private volatile TemplateIndex<IndexedRule> index;
+
+    public TemplateRules(Rule... rules) {
+        this(Arrays.asList(rules));
+    }
+
+    public TemplateRules(List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @param tree a tree that may match some of the before templates
+     * @return the rules whose before template has the same shape as the tree, in the order of this set
+     */
+    public List<Rule> candidates(J tree) {
+        return index().candidates(tree).stream().map(r -> r.rule).collect(Collectors.toList());
+    }
+
+    /**
+     * @return a visitor that replaces every tree matching a before template with the rule's after template
+     */
+    public JavaVisitor<ExecutionContext> getVisitor() {
+        TemplateIndex<IndexedRule> index = index();
+        return new AbstractRefasterJavaVisitor() {
+            @Override
+            public J preVisit(J tree, ExecutionContext ctx) {
+                if (!(tree instanceof Expression)) {
+                    return tree;
+                }
+                for (IndexedRule candidate : index.candidates(tree)) {
+                    JavaTemplate.Matcher matcher = JavaTemplateCache.shared().get(candidate.rule.getBefore())
+                            .matcher(getCursor());
+                    if (matcher.find()) {
+                        stopAfterPreVisit();
+                        return embed(
+                                JavaTemplateCache.apply(JavaTemplateCache.shared().get(candidate.rule.getAfter()),
+                                        getCursor(), ((Expression) tree).getCoordinates().replace(),
+                                        candidate.afterParameters(matcher)),
+                                getCursor(),
+                                ctx,
+                                candidate.embeddingOptions
+                        );
+                    }
+                }
+                return tree;
+            }
+        };
+    }
+
+    private TemplateIndex<IndexedRule> index() {
+        TemplateIndex<IndexedRule> index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = buildIndex();
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Parse every before template into a pattern, as the returned expression of a method that declares the template's
+     * parameters as its own, all in one compilation unit so that the parser only runs once.
+     */
+    private TemplateIndex<IndexedRule> buildIndex() {
+        List<Map<String, String>> parameters = new ArrayList<>(rules.size());
+        StringBuilder stub = new StringBuilder("class __TemplateRules {\n");
+        for (int i = 0; i < rules.size(); i++) {
+            Map<String, String> types = new LinkedHashMap<>();
+            String before = substituteParameters(rules.get(i).getBefore(), types);
+            parameters.add(types);
+            stub.append("    Object __rule").append(i).append('(')
+                    .append(types.entrySet().stream()
+                            .map(p -> p.getValue() + ' ' + p.getKey())
+                            .collect(Collectors.joining(", ")))
+                    .append(") {\n        return ").append(before).append(";\n    }\n");
+        }
+        stub.append("}\n");
+
+        SourceFile parsed = JavaParser.fromJavaVersion().build()
+                .parse(new InMemoryExecutionContext(), stub.toString())
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unable to parse the before templates:\n" + stub));
+        if (!(parsed instanceof J.CompilationUnit)) {
+            throw new IllegalArgumentException("Unable to parse the before templates:\n" + stub);
+        }
+
+        TemplateIndex<IndexedRule> index = new TemplateIndex<>();
+        List<Statement> methods = ((J.CompilationUnit) parsed).getClasses().get(0).getBody().getStatements();
+        for (int i = 0; i < rules.size(); i++) {
+            J.MethodDeclaration method = (J.MethodDeclaration) methods.get(i);
+            Expression pattern = ((J.Return) method.getBody().getStatements().get(0)).getExpression();
+            Set<String> names = parameters.get(i).keySet();
+            index.add(pattern,
+                    p -> p instanceof J.Identifier && names.contains(((J.Identifier) p).getSimpleName()),
+                    new IndexedRule(rules.get(i), new ArrayList<>(names)));
+        }
+        return index;
+    }
+
+    /**
+     * Replace the parameters of a template with identifiers, recording the type of each distinct parameter.
+     * Unnamed parameters are given a name, and parameters without a type are declared as {@code Object}.
+     */
+    private static String substituteParameters(String template, Map<String, String> types) {
+        Matcher parameter = PARAMETER.matcher(template);
+        StringBuffer substituted = new StringBuffer();
+        while (parameter.find()) {
+            String name = parameterName(parameter.group(1), types.size());
+            String type = parameterType(parameter.group(1));
+            if (type != null || !types.containsKey(name)) {
+                types.put(name, type == null ? "Object" : type);
+            }
+            parameter.appendReplacement(substituted, Matcher.quoteReplacement(name));
+        }
+        parameter.appendTail(substituted);
+        return substituted.toString();
+    }
+
+    private static String parameterName(String parameter, int position) {
+        int colon = parameter.indexOf(':');
+        String name = colon >= 0 ? parameter.substring(0, colon).trim() :
+                parameter.contains("(") ? "" : parameter.trim();
+        return name.isEmpty() ? "__p" + position : name;
+    }
+
+    private static @Nullable String parameterType(String parameter) {
+        String matcher = parameter.substring(parameter.indexOf(':') + 1).trim();
+        if (matcher.startsWith("any(") && matcher.endsWith(")") && matcher.length() > "any()".length()) {
+            return matcher.substring("any(".length(), matcher.length() - 1).trim();
+        }
+        return null;
+    }
+
+    @Value
+    public static class Rule {
+        /**
+         * An expression template, whose parameters are referred to by name in {@link #getAfter()}.
+         */
+        String before;
+
+        /**
+         * The template to replace a match of {@link #getBefore()} with.
+         */
+        String after;
+    }
+
+    private static final class IndexedRule {
+        final Rule rule;
+
+        /**
+         * The position among the before template's parameters of each parameter of the after template.
+         */
+        final int[] afterParameters;
+
+        final AbstractRefasterJavaVisitor.EmbeddingOption[] embeddingOptions;
+
+        IndexedRule(Rule rule, List<String> beforeParameters) {
+            this.rule = rule;
+            this.embeddingOptions = hasParentheses(rule.getAfter()) ?
+                    new AbstractRefasterJavaVisitor.EmbeddingOption[]{REMOVE_PARENS, SHORTEN_NAMES, SIMPLIFY_BOOLEANS} :
+                    new AbstractRefasterJavaVisitor.EmbeddingOption[]{SHORTEN_NAMES, SIMPLIFY_BOOLEANS};
+            Matcher parameter = PARAMETER.matcher(rule.getAfter());
+            List<Integer> positions = new ArrayList<>();
+            while (parameter.find()) {
+                String name = parameterName(parameter.group(1), -1);
+                int position = beforeParameters.indexOf(name);
+                if (position < 0) {
+                    throw new IllegalArgumentException("The after template " + rule.getAfter() + " refers to parameter " +
+                                                       name + ", which its before template does not declare");
+                }
+                positions.add(position);
+            }
+            this.afterParameters = positions.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Whether a template parenthesizes an expression, rather than only calling methods, as the generated recipes
+         * only remove parentheses after applying such templates.
+         */
+        private static boolean hasParentheses(String template) {
+            char previous = '(';
+            for (int i = 0; i < template.length(); i++) {
+                char c = template.charAt(i);
+                if (c == '(' && !Character.isJavaIdentifierPart(previous) && previous != '>') {
+                    return true;
+                }
+                if (!Character.isWhitespace(c)) {
+                    previous = c;
+                }
+            }
+            return false;
+        }
+
+        Object[] afterParameters(JavaTemplate.Matcher matcher) {
+            Object[] parameters = new Object[afterParameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = matcher.parameter(afterParameters[i]);
+            }
+            return parameters;
+        }
+    }
+}
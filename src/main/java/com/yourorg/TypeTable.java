@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stubs of the types of a library that templates are compiled against, bundled in this jar as a resource so that the
+ * library doesn't have to be found on the runtime classpath, nor the runtime classpath scanned for it.
+ * <p>
+ * The table of an artifact such as {@code assertj-core} is the resource {@code META-INF/rewrite/assertj-core.types.gz},
+ * written at build time by {@code TypeTableGenerator}. It holds class files with the signatures of the classes and
+ * methods the templates use, and methods that throw, in a gzipped stream of a header followed by the internal name,
+ * length and bytes of each class. A table is read the first time it is asked for and kept for the life of the JVM.
+ */
+final class TypeTable {
+
+    static final int MAGIC = 0x54595442;
+    static final int FORMAT = 1;
+
+    private static final Map<String, TypeTable> TABLES = new ConcurrentHashMap<>();
+    private static final TypeTable NONE = new TypeTable(Collections.emptyMap());
+
+    private final Map<String, byte[]> classes;
+
+    private TypeTable(Map<String, byte[]> classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * @param artifact an artifact name, as accepted by {@link org.openrewrite.java.JavaParser.Builder#classpath(String...)}
+     * @return the stubs bundled for the artifact, which are empty if there are none
+     */
+    static TypeTable of(String artifact) {
+        return TABLES.computeIfAbsent(artifact, TypeTable::load);
+    }
+
+    static String resource(String artifact) {
+        return "META-INF/rewrite/" + artifact + ".types.gz";
+    }
+
+    private static TypeTable load(String artifact) {
+        InputStream resource = TypeTable.class.getClassLoader().getResourceAsStream(resource(artifact));
+        if (resource == null) {
+            return NONE;
+        }
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(resource))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IllegalStateException("The type table of " + artifact + " has an unknown format");
+            }
+            int count = in.readInt();
+            Map<String, byte[]> classes = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes.put(name, bytes);
+            }
+            return new TypeTable(Collections.unmodifiableMap(classes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the type table of " + artifact, e);
+        }
+    }
+
+    boolean isEmpty() {
+        return classes.isEmpty();
+    }
+
+    /**
+     * @return the internal names of the classes in this table, such as {@code org/assertj/core/api/Assertions}
+     */
+    Set<String> getClassNames() {
+        return classes.keySet();
+    }
+
+    /**
+     * @return the class files, as accepted by {@link org.openrewrite.java.JavaParser.Builder#classpath(byte[]...)}
+     */
+    Collection<byte[]> getClasses() {
+        return classes.values();
+    }
+}
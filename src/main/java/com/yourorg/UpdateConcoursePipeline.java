@@ -15,16 +15,35 @@
  */
 package com.yourorg;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
-import org.openrewrite.yaml.ChangePropertyValue;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class UpdateConcoursePipeline extends Recipe {
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+public class UpdateConcoursePipeline extends Recipe implements FileInterest {
+    private static final List<String> PIPELINES = Arrays.asList("ci/pipeline*.yml", "ci/pipeline*.yaml");
+    private static final FileInterestMatcher PIPELINES_MATCHER = FileInterestMatcher.of(PIPELINES);
+    private static final Comparator<Map.Entry<String, String>> URI_PRECEDENCE = Comparator
+            .<Map.Entry<String, String>>comparingInt(e -> wildcards(e.getKey()) - e.getKey().length())
+            .thenComparingInt(e -> wildcards(e.getKey()))
+            .thenComparing(Map.Entry::getKey);
+
     @Override
     public String getDisplayName() {
         return "Update concourse pipeline";
@@ -35,17 +54,52 @@ public class UpdateConcoursePipeline extends Recipe {
         return "Update the tag filter on concourse pipelines.";
     }
 
+    @Override
+    public Collection<String> fileInterest() {
+        return PIPELINES;
+    }
+
     @Option(displayName = "New tag filter version",
-            description = "tag filter version.",
-            example = "8.2.0")
+            description = "tag filter version, for git resources not matched by any of the `versions`.",
+            example = "8.2.0",
+            required = false)
+    @Nullable
     String version;
 
+    @Option(displayName = "New tag filter versions",
+            description = "tag filter versions by git URI. URIs may contain `*` to match any characters. When " +
+                          "several URI patterns match, the most specific applies: the one with the most literal " +
+                          "characters, then the fewest `*`, then the first in lexicographic order.",
+            example = "git@github.com:Example/*.git: 8.2.0",
+            required = false)
+    @Nullable
+    Map<String, String> versions;
+
+    public UpdateConcoursePipeline(String version) {
+        this(version, null);
+    }
+
+    @Override
+    public Validated<Object> validate() {
+        return super.validate().and(Validated.test("version", "Either a version or versions by URI are required",
+                version, v -> v != null || (versions != null && !versions.isEmpty())));
+    }
+
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(
-                Preconditions.or(
-                        new FindSourceFiles("ci/pipeline*.yml").getVisitor(),
-                        new FindSourceFiles("ci/pipeline*.yaml").getVisitor()),
+        List<Pattern> uriPatterns = new ArrayList<>();
+        List<String> uriVersions = new ArrayList<>();
+        if (versions != null) {
+            // Try the most specific patterns first, so that overlaps don't depend on the order of the map
+            List<Map.Entry<String, String>> byPrecedence = new ArrayList<>(versions.entrySet());
+            byPrecedence.sort(URI_PRECEDENCE);
+            for (Map.Entry<String, String> uriVersion : byPrecedence) {
+                uriPatterns.add(uriPattern(uriVersion.getKey()));
+                uriVersions.add(uriVersion.getValue());
+            }
+        }
+        return RecipeEvents.check(this,
+                PIPELINES_MATCHER.precondition(),
                 new YamlIsoVisitor<ExecutionContext>() {
 
                     @Override
@@ -76,17 +130,50 @@ public class UpdateConcoursePipeline extends Recipe {
                             if (!uriValue.getValue().contains(".git")) {
                                 return e;
                             }
+                            String newVersion = versionFor(uriValue.getValue());
                             Yaml.Scalar tagFilterValue = (Yaml.Scalar) tagFilter.getValue();
-                            if (version.equals(tagFilterValue.getValue())) {
+                            if (newVersion == null || newVersion.equals(tagFilterValue.getValue())) {
                                 return e;
                             }
-                            return (Yaml.Mapping.Entry) new ChangePropertyValue("source.tag_filter", version, null, null, null, null)
-                                    .getVisitor()
-                                    .visitNonNull(e, ctx);
+                            // Replace the scalar in place, rather than searching the entry again for the property
+                            Yaml.Mapping.Entry oldTagFilter = tagFilter;
+                            return e.withValue(mapping.withEntries(ListUtils.map(mapping.getEntries(), it -> it == oldTagFilter ?
+                                    it.withValue(tagFilterValue.withValue(newVersion)) : it)));
                         }
                         return e;
                     }
+
+                    private @Nullable String versionFor(String uri) {
+                        for (int i = 0; i < uriPatterns.size(); i++) {
+                            if (uriPatterns.get(i).matcher(uri).matches()) {
+                                return uriVersions.get(i);
+                            }
+                        }
+                        return version;
+                    }
                 }
         );
     }
+
+    private static int wildcards(String uri) {
+        int wildcards = 0;
+        for (int i = 0; i < uri.length(); i++) {
+            if (uri.charAt(i) == '*') {
+                wildcards++;
+            }
+        }
+        return wildcards;
+    }
+
+    private static Pattern uriPattern(String uri) {
+        StringBuilder pattern = new StringBuilder();
+        String[] literals = uri.split("\\*", -1);
+        for (int i = 0; i < literals.length; i++) {
+            if (i > 0) {
+                pattern.append(".*");
+            }
+            pattern.append(Pattern.quote(literals[i]));
+        }
+        return Pattern.compile(pattern.toString());
+    }
 }
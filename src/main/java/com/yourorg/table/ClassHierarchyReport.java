@@ -18,16 +18,87 @@ package com.yourorg.table;
 import lombok.Value;
 import org.openrewrite.Column;
 import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class ClassHierarchyReport extends DataTable<ClassHierarchyReport.Row> {
 
+    /**
+     * When set as a system property or execution context message, rows are streamed to a
+     * {@link ClassHierarchyReportSink} in this directory instead of being held in memory as data table rows.
+     */
+    public static final String SINK_DIRECTORY = "com.yourorg.classHierarchyReport.directory";
+
+    private static final String SINK = ClassHierarchyReportSink.class.getName();
+
     public ClassHierarchyReport(Recipe recipe) {
         super(recipe,
                 "Class hierarchy report",
                 "Records inheritance relationships between classes.");
     }
 
+    @Override
+    public void insertRow(ExecutionContext ctx, Row row) {
+        ClassHierarchyReportSink sink = sink(ctx);
+        if (sink == null) {
+            super.insertRow(ctx, row);
+        } else if (isEnabled() && ctx.getCycle() <= getMaxCycle()) {
+            sink.write(row);
+        }
+    }
+
+    /**
+     * @return the sink rows are streamed to in this run, or null when rows are inserted into the data table as usual
+     */
+    public static @Nullable ClassHierarchyReportSink sink(ExecutionContext ctx) {
+        ClassHierarchyReportSink sink = ctx.getMessage(SINK);
+        if (sink != null) {
+            return sink;
+        }
+        Object directory = ctx.getMessage(SINK_DIRECTORY, System.getProperty(SINK_DIRECTORY));
+        if (directory == null) {
+            return null;
+        }
+        synchronized (ClassHierarchyReport.class) {
+            sink = ctx.getMessage(SINK);
+            if (sink == null) {
+                try {
+                    Path dir = Files.createDirectories(Paths.get(directory.toString()));
+                    sink = new ClassHierarchyReportSink(Files.createTempFile(dir, "class-hierarchy-", ".rows"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                ctx.putMessage(SINK, sink);
+            }
+        }
+        return sink;
+    }
+
+    /**
+     * Close the sink rows were streamed to in this run, if any, so that every row is on disk, and forget it, so that
+     * the next run with the same execution context streams to a file of its own.
+     *
+     * @return the file the rows of this run were streamed to, or null when they weren't
+     */
+    public static @Nullable Path closeSink(ExecutionContext ctx) {
+        ClassHierarchyReportSink sink;
+        synchronized (ClassHierarchyReport.class) {
+            sink = ctx.pollMessage(SINK);
+        }
+        if (sink == null) {
+            return null;
+        }
+        sink.close();
+        return sink.getFile();
+    }
+
     @Value
     public static class Row {
         @Column(displayName = "Class name",
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg.table;
+
+import org.openrewrite.Column;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes {@link ClassHierarchyReport.Row}s to a columnar file on local disk in batches, so that the rows of a large
+ * source set don't have to be held on the heap until the end of a run.
+ * <p>
+ * Each batch is laid out as its byte length, its row count, a dictionary of the class names used in the batch, and
+ * then one column each of class name ids, relationships as a byte, and superclass name ids. As every batch carries its
+ * own dictionary, neither writing nor reading ever holds more than one batch in memory, however many classes there
+ * are. Batches are memory-mapped one at a time to be read back.
+ */
+public final class ClassHierarchyReportSink implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    private static final ClassHierarchyReport.Relationship[] RELATIONSHIPS = ClassHierarchyReport.Relationship.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int batchSize;
+
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+    private final int[] classNames;
+    private final byte[] relationships;
+    private final int[] superClassNames;
+    private int batchRows;
+    private long rowCount;
+
+    public ClassHierarchyReportSink(Path file) {
+        this(file, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param file      the file to write, which is truncated if it exists
+     * @param batchSize the number of rows held in memory before they are written to disk
+     */
+    public ClassHierarchyReportSink(Path file, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive, was " + batchSize);
+        }
+        this.file = file;
+        this.batchSize = batchSize;
+        this.classNames = new int[batchSize];
+        this.relationships = new byte[batchSize];
+        this.superClassNames = new int[batchSize];
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of rows written so far, including those not yet flushed to disk
+     */
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    public synchronized void write(ClassHierarchyReport.Row row) {
+        classNames[batchRows] = encode(row.getClassName());
+        relationships[batchRows] = (byte) row.getRelationship().ordinal();
+        superClassNames[batchRows] = encode(row.getSuperClassName());
+        batchRows++;
+        rowCount++;
+        if (batchRows == batchSize) {
+            flush();
+        }
+    }
+
+    private int encode(String name) {
+        Integer id = dictionary.get(name);
+        if (id == null) {
+            id = dictionary.size();
+            dictionary.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Write the rows held in memory to disk as a batch.
+     */
+    public synchronized void flush() {
+        if (batchRows == 0) {
+            return;
+        }
+        List<byte[]> names = new ArrayList<>(dictionary.size());
+        int length = 4 + 4 + batchRows * 9;
+        for (String name : dictionary.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            length += 4 + bytes.length;
+        }
+
+        byte[] bytes = new byte[4 + length];
+        ByteBuffer batch = ByteBuffer.wrap(bytes);
+        batch.putInt(length);
+        batch.putInt(batchRows);
+        batch.putInt(names.size());
+        for (byte[] name : names) {
+            batch.putInt(name.length);
+            batch.put(name);
+        }
+        for (int i = 0; i < batchRows; i++) {
+            batch.putInt(classNames[i]);
+        }
+        batch.put(relationships, 0, batchRows);
+        for (int i = 0; i < batchRows; i++) {
+            batch.putInt(superClassNames[i]);
+        }
+        try {
+            ByteBuffer out = ByteBuffer.wrap(bytes);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dictionary.clear();
+        batchRows = 0;
+    }
+
+    /**
+     * Flush any rows held in memory and read back every row written so far, mapping one batch into memory at a time.
+     */
+    public Iterator<ClassHierarchyReport.Row> rows() {
+        flush();
+        return read(file);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param file a file written by a {@link ClassHierarchyReportSink}
+     * @return the rows in the file, in the order they were written
+     */
+    public static Iterator<ClassHierarchyReport.Row> read(Path file) {
+        return new Iterator<ClassHierarchyReport.Row>() {
+            long position;
+            ByteBuffer batch;
+            String[] names;
+            int rows;
+            int row;
+            int relationshipsOffset;
+
+            @Override
+            public boolean hasNext() {
+                while (batch == null || row == rows) {
+                    if (!nextBatch()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public ClassHierarchyReport.Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int classNamesOffset = relationshipsOffset - rows * 4;
+                int superClassNamesOffset = relationshipsOffset + rows;
+                ClassHierarchyReport.Row next = new ClassHierarchyReport.Row(
+                        names[batch.getInt(classNamesOffset + row * 4)],
+                        RELATIONSHIPS[batch.get(relationshipsOffset + row)],
+                        names[batch.getInt(superClassNamesOffset + row * 4)]);
+                row++;
+                return next;
+            }
+
+            private boolean nextBatch() {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    if (position + 4 > channel.size()) {
+                        return false;
+                    }
+                    ByteBuffer length = ByteBuffer.allocate(4);
+                    while (length.hasRemaining()) {
+                        channel.read(length, position + length.position());
+                    }
+                    int batchLength = length.getInt(0);
+                    // A mapping stays valid once the channel is closed
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position + 4, batchLength);
+                    position += 4 + batchLength;
+
+                    rows = mapped.getInt();
+                    names = new String[mapped.getInt()];
+                    for (int i = 0; i < names.length; i++) {
+                        byte[] name = new byte[mapped.getInt()];
+                        mapped.get(name);
+                        names[i] = new String(name, StandardCharsets.UTF_8);
+                    }
+                    relationshipsOffset = mapped.position() + rows * 4;
+                    batch = mapped;
+                    row = 0;
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Stream the rows of a file written by a {@link ClassHierarchyReportSink} to CSV, with a header row of the
+     * display names of {@link ClassHierarchyReport.Row}'s columns.
+     */
+    public static void exportCsv(Path file, Writer csv) {
+        try {
+            boolean first = true;
+            for (Field field : ClassHierarchyReport.Row.class.getDeclaredFields()) {
+                Column column = field.getAnnotation(Column.class);
+                if (column != null) {
+                    if (!first) {
+                        csv.write(',');
+                    }
+                    csv.write(csvValue(column.displayName()));
+                    first = false;
+                }
+            }
+            csv.write('\n');
+            for (Iterator<ClassHierarchyReport.Row> rows = read(file); rows.hasNext(); ) {
+                ClassHierarchyReport.Row row = rows.next();
+                csv.write(csvValue(row.getClassName()));
+                csv.write(',');
+                csv.write(row.getRelationship().name());
+                csv.write(',');
+                csv.write(csvValue(row.getSuperClassName()));
+                csv.write('\n');
+            }
+            csv.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
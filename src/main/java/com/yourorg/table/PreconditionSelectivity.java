@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+import org.openrewrite.internal.lang.Nullable;
+
+public class PreconditionSelectivity extends DataTable<PreconditionSelectivity.Row> {
+
+    public PreconditionSelectivity(Recipe recipe) {
+        super(recipe,
+                "Precondition selectivity",
+                "How often the preconditions of each recipe of a run rejected a source file, and what checking them cost.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Recipe name",
+                description = "The fully qualified name of the recipe.")
+        String recipeName;
+
+        @Column(displayName = "Branch",
+                description = "The name of a branch of an adaptive `or` or `and` precondition the recipe checks, or " +
+                              "empty for the precondition of the recipe as a whole.")
+        @Nullable
+        String branch;
+
+        @Column(displayName = "Checks",
+                description = "The number of source files the precondition was checked against.")
+        long checks;
+
+        @Column(displayName = "Rejections",
+                description = "The number of source files checked that didn't meet the precondition.")
+        long rejections;
+
+        @Column(displayName = "Time (ns)",
+                description = "The elapsed time spent checking the precondition, in nanoseconds.")
+        long timeNanos;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+import org.openrewrite.internal.lang.Nullable;
+
+public class RecipeExecutionMetrics extends DataTable<RecipeExecutionMetrics.Row> {
+
+    public RecipeExecutionMetrics(Recipe recipe) {
+        super(recipe,
+                "Recipe execution metrics",
+                "The time each recipe of a run took and the work it did, over all cycles of the run.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Recipe name",
+                description = "The fully qualified name of the recipe.")
+        String recipeName;
+
+        @Column(displayName = "Parent recipe name",
+                description = "The fully qualified name of the recipe whose recipe list the recipe is in, if any.")
+        @Nullable
+        String parentRecipeName;
+
+        @Column(displayName = "Wall time (ns)",
+                description = "The elapsed time spent in the recipe's scanner, generator and visitor, in nanoseconds.")
+        long wallTimeNanos;
+
+        @Column(displayName = "CPU time (ns)",
+                description = "The CPU time of the threads running the recipe's scanner, generator and visitor, in " +
+                              "nanoseconds, or zero if the JVM doesn't measure thread CPU time.")
+        long cpuTimeNanos;
+
+        @Column(displayName = "Source files visited",
+                description = "The number of times the recipe's visitor was given a source file to edit, once per " +
+                              "source file and cycle.")
+        long sourceFilesVisited;
+
+        @Column(displayName = "Source files passing preconditions",
+                description = "The number of source files visited that met the precondition the recipe checks " +
+                              "with `RecipeEvents`, or all of them for a recipe without one.")
+        long sourceFilesPassedPreconditions;
+
+        @Column(displayName = "Source files changed",
+                description = "The number of source files visited that the recipe changed or deleted.")
+        long sourceFilesChanged;
+
+        @Column(displayName = "Template applications",
+                description = "The number of times the recipe applied a JavaTemplate built by the JavaTemplateCache.")
+        long templateApplications;
+
+        @Column(displayName = "Template compilations",
+                description = "The number of times a JavaTemplate built by the JavaTemplateCache compiled a stub for " +
+                              "the recipe, rather than reusing one it had already compiled.")
+        long templateCompilations;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class TypeHierarchyMetrics extends DataTable<TypeHierarchyMetrics.Row> {
+
+    public TypeHierarchyMetrics(Recipe recipe) {
+        super(recipe,
+                "Type hierarchy metrics",
+                "Depth and fan-out of each type declared in the source set.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Type name",
+                description = "Fully qualified name of the type.")
+        String typeName;
+
+        @Column(displayName = "Depth",
+                description = "Number of superclasses above the type.")
+        int depth;
+
+        @Column(displayName = "Direct supertypes",
+                description = "Number of types the type directly extends or implements.")
+        int directSupertypes;
+
+        @Column(displayName = "Transitive supertypes",
+                description = "Number of types the type extends or implements, directly or indirectly.")
+        int transitiveSupertypes;
+
+        @Column(displayName = "Fan-out",
+                description = "Number of types that directly extend or implement the type.")
+        int directSubtypes;
+
+        @Column(displayName = "Transitive subtypes",
+                description = "Number of types that extend or implement the type, directly or indirectly.")
+        int transitiveSubtypes;
+    }
+}
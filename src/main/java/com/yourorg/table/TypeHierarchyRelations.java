@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class TypeHierarchyRelations extends DataTable<TypeHierarchyRelations.Row> {
+
+    public TypeHierarchyRelations(Recipe recipe) {
+        super(recipe,
+                "Type hierarchy relations",
+                "Every subtype and supertype of a type, direct or indirect.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Type name",
+                description = "Fully qualified name of the type that was queried.")
+        String typeName;
+
+        @Column(displayName = "Relation",
+                description = "Whether the related type is a subtype or a supertype of the type.")
+        Relation relation;
+
+        @Column(displayName = "Related type name",
+                description = "Fully qualified name of the related type.")
+        String relatedTypeName;
+
+        @Column(displayName = "Distance",
+                description = "Number of inheritance relationships between the two types.")
+        int distance;
+    }
+
+    public enum Relation {
+        SUBTYPE,
+        SUPERTYPE
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.*;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.text.PlainText;
+import org.openrewrite.text.PlainTextParser;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePreconditionTest {
+
+    private final List<SourceFile> sourceFiles = PlainTextParser.builder().build()
+      .parse("apple", "banana", "cherry", "apple pie").toList();
+
+    @Test
+    void sameOutcomeAsPreconditions() {
+        TreeVisitor<?, ExecutionContext> apple = contains("apple");
+        TreeVisitor<?, ExecutionContext> pie = contains("pie");
+
+        assertThat(matches(AdaptivePrecondition.or(branch("apple"), branch("pie")).visitor()))
+          .containsExactlyElementsOf(matches(Preconditions.or(apple, pie)))
+          .containsExactly(true, false, false, true);
+        assertThat(matches(AdaptivePrecondition.and(branch("apple"), branch("pie")).visitor()))
+          .containsExactlyElementsOf(matches(Preconditions.and(apple, pie)))
+          .containsExactly(false, false, false, true);
+    }
+
+    @Test
+    void branchThatDoesNotAcceptTheSourceFileIsNotMet() {
+        TreeVisitor<?, ExecutionContext> apple = contains("apple");
+        TreeVisitor<?, ExecutionContext> java = anyJava();
+        AdaptivePrecondition.Branch javaBranch = AdaptivePrecondition.branch("java", AdaptivePreconditionTest::anyJava);
+
+        // As with the Java-only branch alone, a text file is rejected, which Preconditions.and would let through
+        assertThat(matches(AdaptivePrecondition.and(branch("apple"), javaBranch).visitor()))
+          .containsExactlyElementsOf(matches(java))
+          .containsOnly(false);
+        assertThat(matches(AdaptivePrecondition.or(javaBranch, branch("apple")).visitor()))
+          .containsExactlyElementsOf(matches(Preconditions.or(java, apple)))
+          .containsExactly(true, false, false, true);
+    }
+
+    @Test
+    void checksTheCheapestMostDecisiveBranchOfAnOrFirst() {
+        AdaptivePrecondition precondition = AdaptivePrecondition.or(
+          AdaptivePrecondition.branch("slow", () -> slow(contains("pie"))),
+          AdaptivePrecondition.branch("fast", () -> contains("a")));
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        assertThat(precondition.getOrder(ctx)).extracting(AdaptivePrecondition.Branch::getName).containsExactly("slow", "fast");
+
+        checkRepeatedly(precondition, sourceFiles, ctx);
+
+        assertThat(precondition.getOrder(ctx)).extracting(AdaptivePrecondition.Branch::getName).containsExactly("fast", "slow");
+        assertThat(precondition.getBranches()).extracting(AdaptivePrecondition.Branch::getName).containsExactly("slow", "fast");
+    }
+
+    @Test
+    void checksTheCheapestMostDecisiveBranchOfAnAndFirst() {
+        // "cherry" rejects three quarters of the files and "a" a quarter of them, at the same cost
+        AdaptivePrecondition precondition = AdaptivePrecondition.and(
+          AdaptivePrecondition.branch("a", () -> slow(contains("a"))),
+          AdaptivePrecondition.branch("cherry", () -> slow(contains("cherry"))));
+        ExecutionContext ctx = new InMemoryExecutionContext();
+
+        checkRepeatedly(precondition, sourceFiles, ctx);
+
+        assertThat(precondition.getOrder(ctx)).extracting(AdaptivePrecondition.Branch::getName).containsExactly("cherry", "a");
+        assertThat(precondition.getDecisions(ctx, precondition.getOrder(ctx).get(0))).isPositive();
+    }
+
+    @Test
+    void runsOverDifferentCorporaLearnIndependently() {
+        AdaptivePrecondition precondition = AdaptivePrecondition.or(branch("apple"), branch("cherry"));
+        List<SourceFile> apples = PlainTextParser.builder().build().parse("apple", "apple pie").toList();
+        List<SourceFile> cherries = PlainTextParser.builder().build().parse("cherry", "cherry pie").toList();
+
+        ExecutionContext applesCtx = new InMemoryExecutionContext();
+        checkRepeatedly(precondition, apples, applesCtx);
+        ExecutionContext cherriesCtx = new InMemoryExecutionContext();
+        assertThat(precondition.getOrder(cherriesCtx)).extracting(AdaptivePrecondition.Branch::getName)
+          .as("A new run starts from the declared order").containsExactly("apple", "cherry");
+        checkRepeatedly(precondition, cherries, cherriesCtx);
+
+        assertThat(precondition.getOrder(applesCtx)).extracting(AdaptivePrecondition.Branch::getName)
+          .containsExactly("apple", "cherry");
+        assertThat(precondition.getOrder(cherriesCtx)).extracting(AdaptivePrecondition.Branch::getName)
+          .containsExactly("cherry", "apple");
+        assertThat(precondition.getDecisions(cherriesCtx, precondition.getBranches().get(0))).isZero();
+    }
+
+    private static void checkRepeatedly(AdaptivePrecondition precondition, List<SourceFile> sourceFiles,
+                                        ExecutionContext ctx) {
+        TreeVisitor<?, ExecutionContext> visitor = precondition.visitor();
+        for (int i = 0; i < AdaptivePrecondition.REORDER_INTERVAL; i++) {
+            for (SourceFile sourceFile : sourceFiles) {
+                visitor.visit(sourceFile, ctx);
+            }
+        }
+    }
+
+    private List<Boolean> matches(TreeVisitor<?, ExecutionContext> precondition) {
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        return sourceFiles.stream().map(sf -> precondition.visit(sf, ctx) != sf).toList();
+    }
+
+    private static AdaptivePrecondition.Branch branch(String text) {
+        return AdaptivePrecondition.branch(text, () -> contains(text));
+    }
+
+    private static TreeVisitor<?, ExecutionContext> contains(String text) {
+        return when(t -> t.getText().contains(text));
+    }
+
+    private static TreeVisitor<?, ExecutionContext> when(Predicate<PlainText> matches) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public Tree visit(Tree tree, ExecutionContext ctx) {
+                return tree instanceof PlainText && matches.test((PlainText) tree) ? SearchResult.found(tree) : tree;
+            }
+        };
+    }
+
+    /**
+     * Matches every Java source file, and only accepts those.
+     */
+    private static TreeVisitor<?, ExecutionContext> anyJava() {
+        return new JavaIsoVisitor<>() {
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                return SearchResult.found(cu);
+            }
+        };
+    }
+
+    private static TreeVisitor<?, ExecutionContext> slow(TreeVisitor<?, ExecutionContext> precondition) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public Tree visit(Tree tree, ExecutionContext ctx) {
+                long until = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(50);
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                return precondition.visit(tree, ctx);
+            }
+        };
+    }
+}
@@ -64,4 +64,37 @@ class AppendToReleaseNotesTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void messageWithinSearchWindowIsNotAppendedAgain() {
+        rewriteRun(
+          spec -> spec.recipe(new AppendToReleaseNotes("Hello world", 16)),
+          text(
+            """
+              You say goodbye, I say
+              Hello world
+              """,
+            spec -> spec.path(Paths.get("RELEASE.md"))
+          )
+        );
+    }
+
+    @Test
+    void searchWindowOnlyCoversTheEndOfTheFile() {
+        rewriteRun(
+          spec -> spec.recipe(new AppendToReleaseNotes("Hello world", 16)),
+          text(
+            """
+              Hello world
+              You say goodbye, I say
+              """,
+            """
+              Hello world
+              You say goodbye, I say
+              Hello world
+              """,
+            spec -> spec.path(Paths.get("RELEASE.md"))
+          )
+        );
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.TypeHierarchyMetrics;
+import com.yourorg.table.TypeHierarchyRelations;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.test.RewriteTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class ClassHierarchyAnalysisTest implements RewriteTest {
+
+    @Test
+    void metricsForDeclaredTypes() {
+        rewriteRun(
+          spec -> spec.recipe(new ClassHierarchyAnalysis(null))
+            .dataTable(TypeHierarchyMetrics.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+              new TypeHierarchyMetrics.Row("A", 1, 1, 1, 1, 2),
+              new TypeHierarchyMetrics.Row("B", 2, 2, 3, 1, 1),
+              new TypeHierarchyMetrics.Row("C", 3, 1, 4, 0, 0)
+            )),
+          //language=java
+          java(
+            """
+              class A {}
+              """
+          ),
+          //language=java
+          java(
+            """
+              import java.io.Serializable;
+              class B extends A implements Serializable {}
+              """
+          ),
+          //language=java
+          java(
+            """
+              class C extends B {}
+              """
+          )
+        );
+    }
+
+    @Test
+    void relationsOfOneType() {
+        rewriteRun(
+          spec -> spec.recipe(new ClassHierarchyAnalysis("B"))
+            .dataTable(TypeHierarchyRelations.Row.class, rows -> assertThat(rows).containsExactlyInAnyOrder(
+              new TypeHierarchyRelations.Row("B", TypeHierarchyRelations.Relation.SUPERTYPE, "A", 1),
+              new TypeHierarchyRelations.Row("B", TypeHierarchyRelations.Relation.SUPERTYPE, "java.lang.Object", 2),
+              new TypeHierarchyRelations.Row("B", TypeHierarchyRelations.Relation.SUBTYPE, "C", 1)
+            )),
+          //language=java
+          java(
+            """
+              class A {}
+              """
+          ),
+          //language=java
+          java(
+            """
+              class B extends A {}
+              """
+          ),
+          //language=java
+          java(
+            """
+              class C extends B {}
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.yourorg.table.ClassHierarchyReport.Relationship.EXTENDS;
+import static com.yourorg.table.ClassHierarchyReport.Relationship.IMPLEMENTS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassHierarchyGraphTest {
+
+    private final NameTable names = new NameTable();
+
+    /*
+     * Object <- A <- B <- C
+     *           ^    ^
+     *           D    |
+     * Serializable <-+
+     */
+    private final ClassHierarchyGraph graph = ClassHierarchyGraph.builder(names)
+      .add("A", EXTENDS, "java.lang.Object")
+      .add("B", EXTENDS, "A")
+      .add("B", IMPLEMENTS, "java.io.Serializable")
+      .add("C", EXTENDS, "B")
+      .add("D", EXTENDS, "A")
+      .add("C", EXTENDS, "B")
+      .build();
+
+    private List<String> names(int[] ids) {
+        return Arrays.stream(ids).mapToObj(names::name).toList();
+    }
+
+    @Test
+    void transitiveSupertypesNearestFirst() {
+        assertThat(names(graph.supertypes(names.id("C"))))
+          .containsExactly("B", "A", "java.io.Serializable", "java.lang.Object");
+        assertThat(graph.transitiveSupertypeCount(names.id("java.lang.Object"))).isZero();
+    }
+
+    @Test
+    void transitiveSubtypes() {
+        assertThat(names(graph.subtypes(names.id("A")))).containsExactlyInAnyOrder("B", "D", "C");
+        assertThat(names(graph.subtypes(names.id("java.io.Serializable")))).containsExactly("B", "C");
+        assertThat(graph.transitiveSubtypeCount(names.id("java.lang.Object"))).isEqualTo(4);
+    }
+
+    @Test
+    void distances() {
+        List<String> visited = new ArrayList<>();
+        graph.forEachSubtype(names.id("java.lang.Object"), (type, distance) -> visited.add(names.name(type) + "@" + distance));
+        assertThat(visited).containsExactlyInAnyOrder("A@1", "B@2", "D@2", "C@3");
+    }
+
+    @Test
+    void depthAndFanOut() {
+        assertThat(graph.depth(names.id("C"))).isEqualTo(3);
+        assertThat(graph.depth(names.id("D"))).isEqualTo(2);
+        assertThat(graph.depth(names.id("java.lang.Object"))).isZero();
+        assertThat(graph.fanOut(names.id("A"))).isEqualTo(2);
+        // The duplicate C extends B is only counted once
+        assertThat(graph.fanOut(names.id("B"))).isEqualTo(1);
+        assertThat(graph.fanIn(names.id("B"))).isEqualTo(2);
+    }
+}
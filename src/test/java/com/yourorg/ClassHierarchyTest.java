@@ -16,10 +16,22 @@
 package com.yourorg;
 
 import com.yourorg.table.ClassHierarchyReport;
+import com.yourorg.table.ClassHierarchyReportSink;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 
@@ -85,4 +97,91 @@ class ClassHierarchyTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void streamsRowsToSink(@TempDir Path dir) {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        ctx.putMessage(ClassHierarchyReport.SINK_DIRECTORY, dir);
+        rewriteRun(
+          spec -> spec.executionContext(ctx),
+          //language=java
+          java(
+            """
+              class A {}
+              """
+          ),
+          //language=java
+          java(
+            """
+              class B extends A {}
+              """
+          )
+        );
+        ClassHierarchyReportSink sink = ClassHierarchyReport.sink(ctx);
+        assertThat(sink).isNotNull();
+        assertThat(sink.rows()).toIterable().containsExactly(
+          new ClassHierarchyReport.Row("A", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"),
+          new ClassHierarchyReport.Row("B", ClassHierarchyReport.Relationship.EXTENDS, "A"));
+        sink.close();
+    }
+
+    @Test
+    void typeInMainAndTestSourceSetsReportedOnce() {
+        // Each source set is parsed on its own, as build plugins do, so both declarations of A are fully typed
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        for (String sourceSet : List.of("main", "test")) {
+            JavaParser.fromJavaVersion().build()
+              .parse("class A {}")
+              .map(cu -> (SourceFile) cu.withSourcePath(Path.of("src", sourceSet, "java", "A.java")))
+              .forEach(sourceFiles::add);
+        }
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        RecipeRun run = new ClassHierarchy().run(new InMemoryLargeSourceSet(sourceFiles), ctx);
+
+        assertThat(run.<ClassHierarchyReport.Row>getDataTableRows(ClassHierarchyReport.class.getName())).containsExactly(
+          new ClassHierarchyReport.Row("A", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"));
+        assertThat(ClassHierarchy.emittedRows(ctx).getRowsEmitted()).isEqualTo(1);
+        assertThat(ClassHierarchy.emittedRows(ctx).getDuplicatesDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void partsOfARunMergeTheirRowsWithoutCopyingThem() {
+        ClassHierarchy.EmittedRows run = new ClassHierarchy.EmittedRows();
+        ClassHierarchy.EmittedRows first = run.part();
+        ClassHierarchy.EmittedRows second = run.part();
+        ClassHierarchyReport.Row a = first.add("A", ClassHierarchyReport.Relationship.EXTENDS, new String("java.lang.Object"));
+        ClassHierarchyReport.Row again = second.add("A", ClassHierarchyReport.Relationship.EXTENDS, new String("java.lang.Object"));
+        ClassHierarchyReport.Row b = second.add("B", ClassHierarchyReport.Relationship.EXTENDS, new String("java.lang.Object"));
+
+        // Each part only drops the rows it reported itself, but both report the names of the run
+        assertThat(again).isEqualTo(a).isNotSameAs(a);
+        assertThat(b.getSuperClassName()).isSameAs(a.getSuperClassName());
+        assertThat(run.merge(a)).isSameAs(a);
+        assertThat(run.merge(again)).isNull();
+        assertThat(run.merge(b)).isSameAs(b);
+        assertThat(run.getRowsEmitted()).isEqualTo(2);
+        assertThat(run.getDuplicatesDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void rowsShareNamesOfTypesParsedApart() {
+        // Each parse maps the supertypes of its classes to types of its own, with names of their own
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        for (String name : List.of("A", "B")) {
+            JavaParser.fromJavaVersion().build()
+              .parse("class %s implements java.io.Serializable {}".formatted(name))
+              .forEach(sourceFiles::add);
+        }
+        RecipeRun run = new ClassHierarchy().run(new InMemoryLargeSourceSet(sourceFiles), new InMemoryExecutionContext());
+
+        List<ClassHierarchyReport.Row> rows = run.getDataTableRows(ClassHierarchyReport.class.getName());
+        assertThat(rows).containsExactly(
+          new ClassHierarchyReport.Row("A", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"),
+          new ClassHierarchyReport.Row("A", ClassHierarchyReport.Relationship.IMPLEMENTS, "java.io.Serializable"),
+          new ClassHierarchyReport.Row("B", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"),
+          new ClassHierarchyReport.Row("B", ClassHierarchyReport.Relationship.IMPLEMENTS, "java.io.Serializable"));
+        assertThat(rows.get(2).getSuperClassName()).isSameAs(rows.get(0).getSuperClassName());
+        assertThat(rows.get(3).getSuperClassName()).isSameAs(rows.get(1).getSuperClassName());
+        assertThat(rows.get(1).getClassName()).isSameAs(rows.get(0).getClassName());
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentLongSetTest {
+
+    @Test
+    void addAndContains() {
+        ConcurrentLongSet set = new ConcurrentLongSet();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        for (long i = 1; i < 10_000; i++) {
+            assertThat(set.add(i << 32 | i)).isTrue();
+        }
+        assertThat(set.add(5L << 32 | 5)).isFalse();
+        assertThat(set.contains(9_999L << 32 | 9_999)).isTrue();
+        assertThat(set.contains(-1)).isFalse();
+        assertThat(set.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    void eachValueAddedOnceAcrossThreads() throws Exception {
+        ConcurrentLongSet set = new ConcurrentLongSet();
+        AtomicInteger added = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (long i = 0; i < 50_000; i++) {
+                        if (set.add(i)) {
+                            added.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertThat(added).hasValue(50_000);
+        assertThat(set.size()).isEqualTo(50_000);
+    }
+}
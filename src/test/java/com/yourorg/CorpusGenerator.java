@@ -0,0 +1,495 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import lombok.Value;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Generates a synthetic repository of configurable size for the recipes of this project to be scale tested on, where
+ * the repositories that show a scaling problem can't be shared.
+ * <p>
+ * The Java sources are spread over the packages of a handful of modules, and their classes extend each other in
+ * hierarchies up to the configured depth. Each method of a main class either creates lists with Guava's {@code Lists},
+ * mutates or copies the {@code getArguments()} of an LST element, returns a nested ternary, checks for an empty string
+ * with {@code length() == 0} or one of its variants, or does neither. Test classes call JUnit's {@code assertEquals}.
+ * Next to them are minimal sources of the Guava, JUnit and OpenRewrite types they use, so that the corpus is type
+ * attributed when parsed on the JDK's classpath alone, as {@link LocalRecipeRunner} does. Concourse pipelines with git
+ * resources to update go in {@code ci/}, and a {@code RELEASE.md} with the configured number of releases at the root,
+ * next to a {@value LocalRecipeRunner#REWRITE_YML} declaring {@value #RECIPE}, which runs every recipe of this
+ * project.
+ * <p>
+ * What is generated only depends on the seed and the sizes, so the same corpus, byte for byte, can be generated again
+ * to compare the results of benchmarks between runs.
+ * <p>
+ * The methods, classes, pipelines and release notes it is made of are also what the fixtures of {@link LstFixtures}
+ * are built from, so that the benchmarks, the budgets of {@link RecipeBudgetsIT} and scale tests all run the recipes
+ * over the same kinds of code.
+ */
+@Value
+public class CorpusGenerator {
+
+    /**
+     * The name of the recipe declared in the {@value LocalRecipeRunner#REWRITE_YML} of the corpus.
+     */
+    public static final String RECIPE = "com.example.ScaleTest";
+
+    private static final String[] MODULES = {"accounts", "billing", "catalog", "inventory", "notifications", "orders",
+            "payments", "reports", "search", "shipping"};
+    static final String[] NOUNS = {"Account", "Address", "Invoice", "Order", "Payment", "Product", "Customer",
+            "Shipment", "Report", "Warehouse", "Price", "Discount", "Ledger", "Refund", "Category", "Supplier"};
+    private static final String[] ROLES = {"Service", "Repository", "Validator", "Mapper", "Handler", "Processor",
+            "Factory", "Resolver", "Builder", "Controller", "Adapter", "Policy"};
+    private static final String[] VERBS = {"find", "load", "resolve", "validate", "compute", "collect", "filter",
+            "merge", "update", "check", "convert", "apply"};
+    private static final String[] CHANGES = {"Fixed", "Improved", "Added", "Removed", "Deprecated", "Documented"};
+    private static final String[] SUBJECTS = {"the parser of pipeline files", "the handling of empty lists",
+            "the performance of type attribution", "support for nested ternaries", "the release notes template",
+            "the order of imports", "the search for unused types", "the validation of options",
+            "the reporting of class hierarchies", "the caching of parsed templates"};
+
+    /**
+     * The ways to check for an empty string that {@code StringIsEmpty} rewrites, the plainest one twice as often.
+     */
+    static final String[] EMPTY_CHECKS = {"value.length() == 0", "value.length() == 0", "0 == value.length()",
+            "value.length() < 1", "value.length() <= 0", "1 > value.length()"};
+
+    long seed;
+    int javaFiles;
+    int methodsPerFile;
+    int hierarchyDepth;
+    int pipelines;
+    int resourcesPerPipeline;
+    int releases;
+
+    /**
+     * Write the corpus to a directory, overwriting the files it already has of the same names.
+     *
+     * @return the files written, in the order they were generated
+     */
+    public List<Path> write(Path root) {
+        List<Path> written = new ArrayList<>();
+        generate((path, content) -> {
+            Path file = root.resolve(path);
+            try {
+                Files.createDirectories(file.getParent());
+                Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written.add(file);
+        });
+        return written;
+    }
+
+    /**
+     * Generate the corpus one file at a time, so that corpora too large to hold in memory can be written.
+     *
+     * @param file accepts the path of each file, relative to the root of the corpus, and its content
+     */
+    public void generate(BiConsumer<String, String> file) {
+        Random random = new Random(seed);
+        file.accept(LocalRecipeRunner.REWRITE_YML, rewriteYml());
+        stubs(file);
+        java(random, file);
+        for (int i = 0; i < pipelines; i++) {
+            file.accept(i == 0 ? "ci/pipeline.yml" : "ci/pipeline-" + i + ".yml",
+                    pipeline(random, 1 + random.nextInt(2 * Math.max(resourcesPerPipeline, 1) - 1)));
+        }
+        file.accept("RELEASE.md", releaseNotes(random, releases));
+    }
+
+    private void java(Random random, BiConsumer<String, String> file) {
+        Set<String> classNames = new HashSet<>();
+        List<String> mainClasses = new ArrayList<>();
+        String superclass = null;
+        int chainLength = 0;
+        int chainDepth = 0;
+        Set<String> chainMethods = new HashSet<>();
+        for (int i = 0; i < javaFiles; i++) {
+            String pkg = "com.example." + pick(random, MODULES) + (random.nextBoolean() ? "" : ".internal");
+            int methods = 1 + random.nextInt(2 * Math.max(methodsPerFile, 1) - 1);
+            if (!mainClasses.isEmpty() && random.nextInt(4) == 0) {
+                String subject = mainClasses.get(random.nextInt(mainClasses.size()));
+                String name = unique(classNames, pkg, subject.substring(subject.lastIndexOf('.') + 1) + "Test");
+                file.accept("src/test/java/" + pkg.replace('.', '/') + "/" + name + ".java",
+                        testClass(random, pkg, name, methods));
+                continue;
+            }
+            if (chainLength == chainDepth) {
+                superclass = null;
+                chainLength = 0;
+                chainDepth = 1 + random.nextInt(Math.max(hierarchyDepth, 1));
+                chainMethods.clear();
+            }
+            String name = unique(classNames, pkg, pick(random, NOUNS) + pick(random, ROLES));
+            file.accept("src/main/java/" + pkg.replace('.', '/') + "/" + name + ".java",
+                    mainClass(random, pkg, name, superclass, methods, chainMethods));
+            superclass = pkg + "." + name;
+            mainClasses.add(superclass);
+            chainLength++;
+        }
+    }
+
+    private static String mainClass(Random random, String pkg, String name, @Nullable String superclass, int methods,
+                                    Set<String> chainMethods) {
+        Set<String> imports = new TreeSet<>();
+        StringBuilder body = new StringBuilder();
+        for (int m = 0; m < methods; m++) {
+            String method = unique(chainMethods, "", pick(random, VERBS) + pick(random, NOUNS));
+            body.append('\n');
+            switch (random.nextInt(6)) {
+                case 0:
+                    guavaLists(random, method, imports, body);
+                    break;
+                case 1:
+                    argumentsMutation(random, method, imports, body);
+                    break;
+                case 2:
+                    ternaries(random, method, body);
+                    break;
+                case 3:
+                    emptyCheck(method, pick(random, EMPTY_CHECKS), body);
+                    break;
+                default:
+                    arithmetic(random, method, body);
+            }
+        }
+        if (superclass == null && random.nextBoolean()) {
+            imports.add("java.io.Serializable");
+        }
+        StringBuilder s = new StringBuilder("package ").append(pkg).append(";\n\n");
+        for (String anImport : imports) {
+            s.append("import ").append(anImport).append(";\n");
+        }
+        s.append(imports.isEmpty() ? "" : "\n").append("public ");
+        return declaration(name, superclass, imports.contains("java.io.Serializable"), s)
+                .append(" {\n").append(body).append("}\n").toString();
+    }
+
+    /**
+     * Append the declaration of a class up to its body, which either extends a superclass or is the root of a
+     * hierarchy.
+     */
+    static StringBuilder declaration(String name, @Nullable String superclass, boolean serializable, StringBuilder s) {
+        s.append("class ").append(name);
+        if (superclass != null) {
+            s.append(" extends ").append(superclass);
+        } else if (serializable) {
+            s.append(" implements Serializable");
+        }
+        return s;
+    }
+
+    static void guavaLists(Random random, String method, Set<String> imports, StringBuilder body) {
+        imports.add("com.google.common.collect.Lists");
+        imports.add("java.util.List");
+        body.append("    public List<String> ").append(method).append("(List<String> names) {\n");
+        switch (random.nextInt(3)) {
+            case 0:
+                body.append("        List<String> result = Lists.newArrayList();\n");
+                break;
+            case 1:
+                body.append("        List<String> result = Lists.newArrayListWithCapacity(names.size());\n");
+                break;
+            default:
+                body.append("        List<String> result = Lists.newArrayList(names);\n")
+                        .append("        result.clear();\n");
+        }
+        body.append("        for (String name : names) {\n")
+                .append("            if (!name.isEmpty()) {\n")
+                .append("                result.add(name.trim());\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        return result;\n")
+                .append("    }\n");
+    }
+
+    static void argumentsMutation(Random random, String method, Set<String> imports, StringBuilder body) {
+        imports.add("java.util.List");
+        imports.add("org.openrewrite.java.tree.Expression");
+        imports.add("org.openrewrite.java.tree.J");
+        body.append("    public J.MethodInvocation ").append(method).append("(J.MethodInvocation method) {\n");
+        switch (random.nextInt(4)) {
+            case 0:
+                body.append("        List<Expression> arguments = method.getArguments();\n")
+                        .append("        if (!arguments.isEmpty()) {\n")
+                        .append("            arguments.remove(0);\n")
+                        .append("        }\n");
+                break;
+            case 1:
+                body.append("        method.getArguments().clear();\n");
+                break;
+            case 2:
+                imports.add("java.util.ArrayList");
+                body.append("        List<Expression> arguments = new ArrayList<>(method.getArguments());\n")
+                        .append("        arguments.remove(arguments.size() - 1);\n");
+                break;
+            default:
+                body.append("        if (method.getArguments().size() > ").append(random.nextInt(4)).append(") {\n")
+                        .append("            return null;\n")
+                        .append("        }\n");
+        }
+        body.append("        return method;\n")
+                .append("    }\n");
+    }
+
+    static void ternaries(Random random, String method, StringBuilder body) {
+        body.append("    public boolean ").append(method).append("(boolean a, boolean b, boolean c) {\n")
+                .append("        return ").append(ternary(random, 2 + random.nextInt(2))).append(";\n")
+                .append("    }\n");
+    }
+
+    static void emptyCheck(String method, String check, StringBuilder body) {
+        body.append("    public String ").append(method).append("(String value, String fallback) {\n")
+                .append("        if (").append(check).append(") {\n")
+                .append("            return fallback;\n")
+                .append("        }\n")
+                .append("        return value.trim();\n")
+                .append("    }\n");
+    }
+
+    static void arithmetic(Random random, String method, StringBuilder body) {
+        body.append("    public int ").append(method).append("(int[] values) {\n")
+                .append("        int total = ").append(random.nextInt(100)).append(";\n")
+                .append("        for (int value : values) {\n")
+                .append("            total += value * ").append(1 + random.nextInt(9)).append(";\n")
+                .append("        }\n")
+                .append("        return total;\n")
+                .append("    }\n");
+    }
+
+    private static String ternary(Random random, int depth) {
+        String condition = pick(random, new String[]{"a", "b", "c"});
+        if (depth == 1) {
+            return condition + (random.nextBoolean() ? " ? true : false" : " ? false : true");
+        }
+        return condition + " ? (" + ternary(random, depth - 1) + ") : (" + ternary(random, depth - 1) + ")";
+    }
+
+    private static String testClass(Random random, String pkg, String name, int methods) {
+        StringBuilder s = new StringBuilder("package ").append(pkg).append(";\n\n")
+                .append("import org.junit.jupiter.api.Test;\n\n")
+                .append("import static org.junit.jupiter.api.Assertions.assertEquals;\n\n")
+                .append("class ").append(name).append(" {\n");
+        Set<String> names = new HashSet<>();
+        for (int m = 0; m < methods; m++) {
+            String noun = pick(random, NOUNS);
+            s.append('\n');
+            assertions(random, unique(names, "", pick(random, VERBS) + noun), noun, s);
+        }
+        return s.append("}\n").toString();
+    }
+
+    static void assertions(Random random, String method, String noun, StringBuilder body) {
+        int expected = random.nextInt(1000);
+        body.append("    @Test\n")
+                .append("    void ").append(method).append("() {\n")
+                .append("        assertEquals(").append(expected).append(", Integer.valueOf(").append(expected).append("));\n");
+        if (random.nextBoolean()) {
+            body.append("        assertEquals(\"").append(noun).append("\", \"").append(noun)
+                    .append("\".trim(), \"").append(noun.toLowerCase()).append(" should be trimmed\");\n");
+        }
+        body.append("    }\n");
+    }
+
+    static String pipeline(Random random, int resources) {
+        StringBuilder s = new StringBuilder("---\nresources:\n");
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>();
+        for (int r = 0; r < resources; r++) {
+            String name = unique(used, "", pick(random, NOUNS).toLowerCase() + "-tasks");
+            names.add(name);
+            s.append("  - name: ").append(name).append('\n')
+                    .append("    type: git\n")
+                    .append("    source:\n")
+                    .append("      uri: git@github.com:Example/concourse-").append(name).append(".git\n")
+                    .append("      branch: main\n")
+                    .append("      tag_filter: 8.").append(random.nextInt(3)).append('.').append(random.nextInt(10)).append('\n');
+        }
+        s.append("  - name: nightly\n")
+                .append("    type: time\n")
+                .append("    source:\n")
+                .append("      interval: 24h\n")
+                .append("jobs:\n")
+                .append("  - name: build\n")
+                .append("    plan:\n")
+                .append("      - get: nightly\n")
+                .append("        trigger: true\n");
+        for (String name : names) {
+            s.append("      - get: ").append(name).append('\n');
+        }
+        s.append("      - task: build\n")
+                .append("        file: ").append(names.get(0)).append("/build.yml\n");
+        return s.toString();
+    }
+
+    static String releaseNotes(Random random, int releases) {
+        StringBuilder s = new StringBuilder("# Release notes\n");
+        // Newest first, as the notes of each release are added at the top
+        for (int r = releases - 1; r >= 0; r--) {
+            s.append("\n## ").append(1 + r / 100).append('.').append(r / 10 % 10).append('.').append(r % 10).append("\n\n");
+            int changes = 1 + random.nextInt(8);
+            for (int c = 0; c < changes; c++) {
+                s.append("- ").append(pick(random, CHANGES)).append(' ').append(pick(random, SUBJECTS))
+                        .append(" (#").append(1 + random.nextInt(10 * releases + 10)).append(")\n");
+            }
+        }
+        return s.toString();
+    }
+
+    private static String rewriteYml() {
+        return "---\n" +
+               "type: specs.openrewrite.org/v1beta/recipe\n" +
+               "name: " + RECIPE + "\n" +
+               "displayName: Scale test\n" +
+               "description: Runs every recipe of the project over the generated corpus.\n" +
+               "recipeList:\n" +
+               "  - com.yourorg.FusedJavaRecipes\n" +
+               "  - com.yourorg.SimplifyTernaryRecipes\n" +
+               "  - com.yourorg.StringIsEmptyRecipes\n" +
+               "  - com.yourorg.UpdateConcoursePipeline:\n" +
+               "      version: 8.2.0\n" +
+               "  - com.yourorg.AppendToReleaseNotes:\n" +
+               "      message: \"## Scale test\"\n";
+    }
+
+    private static void stubs(BiConsumer<String, String> file) {
+        file.accept("stubs/src/main/java/com/google/common/collect/Lists.java",
+                "package com.google.common.collect;\n\n" +
+                "import java.util.ArrayList;\n\n" +
+                "public final class Lists {\n" +
+                "    public static <E> ArrayList<E> newArrayList() {\n" +
+                "        return new ArrayList<>();\n" +
+                "    }\n\n" +
+                "    public static <E> ArrayList<E> newArrayList(Iterable<? extends E> elements) {\n" +
+                "        ArrayList<E> list = new ArrayList<>();\n" +
+                "        elements.forEach(list::add);\n" +
+                "        return list;\n" +
+                "    }\n\n" +
+                "    public static <E> ArrayList<E> newArrayListWithCapacity(int initialArraySize) {\n" +
+                "        return new ArrayList<>(initialArraySize);\n" +
+                "    }\n" +
+                "}\n");
+        file.accept("stubs/src/main/java/org/junit/jupiter/api/Assertions.java",
+                "package org.junit.jupiter.api;\n\n" +
+                "public final class Assertions {\n" +
+                "    public static void assertEquals(Object expected, Object actual) {\n" +
+                "    }\n\n" +
+                "    public static void assertEquals(Object expected, Object actual, String message) {\n" +
+                "    }\n" +
+                "}\n");
+        file.accept("stubs/src/main/java/org/junit/jupiter/api/Test.java",
+                "package org.junit.jupiter.api;\n\n" +
+                "public @interface Test {\n" +
+                "}\n");
+        file.accept("stubs/src/main/java/org/openrewrite/Tree.java",
+                "package org.openrewrite;\n\n" +
+                "public interface Tree {\n" +
+                "}\n");
+        file.accept("stubs/src/main/java/org/openrewrite/java/tree/Expression.java",
+                "package org.openrewrite.java.tree;\n\n" +
+                "public interface Expression extends J {\n" +
+                "}\n");
+        file.accept("stubs/src/main/java/org/openrewrite/java/tree/J.java",
+                "package org.openrewrite.java.tree;\n\n" +
+                "import org.openrewrite.Tree;\n\n" +
+                "import java.util.List;\n\n" +
+                "public interface J extends Tree {\n" +
+                "    final class MethodInvocation implements J, Expression {\n" +
+                "        public List<Expression> getArguments() {\n" +
+                "            throw new UnsupportedOperationException();\n" +
+                "        }\n" +
+                "    }\n" +
+                "}\n");
+    }
+
+    static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    /**
+     * @return the name, or the name followed by the lowest number from 2 up that makes it unique in its scope
+     */
+    private static String unique(Set<String> used, String scope, String name) {
+        String unique = name;
+        for (int n = 2; !used.add(scope + "." + unique); n++) {
+            unique = name + n;
+        }
+        return unique;
+    }
+
+    /**
+     * Write a corpus to a directory.
+     * <pre>
+     * CorpusGenerator [--seed=&lt;seed&gt;] [--java-files=&lt;files&gt;] [--methods-per-file=&lt;methods&gt;]
+     *                 [--hierarchy-depth=&lt;depth&gt;] [--pipelines=&lt;files&gt;] [--resources-per-pipeline=&lt;resources&gt;]
+     *                 [--releases=&lt;releases&gt;] &lt;directory&gt;
+     * </pre>
+     * The numbers of methods and resources are averages. Unless given, the seed is 0 and the corpus has 1,000 Java
+     * files of 8 methods each in hierarchies up to 6 deep, 20 pipelines of 10 resources each and 1,000 releases.
+     */
+    public static void main(String[] args) {
+        long seed = 0;
+        int javaFiles = 1000;
+        int methodsPerFile = 8;
+        int hierarchyDepth = 6;
+        int pipelines = 20;
+        int resourcesPerPipeline = 10;
+        int releases = 1000;
+        List<String> arguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--java-files=")) {
+                javaFiles = Integer.parseInt(arg.substring("--java-files=".length()));
+            } else if (arg.startsWith("--methods-per-file=")) {
+                methodsPerFile = Integer.parseInt(arg.substring("--methods-per-file=".length()));
+            } else if (arg.startsWith("--hierarchy-depth=")) {
+                hierarchyDepth = Integer.parseInt(arg.substring("--hierarchy-depth=".length()));
+            } else if (arg.startsWith("--pipelines=")) {
+                pipelines = Integer.parseInt(arg.substring("--pipelines=".length()));
+            } else if (arg.startsWith("--resources-per-pipeline=")) {
+                resourcesPerPipeline = Integer.parseInt(arg.substring("--resources-per-pipeline=".length()));
+            } else if (arg.startsWith("--releases=")) {
+                releases = Integer.parseInt(arg.substring("--releases=".length()));
+            } else {
+                arguments.add(arg);
+            }
+        }
+        if (arguments.size() != 1) {
+            System.err.println("Usage: CorpusGenerator [--seed=<seed>] [--java-files=<files>] [--methods-per-file=<methods>] " +
+                               "[--hierarchy-depth=<depth>] [--pipelines=<files>] [--resources-per-pipeline=<resources>] " +
+                               "[--releases=<releases>] <directory>");
+            System.exit(2);
+            return;
+        }
+
+        Path root = Paths.get(arguments.get(0)).toAbsolutePath().normalize();
+        List<Path> written = new CorpusGenerator(seed, javaFiles, methodsPerFile, hierarchyDepth, pipelines,
+                resourcesPerPipeline, releases).write(root);
+        System.out.printf("%d files written to %s%n", written.size(), root);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Result;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorpusGeneratorTest {
+
+    @Test
+    void sameSeedGeneratesSameCorpus() {
+        Map<String, String> corpus = generate(new CorpusGenerator(42, 50, 4, 5, 3, 4, 20));
+
+        assertThat(generate(new CorpusGenerator(42, 50, 4, 5, 3, 4, 20))).containsExactlyEntriesOf(corpus);
+        assertThat(generate(new CorpusGenerator(43, 50, 4, 5, 3, 4, 20))).isNotEqualTo(corpus);
+    }
+
+    @Test
+    void generatesCorpusOfConfiguredSize() {
+        Map<String, String> corpus = generate(new CorpusGenerator(7, 200, 6, 4, 5, 3, 300));
+
+        assertThat(corpus.keySet())
+          .filteredOn(path -> path.startsWith("src/") && path.endsWith(".java"))
+          .hasSize(200)
+          .anyMatch(path -> path.startsWith("src/test/java/") && path.endsWith("Test.java"));
+        assertThat(corpus.keySet())
+          .filteredOn(path -> path.startsWith("ci/"))
+          .containsExactly("ci/pipeline.yml", "ci/pipeline-1.yml", "ci/pipeline-2.yml", "ci/pipeline-3.yml", "ci/pipeline-4.yml");
+        assertThat(corpus.get("RELEASE.md").split("\n## ", -1)).hasSize(301);
+
+        String java = String.join("\n", corpus.values());
+        assertThat(java).contains(
+          "Lists.newArrayList()",
+          "Lists.newArrayListWithCapacity(",
+          "assertEquals(",
+          "method.getArguments().clear();",
+          " ? (",
+          "value.length() == 0");
+
+        // Chains of subclasses are never deeper than asked for, but do get that deep
+        Pattern extendsClause = Pattern.compile("package ([\\w.]+);.*public class (\\w+) extends ([\\w.]+) \\{", Pattern.DOTALL);
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        for (String source : corpus.values()) {
+            Matcher m = extendsClause.matcher(source);
+            if (m.find()) {
+                depths.put(m.group(1) + "." + m.group(2), depths.getOrDefault(m.group(3), 1) + 1);
+            }
+        }
+        assertThat(depths.values()).contains(4).allMatch(depth -> depth <= 4);
+    }
+
+    @Test
+    void recipesFindWorkInCorpus(@TempDir Path root) {
+        new CorpusGenerator(1, 40, 6, 3, 2, 2, 10).write(root);
+
+        LocalRecipeRunner.Run run = LocalRecipeRunner.run(root,
+          LocalRecipeRunner.activate(root, CorpusGenerator.RECIPE), new InMemoryExecutionContext(Throwable::printStackTrace));
+
+        // The stubs of the types the corpus uses attribute it well enough for every recipe to change something
+        String changed = String.join("\n", run.getResults().stream()
+          .map(Result::getAfter)
+          .map(after -> after.getSourcePath() + "\n" + after.printAll())
+          .toList());
+        assertThat(changed).contains(
+          "ci/pipeline.yml",
+          "tag_filter: 8.2.0",
+          "RELEASE.md",
+          "## Scale test",
+          "new ArrayList<>()",
+          "assertThat(",
+          "new ArrayList<>(method.getArguments())",
+          "value.isEmpty()");
+        assertThat(changed).doesNotContain("? true : false", "? false : true");
+    }
+
+    private static Map<String, String> generate(CorpusGenerator generator) {
+        Map<String, String> corpus = new LinkedHashMap<>();
+        generator.generate(corpus::put);
+        return corpus;
+    }
+}
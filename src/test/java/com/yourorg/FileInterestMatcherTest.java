@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.config.CompositeRecipe;
+import org.openrewrite.text.FindAndReplace;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class FileInterestMatcherTest {
+
+    @Test
+    void combinesInterestsOfRecipeList() {
+        FileInterestMatcher matcher = FileInterestMatcher.of(new CompositeRecipe(List.of(
+          new UpdateConcoursePipeline("8.2.0"),
+          new AppendToReleaseNotes("Hello world"),
+          new ClassHierarchy())));
+
+        assertThat(matcher.matchesAll()).isFalse();
+        assertThat(matcher.getGlobs()).containsExactly("**.java", "RELEASE.md", "ci/pipeline*.yaml", "ci/pipeline*.yml");
+        assertThat(matcher.matches(Path.of("ci/pipeline-main.yml"))).isTrue();
+        assertThat(matcher.matches(Path.of("RELEASE.md"))).isTrue();
+        assertThat(matcher.matches(Path.of("A.java"))).isTrue();
+        assertThat(matcher.matches(Path.of("src/main/java/com/example/A.java"))).isTrue();
+        assertThat(matcher.matches(Path.of("ci/tasks/build.yml"))).isFalse();
+        assertThat(matcher.matches(Path.of("docs/RELEASE.md"))).isFalse();
+    }
+
+    @Test
+    void recipeWithoutInterestNeedsEveryFile() {
+        FileInterestMatcher matcher = FileInterestMatcher.of(new CompositeRecipe(List.of(
+          new AppendToReleaseNotes("Hello world"),
+          new FindAndReplace("a", "b", null, null, null, null, null, null))));
+
+        assertThat(matcher.matchesAll()).isTrue();
+        assertThat(matcher.matches(Path.of("anything.txt"))).isTrue();
+    }
+
+    @Test
+    void globsCannotContainGroups() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FileInterestMatcher.of(List.of("ci/pipeline*.{yml,yaml}")));
+    }
+}
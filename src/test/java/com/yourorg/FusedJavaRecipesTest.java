@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.ClassHierarchyReport;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.*;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.openrewrite.java.Assertions.java;
+
+class FusedJavaRecipesTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new FusedJavaRecipes())
+          .parser(JavaParser.fromJavaVersion()
+            .classpath("junit-jupiter-api", "guava"));
+    }
+
+    @DocumentExample
+    @Test
+    void sameChangesAsEachRecipeInTurn() {
+        rewriteRun(
+          spec -> spec.dataTable(ClassHierarchyReport.Row.class, rows -> assertThat(rows).containsExactly(
+            new ClassHierarchyReport.Row("A", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"))),
+          //language=java
+          java(
+            """
+              import com.google.common.collect.Lists;
+              import org.junit.jupiter.api.Assertions;
+              
+              import java.util.List;
+              
+              class A {
+                  void foo() {
+                      List<Integer> list = Lists.newArrayList();
+                      Assertions.assertEquals(0, list.size());
+                  }
+              }
+              """,
+            """
+              import org.assertj.core.api.Assertions;
+              
+              import java.util.ArrayList;
+              import java.util.List;
+              
+              class A {
+                  void foo() {
+                      List<Integer> list = new ArrayList<>();
+                      Assertions.assertThat(list.size()).isEqualTo(0);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void preconditionsApplyPerRecipe() {
+        rewriteRun(
+          spec -> spec.dataTable(ClassHierarchyReport.Row.class, rows -> assertThat(rows).containsExactly(
+            new ClassHierarchyReport.Row("A", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"))),
+          //language=java
+          java(
+            """
+              class A {
+                  void assertEquals(int expected, int actual) {
+                  }
+              
+                  void foo() {
+                      assertEquals(1, 2);
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void eachTreeVisitedOnceInRecipeOrder() {
+        List<String> seen = new ArrayList<>();
+        Recipe fused = new FusedJavaRecipes(List.of(new RenameFooToBar(), new RecordMethodInvocations(seen)));
+        List<SourceFile> sources = JavaParser.fromJavaVersion().build()
+          .parse("class A { Object foo(Object o) { return o; } Object bar(Object o) { return o; } void test() { foo(bar(foo(null))); } }")
+          .collect(Collectors.toList());
+
+        RecipeRun run = fused.run(new InMemoryLargeSourceSet(sources), new InMemoryExecutionContext());
+
+        // The second recipe sees each method invocation once, as changed by the first, rather than once more for every
+        // invocation it is nested in
+        assertThat(seen).containsExactly("bar", "bar", "bar");
+        assertThat(run.getChangeset().getAllResults()).singleElement()
+          .satisfies(r -> assertThat(r.getAfter().printAll()).contains("bar(bar(bar(null)))"));
+    }
+
+    @Test
+    void onlyFusibleRecipes() {
+        assertThatThrownBy(() -> new FusedJavaRecipes(List.of(new AppendToReleaseNotes("message"))))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static class RenameFooToBar extends Recipe implements FusibleRecipe {
+        @Override
+        public String getDisplayName() {
+            return "Rename foo to bar";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Renames calls to `foo()` to `bar()`.";
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> fusiblePrecondition() {
+            return null;
+        }
+
+        @Override
+        public FusibleJavaVisitor fusibleVisitor() {
+            return new FusibleJavaVisitor() {
+                @Override
+                public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                    J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, ctx);
+                    return "foo".equals(m.getSimpleName()) ? m.withName(m.getName().withSimpleName("bar")) : m;
+                }
+            };
+        }
+    }
+
+    static class RecordMethodInvocations extends Recipe implements FusibleRecipe {
+        private final transient List<String> seen;
+
+        RecordMethodInvocations(List<String> seen) {
+            this.seen = seen;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Record method invocations";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Records the names of the methods invoked.";
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> fusiblePrecondition() {
+            return null;
+        }
+
+        @Override
+        public FusibleJavaVisitor fusibleVisitor() {
+            return new FusibleJavaVisitor() {
+                @Override
+                public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                    seen.add(method.getSimpleName());
+                    return super.visitMethodInvocation(method, ctx);
+                }
+            };
+        }
+    }
+}
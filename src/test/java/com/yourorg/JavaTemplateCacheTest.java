@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.java.JavaTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaTemplateCacheTest {
+
+    @Test
+    void reusesTemplateForSameSnippetAndImports() {
+        JavaTemplateCache cache = new JavaTemplateCache(8);
+        JavaTemplate first = cache.get("new ArrayList<>()", "java.util.ArrayList");
+        JavaTemplate second = cache.get("new ArrayList<>()", "java.util.ArrayList");
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void keyIncludesImportsAndClasspath() {
+        JavaTemplateCache cache = new JavaTemplateCache(8);
+        JavaTemplate jdk = cache.get("Assertions.assertThat(#{any()})", List.of(), List.of());
+        JavaTemplate imported = cache.get("Assertions.assertThat(#{any()})", List.of("org.assertj.core.api.Assertions"), List.of());
+        JavaTemplate onClasspath = cache.get("Assertions.assertThat(#{any()})", List.of("org.assertj.core.api.Assertions"), List.of("assertj-core"));
+
+        assertThat(imported).isNotSameAs(jdk);
+        assertThat(onClasspath).isNotSameAs(imported);
+        assertThat(cache.getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        JavaTemplateCache cache = new JavaTemplateCache(2);
+        JavaTemplate a = cache.get("new ArrayList<>()", "java.util.ArrayList");
+        cache.get("new LinkedList<>()", "java.util.LinkedList");
+        cache.get("new ArrayList<>()", "java.util.ArrayList");
+        cache.get("new HashSet<>()", "java.util.HashSet");
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.get("new ArrayList<>()", "java.util.ArrayList")).isSameAs(a);
+        cache.get("new LinkedList<>()", "java.util.LinkedList");
+        assertThat(cache.getMisses()).isEqualTo(4);
+    }
+
+    @Test
+    void templatesAreConfinedToTheirThread() throws Exception {
+        JavaTemplateCache cache = new JavaTemplateCache(8);
+        JavaTemplate here = cache.get("new ArrayList<>()", "java.util.ArrayList");
+        JavaTemplate there = CompletableFuture.supplyAsync(() -> cache.get("new ArrayList<>()", "java.util.ArrayList")).get();
+
+        assertThat(there).isNotSameAs(here);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+}
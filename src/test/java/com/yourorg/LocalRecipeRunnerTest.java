@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.yourorg.table.ClassHierarchyReport;
+import com.yourorg.table.ClassHierarchyReportSink;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.java.JavaParser;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRecipeRunnerTest {
+
+    @Test
+    void skipsFilesOutsideRecipeInterest(@TempDir Path root) throws Exception {
+        write(root.resolve("ci/pipeline.yml"), """
+          resources:
+            - name: tasks
+              source:
+                uri: git@github.com:Example/concourse-tasks.git
+                tag_filter: 8.1.0
+          """);
+        write(root.resolve("ci/tasks/build.yml"), "platform: linux\n");
+        write(root.resolve("src/main/java/A.java"), "class A {}\n");
+        write(root.resolve(".git/HEAD"), "ref: refs/heads/main\n");
+
+        LocalRecipeRunner.Run run = LocalRecipeRunner.run(root, new UpdateConcoursePipeline("8.2.0"), new InMemoryExecutionContext());
+
+        assertThat(run.getFilesParsed()).isEqualTo(1);
+        assertThat(run.getFilesSkipped()).isEqualTo(2);
+        assertThat(run.getBytesSkipped()).isEqualTo("platform: linux\n".length() + "class A {}\n".length());
+        assertThat(run.getResults()).singleElement()
+          .extracting(Result::getAfter)
+          .satisfies(after -> assertThat(after.printAll()).contains("tag_filter: 8.2.0"));
+    }
+
+    @Test
+    void parallelRunMatchesSequentialRun(@TempDir Path root) throws Exception {
+        write(root.resolve("rewrite.yml"), """
+          type: specs.openrewrite.org/v1beta/recipe
+          name: com.example.Catalog
+          displayName: Catalog
+          recipeList:
+            - com.yourorg.StringIsEmptyRecipes
+            - com.yourorg.ClassHierarchy
+          """);
+        for (int i = 0; i < 12; i++) {
+            write(root.resolve("src/main/java/C" + i + ".java"), """
+              class C%d implements Runnable {
+                  public void run() {
+                  }
+                  boolean empty(String s) {
+                      return s.length() == 0;
+                  }
+              }
+              """.formatted(i));
+        }
+        Recipe recipe = LocalRecipeRunner.activate(root, "com.example.Catalog");
+
+        LocalRecipeRunner.Run sequential = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        LocalRecipeRunner.Run parallel;
+        try {
+            parallel = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), pool, 4);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(parallel.getResults()).hasSize(12);
+        assertThat(parallel.getResults()).map(r -> r.getAfter().printAll())
+          .containsExactlyElementsOf(sequential.getResults().stream().map(r -> r.getAfter().printAll()).toList())
+          .allSatisfy(after -> assertThat(after).contains("return s.isEmpty();"));
+        List<ClassHierarchyReport.Row> rows = parallel.getRecipeRun().getDataTableRows("com.yourorg.table.ClassHierarchyReport");
+        assertThat(rows)
+          .containsExactlyElementsOf(sequential.getRecipeRun().<ClassHierarchyReport.Row>getDataTableRows("com.yourorg.table.ClassHierarchyReport"))
+          .filteredOn(row -> row.getRelationship() == ClassHierarchyReport.Relationship.IMPLEMENTS)
+          .hasSize(12);
+    }
+
+    @Test
+    void scanningRecipeSeesAllSourceFiles(@TempDir Path root) throws Exception {
+        write(root.resolve("rewrite.yml"), """
+          type: specs.openrewrite.org/v1beta/recipe
+          name: com.example.Catalog
+          displayName: Catalog
+          recipeList:
+            - com.yourorg.ClassHierarchy
+            - com.yourorg.AppendToReleaseNotes:
+                message: Hello world
+          """);
+        for (int i = 0; i < 8; i++) {
+            write(root.resolve("src/main/java/C" + i + ".java"), "class C" + i + " {}\n");
+        }
+        Recipe recipe = LocalRecipeRunner.activate(root, "com.example.Catalog");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            LocalRecipeRunner.Run run = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), pool, 4);
+            // Generated once for the whole directory, rather than once for each partition of it
+            assertThat(run.getResults()).singleElement()
+              .satisfies(r -> assertThat(r.getAfter().getSourcePath()).hasToString("RELEASE.md"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void writesResults(@TempDir Path root) throws Exception {
+        write(root.resolve("ci/pipeline.yml"), """
+          resources:
+            - name: tasks
+              source:
+                uri: git@github.com:Example/concourse-tasks.git
+                tag_filter: 8.1.0
+          """);
+
+        LocalRecipeRunner.Run run = LocalRecipeRunner.run(root, new UpdateConcoursePipeline("8.2.0"), new InMemoryExecutionContext());
+
+        assertThat(run.write()).isEqualTo(1);
+        assertThat(root.resolve("ci/pipeline.yml")).content().contains("tag_filter: 8.2.0");
+    }
+
+    @Test
+    void closesClassHierarchyReportSink(@TempDir Path root, @TempDir Path sinkDir) throws Exception {
+        for (int i = 0; i < 12; i++) {
+            write(root.resolve("src/main/java/C" + i + ".java"), "class C" + i + " implements Runnable { public void run() {} }\n");
+        }
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        ctx.putMessage(ClassHierarchyReport.SINK_DIRECTORY, sinkDir);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        LocalRecipeRunner.Run run;
+        try {
+            run = LocalRecipeRunner.run(root, new ClassHierarchy(), ctx, pool, 4);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Far fewer rows than fill a batch, which are only written once the sink is closed
+        assertThat(run.getClassHierarchyReport()).isNotNull().hasParent(sinkDir);
+        List<ClassHierarchyReport.Row> rows = new ArrayList<>();
+        ClassHierarchyReportSink.read(run.getClassHierarchyReport()).forEachRemaining(rows::add);
+        assertThat(rows).hasSize(24)
+          .contains(
+            new ClassHierarchyReport.Row("C0", ClassHierarchyReport.Relationship.EXTENDS, "java.lang.Object"),
+            new ClassHierarchyReport.Row("C11", ClassHierarchyReport.Relationship.IMPLEMENTS, "java.lang.Runnable"));
+        assertThat(ClassHierarchyReport.closeSink(ctx)).isNull();
+    }
+
+    @Test
+    void parsesJavaWithTheClasspath(@TempDir Path root) throws Exception {
+        write(root.resolve("src/main/java/A.java"), """
+          import com.google.common.collect.Lists;
+          import java.util.List;
+          class A {
+              List<String> list = Lists.newArrayList();
+          }
+          """);
+
+        LocalRecipeRunner.Run withoutGuava = LocalRecipeRunner.run(root, new NoGuavaListsNewArrayList(),
+          new InMemoryExecutionContext(), Runnable::run, 1, null, null, List.of());
+        assertThat(withoutGuava.getResults()).as("Guava is unknown without the classpath").isEmpty();
+
+        LocalRecipeRunner.Run withGuava = LocalRecipeRunner.run(root, new NoGuavaListsNewArrayList(),
+          new InMemoryExecutionContext(), Runnable::run, 1, null, null, JavaParser.dependenciesFromClasspath("guava"));
+        assertThat(withGuava.getResults()).singleElement()
+          .satisfies(r -> assertThat(r.getAfter().printAll()).contains("new ArrayList<>()"));
+    }
+
+    @Test
+    void dataflowStatisticsCountEveryPartition(@TempDir Path root) throws Exception {
+        for (int i = 0; i < 8; i++) {
+            write(root.resolve("src/main/java/V" + i + ".java"), """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.J;
+              
+              public class V%d extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      method.getArguments().isEmpty();
+                      return method;
+                  }
+              }
+              """.formatted(i));
+        }
+        List<Path> classpath = JavaParser.dependenciesFromClasspath("rewrite-core", "rewrite-java");
+        InMemoryExecutionContext sequential = new InMemoryExecutionContext();
+        LocalRecipeRunner.run(root, new NoCollectionMutation(), sequential, Runnable::run, 1, null, null, classpath);
+        InMemoryExecutionContext parallel = new InMemoryExecutionContext();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            LocalRecipeRunner.run(root, new NoCollectionMutation(), parallel, pool, 4, null, null, classpath);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(NoCollectionMutation.dataflowStatistics(parallel).getAnalysesAvoided())
+          .isEqualTo(NoCollectionMutation.dataflowStatistics(sequential).getAnalysesAvoided())
+          .isGreaterThanOrEqualTo(8);
+        assertThat(NoCollectionMutation.dataflowStatistics(parallel).getSummariesComputed())
+          .isEqualTo(NoCollectionMutation.dataflowStatistics(sequential).getSummariesComputed());
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
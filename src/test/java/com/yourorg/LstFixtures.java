@@ -0,0 +1,195 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.text.PlainTextParser;
+import org.openrewrite.yaml.YamlParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Generates and parses the source files the benchmarks run over. Every fixture is shaped so that the recipe under
+ * test finds work to do in most methods, and grows linearly with the requested number of methods per file.
+ * <p>
+ * The methods, classes, pipelines and release notes are those of {@link CorpusGenerator}, only one kind at a time,
+ * and each file is generated from a seed of its own index, so a fixture is the same from run to run.
+ */
+final class LstFixtures {
+
+    private LstFixtures() {
+    }
+
+    enum Kind {
+        GUAVA_LISTS,
+        JUNIT_ASSERTIONS,
+        LST_MUTATION,
+        CLASS_HIERARCHY,
+        TERNARY,
+        JETBRAINS_NULLABLE,
+        SPRING_STRING_UTILS,
+        STRING_LENGTH,
+        NO_STRING_LENGTH
+    }
+
+    static List<SourceFile> java(Kind kind, int files, int methodsPerFile) {
+        List<String> sources = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            sources.add(javaSource(kind, i, methodsPerFile));
+        }
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        return JavaParser.fromJavaVersion()
+                .classpath("guava", "junit-jupiter-api", "rewrite-core", "rewrite-java", "annotations", "spring-core")
+                .build()
+                .parse(ctx, sources.toArray(new String[0]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Write the Java sources of a fixture to a directory, one package of 100 files per directory, as they would be
+     * laid out in a repository.
+     *
+     * @return the files written, in order
+     */
+    static List<Path> writeJava(Path dir, Kind kind, int files, int methodsPerFile) {
+        List<Path> written = new ArrayList<>(files);
+        try {
+            for (int i = 0; i < files; i++) {
+                String pkg = "p" + (i / 100);
+                Path file = dir.resolve("src/main/java/" + pkg + "/" + kind.name().toLowerCase() + i + ".java");
+                Files.createDirectories(file.getParent());
+                Files.write(file, ("package " + pkg + ";\n" + javaSource(kind, i, methodsPerFile))
+                        .getBytes(StandardCharsets.UTF_8));
+                written.add(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return written;
+    }
+
+    static List<SourceFile> concoursePipelines(int files, int resourcesPerFile) {
+        List<SourceFile> pipelines = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            String path = "ci/pipeline-" + i + ".yml";
+            YamlParser.builder().build()
+                    .parse(CorpusGenerator.pipeline(new Random(i), resourcesPerFile))
+                    .map(sf -> (SourceFile) sf.withSourcePath(Paths.get(path)))
+                    .forEach(pipelines::add);
+        }
+        return pipelines;
+    }
+
+    static SourceFile releaseNotes(int releases) {
+        return PlainTextParser.builder().build()
+                .parse(CorpusGenerator.releaseNotes(new Random(0), releases))
+                .map(sf -> (SourceFile) sf.withSourcePath(Paths.get("RELEASE.md")))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static String javaSource(Kind kind, int file, int methods) {
+        Random random = new Random(file);
+        Set<String> imports = new TreeSet<>();
+        StringBuilder body = new StringBuilder();
+        String name;
+        switch (kind) {
+            case GUAVA_LISTS:
+                name = "Guava" + file;
+                for (int m = 0; m < methods; m++) {
+                    CorpusGenerator.guavaLists(random, "m" + m, imports, body);
+                }
+                break;
+            case JUNIT_ASSERTIONS:
+                name = "Assertions" + file + "Test";
+                imports.add("org.junit.jupiter.api.Test");
+                imports.add("static org.junit.jupiter.api.Assertions.assertEquals");
+                for (int m = 0; m < methods; m++) {
+                    CorpusGenerator.assertions(random, "test" + m, CorpusGenerator.pick(random, CorpusGenerator.NOUNS),
+                            body);
+                }
+                break;
+            case LST_MUTATION:
+                name = "Mutating" + file;
+                for (int m = 0; m < methods; m++) {
+                    CorpusGenerator.argumentsMutation(random, "m" + m, imports, body);
+                }
+                break;
+            case CLASS_HIERARCHY:
+                // A chain of nested classes, each extending the one before it
+                name = "Hierarchy" + file;
+                imports.add("java.io.Serializable");
+                for (int m = 0; m < methods; m++) {
+                    body.append("    static ");
+                    CorpusGenerator.declaration("C" + m, m == 0 ? null : "C" + (m - 1), true, body).append(" {\n");
+                    StringBuilder method = new StringBuilder();
+                    CorpusGenerator.arithmetic(random, "m" + m, method);
+                    body.append(method.toString().replaceAll("(?m)^", "    ")).append("    }\n");
+                }
+                break;
+            case TERNARY:
+                name = "Ternary" + file;
+                for (int m = 0; m < methods; m++) {
+                    CorpusGenerator.ternaries(random, "m" + m, body);
+                }
+                break;
+            case JETBRAINS_NULLABLE:
+                name = "Nullables" + file;
+                imports.add("org.jetbrains.annotations.Nullable");
+                for (int m = 0; m < methods; m++) {
+                    body.append("    @Nullable String f").append(m).append(";\n")
+                            .append("    @Nullable String m").append(m).append("(@Nullable String in) {\n")
+                            .append("        return in;\n    }\n");
+                }
+                break;
+            case SPRING_STRING_UTILS:
+                name = "Strings" + file;
+                imports.add("org.springframework.util.StringUtils");
+                for (int m = 0; m < methods; m++) {
+                    body.append("    boolean m").append(m).append("(String s) {\n")
+                            .append("        return StringUtils.containsWhitespace(s) || StringUtils.hasText(s);\n    }\n");
+                }
+                break;
+            case STRING_LENGTH:
+            case NO_STRING_LENGTH:
+                // Only the first method of a STRING_LENGTH file checks String.length(), as an occasional emptiness
+                // check would in real code, and the rest call no method StringIsEmpty looks for
+                name = "Strings" + (kind == Kind.STRING_LENGTH ? "Length" : "") + file;
+                for (int m = 0; m < methods; m++) {
+                    CorpusGenerator.emptyCheck("m" + m, m == 0 && kind == Kind.STRING_LENGTH ?
+                            CorpusGenerator.EMPTY_CHECKS[0] : "value.hashCode() == 0", body);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("No fixture for " + kind);
+        }
+        StringBuilder s = new StringBuilder();
+        for (String anImport : imports) {
+            s.append("import ").append(anImport).append(";\n");
+        }
+        return s.append("class ").append(name).append(" {\n").append(body).append("}\n").toString();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.text.PlainTextParser;
+import org.openrewrite.yaml.YamlParser;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LstStoreTest {
+
+    @Test
+    void loadsTypeAttributedTrees(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        List<Path> files = List.of(
+          write(root.resolve("src/A.java"), "class A extends B implements Runnable {\n    public void run() {\n    }\n}\n"),
+          write(root.resolve("src/B.java"), "class B {\n    String name() {\n        return \"b\";\n    }\n}\n"));
+        List<SourceFile> parsed = JavaParser.fromJavaVersion().build()
+          .parse(files, root, new InMemoryExecutionContext()).toList();
+        LstStore store = new LstStore(storeDir.resolve("lst.bin"));
+        store.save(root, files, parsed);
+
+        List<SourceFile> loaded = List.copyOf(new LstStore(storeDir.resolve("lst.bin")).load(root, files).values());
+
+        assertThat(loaded).map(SourceFile::printAll).containsExactlyElementsOf(parsed.stream().map(SourceFile::printAll).toList());
+        assertThat(loaded).map(SourceFile::getSourcePath).containsExactly(Path.of("src/A.java"), Path.of("src/B.java"));
+        JavaType.FullyQualified a = ((J.CompilationUnit) loaded.get(0)).getClasses().get(0).getType();
+        assertThat(a.getSupertype().getFullyQualifiedName()).isEqualTo("B");
+        assertThat(a.getInterfaces()).singleElement().extracting(JavaType.FullyQualified::getFullyQualifiedName)
+          .isEqualTo("java.lang.Runnable");
+        // Types are written once for the whole store, so B's type is the same object in both trees
+        assertThat(a.getSupertype()).isSameAs(((J.CompilationUnit) loaded.get(1)).getClasses().get(0).getType());
+    }
+
+    @Test
+    void changedSourceFilesInvalidateTheStore(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        Path a = write(root.resolve("A.java"), "class A {}\n");
+        Path b = write(root.resolve("B.java"), "class B {}\n");
+        LstStore store = new LstStore(storeDir.resolve("lst.bin"));
+        store.save(root, List.of(a, b), JavaParser.fromJavaVersion().build()
+          .parse(List.of(a, b), root, new InMemoryExecutionContext()).toList());
+        assertThat(store.load(root, List.of(a, b))).hasSize(2);
+        assertThat(store.load(root, List.of(b, a)).keySet()).containsExactly(b, a);
+
+        // Java sources are attributed against each other, so only the whole compilation is loaded
+        assertThat(store.load(root, List.of(a))).isEmpty();
+        write(b, "class B extends A {}\n");
+        assertThat(store.load(root, List.of(a, b))).isEmpty();
+    }
+
+    @Test
+    void savingKeepsTheTreesOfOtherFiles(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        Path a = write(root.resolve("A.java"), "class A {}\n");
+        Path pipeline = write(root.resolve("ci/pipeline.yml"), "resources: []\n");
+        Path notes = write(root.resolve("RELEASE.md"), "# Releases\n");
+        LstStore store = new LstStore(storeDir.resolve("lst.bin"));
+        store.save(root, List.of(a), JavaParser.fromJavaVersion().build()
+          .parse(List.of(a), root, new InMemoryExecutionContext()).toList());
+        store.save(root, List.of(pipeline), YamlParser.builder().build()
+          .parse(List.of(pipeline), root, new InMemoryExecutionContext()).toList());
+        store.save(root, List.of(notes), PlainTextParser.builder().build()
+          .parse(List.of(notes), root, new InMemoryExecutionContext()).toList());
+
+        assertThat(store.load(root, List.of(a, pipeline, notes))).containsOnlyKeys(a, pipeline, notes);
+        assertThat(store.load(root, List.of(pipeline))).containsOnlyKeys(pipeline);
+
+        write(pipeline, "resources:\n  - name: tasks\n");
+        assertThat(store.load(root, List.of(a, pipeline, notes))).containsOnlyKeys(a, notes);
+        Files.delete(notes);
+        store.save(root, List.of(pipeline), YamlParser.builder().build()
+          .parse(List.of(pipeline), root, new InMemoryExecutionContext()).toList());
+        assertThat(store.load(root, List.of(a, pipeline))).containsOnlyKeys(a, pipeline);
+        assertThat(store.load(root, List.of(pipeline)).get(pipeline).printAll()).isEqualTo("resources:\n  - name: tasks\n");
+    }
+
+    @Test
+    void readsStoresLargerThanAMapping(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        List<Path> files = List.of(
+          write(root.resolve("A.java"), "class A extends B {\n}\n"),
+          write(root.resolve("B.java"), "class B {\n    int b;\n}\n"),
+          write(root.resolve("ci/pipeline.yml"), "resources: []\n"));
+        LstStore store = new LstStore(storeDir.resolve("lst.bin"), List.of(), 7);
+        store.save(root, files.subList(0, 2), JavaParser.fromJavaVersion().build()
+          .parse(files.subList(0, 2), root, new InMemoryExecutionContext()).toList());
+        store.save(root, files.subList(2, 3), YamlParser.builder().build()
+          .parse(files.subList(2, 3), root, new InMemoryExecutionContext()).toList());
+
+        assertThat(store.load(root, files).values()).map(SourceFile::printAll)
+          .containsExactly("class A extends B {\n}\n", "class B {\n    int b;\n}\n", "resources: []\n");
+    }
+
+    @Test
+    void differentClasspathInvalidatesTheStore(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        Path a = write(root.resolve("A.java"), "class A {}\n");
+        Path jar = write(storeDir.resolve("lib/dependency.jar"), "not really a jar");
+        new LstStore(storeDir.resolve("lst.bin")).save(root, List.of(a), JavaParser.fromJavaVersion().build()
+          .parse(List.of(a), root, new InMemoryExecutionContext()).toList());
+
+        assertThat(new LstStore(storeDir.resolve("lst.bin"), List.of(jar)).load(root, List.of(a))).isEmpty();
+        assertThat(new LstStore(storeDir.resolve("lst.bin")).load(root, List.of(a))).hasSize(1);
+    }
+
+    @Test
+    void recipesRunOnLoadedTrees(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        write(root.resolve("src/main/java/Empty.java"), """
+          class Empty {
+              boolean empty(String s) {
+                  return s.length() == 0;
+              }
+          }
+          """);
+        LstStore store = new LstStore(storeDir.resolve("lst.bin"));
+
+        LocalRecipeRunner.Run parsed = LocalRecipeRunner.run(root, new StringIsEmptyRecipes(),
+          new InMemoryExecutionContext(), Runnable::run, 1, null, store);
+        LocalRecipeRunner.Run loaded = LocalRecipeRunner.run(root, new StringIsEmptyRecipes(),
+          new InMemoryExecutionContext(), Runnable::run, 1, null, store);
+
+        assertThat(parsed.getFilesLoaded()).isZero();
+        assertThat(loaded.getFilesLoaded()).isEqualTo(1);
+        assertThat(loaded.getResults()).singleElement()
+          .satisfies(r -> assertThat(r.getAfter().printAll()).contains("return s.isEmpty();"))
+          .satisfies(r -> assertThat(r.getAfter().printAll()).isEqualTo(parsed.getResults().get(0).getAfter().printAll()));
+    }
+
+    @Test
+    void runsOfRecipesInterestedInDifferentFilesShareTheStore(@TempDir Path root, @TempDir Path storeDir) throws Exception {
+        write(root.resolve("ci/pipeline.yml"), "resources: []\n");
+        write(root.resolve("src/A.java"), "class A {}\n");
+        LstStore store = new LstStore(storeDir.resolve("lst.bin"));
+        UpdateConcoursePipeline yaml = new UpdateConcoursePipeline("8.2.0");
+        NoGuavaListsNewArrayList java = new NoGuavaListsNewArrayList();
+
+        assertThat(run(root, yaml, store).getFilesLoaded()).isZero();
+        assertThat(run(root, java, store).getFilesLoaded()).isZero();
+        assertThat(run(root, yaml, store)).extracting(LocalRecipeRunner.Run::getFilesParsed, LocalRecipeRunner.Run::getFilesLoaded)
+          .containsExactly(1, 1);
+        assertThat(run(root, java, store)).extracting(LocalRecipeRunner.Run::getFilesParsed, LocalRecipeRunner.Run::getFilesLoaded)
+          .containsExactly(1, 1);
+    }
+
+    private static LocalRecipeRunner.Run run(Path root, Recipe recipe, LstStore store) {
+        return LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), Runnable::run, 1, null, store);
+    }
+
+    private static Path write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LstTraceTest {
+
+    private final SourceFile cu = JavaParser.fromJavaVersion().build()
+      .parse("class Test { int n = 42; }")
+      .findFirst()
+      .orElseThrow();
+
+    @Test
+    void disabledByDefault() {
+        assertThat(LstTrace.isEnabled(new InMemoryExecutionContext())).isFalse();
+    }
+
+    @Test
+    void writesNothingOnceDisabled(@TempDir Path dir) throws Exception {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        ctx.putMessage(LstTrace.TRACE_DIRECTORY, dir);
+        assertThat(LstTrace.isEnabled(ctx)).isTrue();
+        ctx.putMessage(LstTrace.TRACE_DIRECTORY, null);
+        assertThat(LstTrace.isEnabled(ctx)).isFalse();
+
+        LstTrace.trace("com.yourorg.Recipe", cu, ctx);
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void disabledTraceDoesNotAllocate() {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 10_000; i++) {
+            LstTrace.trace("com.yourorg.Recipe", cu, ctx);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            LstTrace.trace("com.yourorg.Recipe", cu, ctx);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(allocated).isZero();
+    }
+
+    @Test
+    void streamsTreeToFilePerSource(@TempDir Path dir) throws Exception {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        ctx.putMessage(LstTrace.TRACE_DIRECTORY, dir);
+
+        LstTrace.trace("com.yourorg.Recipe", cu, ctx);
+
+        Path dump = dir.resolve("com.yourorg.Recipe").resolve("Test.java.lst");
+        assertThat(Files.readAllLines(dump)).startsWith(
+          "J.CompilationUnit",
+          "  J.ClassDeclaration",
+          "    J.Identifier Test"
+        ).contains("          J.Literal 42");
+    }
+}
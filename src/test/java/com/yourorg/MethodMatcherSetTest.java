@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodMatcherSetTest {
+
+    private final J.CompilationUnit cu = JavaParser.fromJavaVersion().build()
+      .parse("""
+        import java.util.*;
+        class Test {
+            void test(List<String> list, Map<String, String> map) {
+                list.add("a");
+                list.clear();
+                map.put("a", "b");
+                Map.Entry<String, String> e = map.entrySet().iterator().next();
+                e.getKey();
+            }
+        }
+        """)
+      .findFirst()
+      .map(J.CompilationUnit.class::cast)
+      .orElseThrow();
+
+    private JavaType.Method method(String name) {
+        return cu.getTypesInUse().getUsedMethods().stream()
+          .filter(m -> m.getName().equals(name))
+          .findFirst()
+          .orElseThrow();
+    }
+
+    @Test
+    void reportsFirstMatchingPatternInDeclarationOrder() {
+        MethodMatcherSet set = new MethodMatcherSet(
+          "java.util.List clear()",
+          "*..* add(..)",
+          "java.util.List add(..)",
+          "java.util.Map *(..)");
+
+        assertThat(set.indexOf(method("clear"))).isEqualTo(0);
+        assertThat(set.indexOf(method("add"))).isEqualTo(1);
+        assertThat(set.indexOf(method("put"))).isEqualTo(3);
+        assertThat(set.indexOf(method("iterator"))).isEqualTo(-1);
+        assertThat(set.matches((JavaType.Method) null)).isFalse();
+    }
+
+    @Test
+    void nestedTypesMatchEitherSeparator() {
+        assertThat(new MethodMatcherSet("java.util.Map$Entry getKey()").matches(method("getKey"))).isTrue();
+        assertThat(new MethodMatcherSet("java.util.Map.Entry getKey()").matches(method("getKey"))).isTrue();
+    }
+
+    @Test
+    void matchOverrides() {
+        assertThat(new MethodMatcherSet(List.of("java.util.Collection add(..)"), false).matches(method("add"))).isFalse();
+        assertThat(new MethodMatcherSet(List.of("java.util.Collection add(..)"), true).matches(method("add"))).isTrue();
+    }
+
+    @Test
+    void usesAnyMethod() {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        assertThat(new MethodMatcherSet("java.util.Set add(..)", "java.util.List clear()")
+          .<ExecutionContext>usesAnyMethod().visit(cu, ctx)).isNotSameAs(cu);
+        assertThat(new MethodMatcherSet("java.util.Set add(..)", "java.util.List sort(..)")
+          .<ExecutionContext>usesAnyMethod().visit(cu, ctx)).isSameAs(cu);
+    }
+
+    @Test
+    void doesNotRetainMethodTypes() {
+        MethodMatcherSet set = new MethodMatcherSet("java.util.List clear()");
+        WeakReference<JavaType.Method> clear = new WeakReference<>(JavaParser.fromJavaVersion().build()
+          .parse("class A { void test(java.util.List<String> list) { list.clear(); } }")
+          .map(J.CompilationUnit.class::cast)
+          .flatMap(cu -> cu.getTypesInUse().getUsedMethods().stream())
+          .filter(set::matches)
+          .findFirst()
+          .orElseThrow());
+
+        for (int i = 0; i < 10 && clear.get() != null; i++) {
+            System.gc();
+        }
+
+        assertThat(clear.get()).isNull();
+        // The same method parsed again still matches
+        assertThat(set.indexOf(method("clear"))).isEqualTo(0);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameTableTest {
+
+    @Test
+    void assignsDenseIdsInInterningOrder() {
+        NameTable names = new NameTable(2);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(names.intern("com.example.C" + i)).isEqualTo(i);
+        }
+        assertThat(names.intern("com.example.C42")).isEqualTo(42);
+        assertThat(names.id("com.example.C999")).isEqualTo(999);
+        assertThat(names.id("com.example.Missing")).isEqualTo(-1);
+        assertThat(names.name(7)).isEqualTo("com.example.C7");
+        assertThat(names.size()).isEqualTo(1000);
+    }
+
+    @Test
+    void internsConcurrently() throws Exception {
+        NameTable names = new NameTable();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier start = new CyclicBarrier(threads);
+            List<Future<int[]>> interned = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                interned.add(executor.submit(() -> {
+                    start.await();
+                    // Every thread interns the same names, so most lookups race with another thread's intern
+                    int[] ids = new int[20_000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = names.intern("com.example.C" + i);
+                        assertThat(names.name(ids[i])).isEqualTo("com.example.C" + i);
+                    }
+                    return ids;
+                }));
+            }
+            int[] first = interned.get(0).get();
+            for (Future<int[]> ids : interned) {
+                assertThat(ids.get()).containsExactly(first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(names.size()).isEqualTo(20_000);
+        BitSet ids = new BitSet();
+        for (int i = 0; i < 20_000; i++) {
+            ids.set(names.id("com.example.C" + i));
+        }
+        assertThat(ids.cardinality()).isEqualTo(20_000);
+        assertThat(ids.nextClearBit(0)).isEqualTo(20_000);
+    }
+}
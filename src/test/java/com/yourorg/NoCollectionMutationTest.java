@@ -18,10 +18,13 @@ package com.yourorg;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 
 
@@ -218,4 +221,156 @@ class NoCollectionMutationTest implements RewriteTest {
               """)
         );
     }
+
+    @Test
+    void methodWithoutMutationNeedsNoDataflow() {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        rewriteRun(
+          spec -> spec.executionContext(ctx),
+          //language=java
+          java(
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.J;
+              
+              public class ManipulateMethodArguments extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      method.getArguments().isEmpty();
+                      method.getArguments().size();
+                      method.getTypeParameters().toArray();
+                      return method;
+                  }
+              }
+              """)
+        );
+        NoCollectionMutation.DataflowStatistics statistics = NoCollectionMutation.dataflowStatistics(ctx);
+        assertThat(statistics.getAnalysesRun()).isZero();
+        assertThat(statistics.getAnalysesAvoided()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void onlyMutatedCallInMethodIsCopied() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.Expression;
+              import org.openrewrite.java.tree.J;
+              
+              import java.util.List;
+              
+              public class ManipulateMethodArguments extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      List<Expression> read = method.getArguments();
+                      List<Expression> args = method.getArguments();
+                      read.size();
+                      args.clear();
+                      return method;
+                  }
+              }
+              """,
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.Expression;
+              import org.openrewrite.java.tree.J;
+              
+              import java.util.ArrayList;
+              import java.util.List;
+              
+              public class ManipulateMethodArguments extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      List<Expression> read = method.getArguments();
+                      List<Expression> args = new ArrayList<>(method.getArguments());
+                      read.size();
+                      args.clear();
+                      return method;
+                  }
+              }
+              """)
+        );
+    }
+
+    @Test
+    void mutatingACopyNeedsNoDataflow() {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        rewriteRun(
+          spec -> spec.executionContext(ctx),
+          //language=java
+          java(
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.Expression;
+              import org.openrewrite.java.tree.J;
+              
+              import java.util.LinkedList;
+              import java.util.List;
+              
+              public class ManipulateMethodArguments extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      List<Expression> args = method.getArguments();
+                      new LinkedList<>(args).clear();
+                      List.copyOf(args).clear();
+                      args.stream().toList().clear();
+                      return method;
+                  }
+              }
+              """)
+        );
+        assertThat(NoCollectionMutation.dataflowStatistics(ctx).getAnalysesRun()).isZero();
+    }
+
+    @Test
+    void copyOutsideOfLambdaDoesNotGuardMutationInside() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.internal.ListUtils;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.J;
+              
+              import java.util.ArrayList;
+              
+              public class ManipulateMethodArguments extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      new ArrayList<>(ListUtils.map(method.getArguments(), a -> {
+                          method.getTypeParameters().clear();
+                          return a;
+                      }));
+                      return method;
+                  }
+              }
+              """,
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.internal.ListUtils;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.J;
+              
+              import java.util.ArrayList;
+              
+              public class ManipulateMethodArguments extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      new ArrayList<>(ListUtils.map(method.getArguments(), a -> {
+                          new ArrayList<>(method.getTypeParameters()).clear();
+                          return a;
+                      }));
+                      return method;
+                  }
+              }
+              """)
+        );
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.RecipeExecutionMetrics;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each recipe over a fixed synthetic corpus from {@link LstFixtures} and fails when it does more work than the
+ * budgets checked in to {@code recipe-budgets.properties} allow: the bytes its run allocates per source file, the
+ * source files its visitors are invoked on, and the stubs compiled by the templates it gets from
+ * {@link JavaTemplateCache}. Templates that recipes build themselves, such as those of the recipes generated from
+ * Refaster rules, aren't counted as compilations, so for those recipes the cost of compiling templates is only
+ * budgeted as part of the bytes they allocate. Allocation is measured with the
+ * {@link com.sun.management.ThreadMXBean} of the thread running the recipe, as the least of several runs after the
+ * JIT has warmed up, and may exceed its baseline by the tolerance and slack in the file; the counts are exact by
+ * default.
+ * <p>
+ * This tier runs with {@code ./mvnw verify} or {@code ./gradlew performanceTest}, rather than with the unit tests. To
+ * accept new baselines after an intended change, run it with {@code -Dcom.yourorg.budgets.update=true}, which writes
+ * the measured values to {@code src/test/resources/recipe-budgets.properties}.
+ */
+class RecipeBudgetsIT {
+
+    private static final String BUDGETS = "recipe-budgets.properties";
+    private static final boolean UPDATE = Boolean.getBoolean("com.yourorg.budgets.update");
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 3;
+    private static final int FILES = 4;
+    private static final int METHODS_PER_FILE = 4;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static Properties budgets;
+    private static final Map<String, Long> measured = new TreeMap<>();
+
+    record Case(String recipeName, Supplier<Recipe> recipe, Supplier<List<SourceFile>> corpus) {
+        @Override
+        public String toString() {
+            return recipeName;
+        }
+    }
+
+    static Stream<Case> recipes() {
+        return Stream.of(
+          java("com.yourorg.AssertEqualsToAssertThat", LstFixtures.Kind.JUNIT_ASSERTIONS),
+          java("com.yourorg.NoGuavaListsNewArrayList", LstFixtures.Kind.GUAVA_LISTS),
+          java("com.yourorg.NoCollectionMutation", LstFixtures.Kind.LST_MUTATION),
+          java("com.yourorg.ClassHierarchy", LstFixtures.Kind.CLASS_HIERARCHY),
+          java("com.yourorg.ClassHierarchyAnalysis", LstFixtures.Kind.CLASS_HIERARCHY),
+          java("com.yourorg.SimplifyTernaryRecipes", LstFixtures.Kind.TERNARY),
+          java("com.yourorg.SimplifyTernaryIndexed", LstFixtures.Kind.TERNARY),
+          java("com.yourorg.StringIsEmptyRecipes", LstFixtures.Kind.STRING_LENGTH),
+          java("com.yourorg.UseOpenRewriteNullable", LstFixtures.Kind.JETBRAINS_NULLABLE),
+          java("com.yourorg.UseApacheStringUtils", LstFixtures.Kind.SPRING_STRING_UTILS),
+          new Case("com.yourorg.FusedJavaRecipes", FusedJavaRecipes::new, () -> {
+              List<SourceFile> corpus = new ArrayList<>();
+              for (LstFixtures.Kind kind : List.of(LstFixtures.Kind.JUNIT_ASSERTIONS, LstFixtures.Kind.GUAVA_LISTS,
+                LstFixtures.Kind.LST_MUTATION, LstFixtures.Kind.CLASS_HIERARCHY)) {
+                  corpus.addAll(LstFixtures.java(kind, FILES / 4, METHODS_PER_FILE));
+              }
+              return corpus;
+          }),
+          new Case("com.yourorg.UpdateConcoursePipeline", () -> new UpdateConcoursePipeline("8.2.0"),
+            () -> LstFixtures.concoursePipelines(FILES, METHODS_PER_FILE)),
+          new Case("com.yourorg.AppendToReleaseNotes", () -> new AppendToReleaseNotes("## 2.0.0\n\n- New feature"),
+            () -> List.of(LstFixtures.releaseNotes(100 * METHODS_PER_FILE)))
+        );
+    }
+
+    private static Case java(String recipeName, LstFixtures.Kind kind) {
+        return new Case(recipeName,
+          () -> Environment.builder().scanRuntimeClasspath("com.yourorg").build().activateRecipes(recipeName),
+          () -> LstFixtures.java(kind, FILES, METHODS_PER_FILE));
+    }
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        budgets = new Properties();
+        try (InputStream in = RecipeBudgetsIT.class.getClassLoader().getResourceAsStream(BUDGETS)) {
+            assertThat(in).as(BUDGETS + " is missing").isNotNull();
+            budgets.load(in);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("recipes")
+    void staysWithinBudget(Case c) {
+        Recipe recipe = c.recipe().get();
+        List<SourceFile> corpus = c.corpus().get();
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run(recipe, corpus);
+        }
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            run(recipe, corpus);
+            allocated = Math.min(allocated, THREADS.getCurrentThreadAllocatedBytes() - before);
+        }
+
+        RecipeMetrics metrics = RecipeMetrics.measure(recipe);
+        metrics.run(new InMemoryLargeSourceSet(corpus), new InMemoryExecutionContext());
+        long visitorInvocations = 0;
+        long javaTemplateCacheCompilations = 0;
+        for (RecipeExecutionMetrics.Row row : metrics.getRows()) {
+            visitorInvocations += row.getSourceFilesVisited();
+            javaTemplateCacheCompilations += row.getTemplateCompilations();
+        }
+
+        // Reports every budget a recipe exceeds at once, rather than only the first
+        SoftAssertions softly = new SoftAssertions();
+        check(softly, c.recipeName(), "bytesAllocatedPerFile", allocated / corpus.size());
+        check(softly, c.recipeName(), "visitorInvocations", visitorInvocations);
+        check(softly, c.recipeName(), "javaTemplateCacheCompilations", javaTemplateCacheCompilations);
+        softly.assertAll();
+    }
+
+    private static void check(SoftAssertions softly, String recipeName, String metric, long value) {
+        String key = recipeName + "." + metric;
+        measured.put(key, value);
+        if (UPDATE) {
+            return;
+        }
+        String budget = budgets.getProperty(key);
+        if (budget == null) {
+            softly.fail("%s has no budget, measured %d", key, value);
+            return;
+        }
+        double tolerance = Double.parseDouble(budgets.getProperty("tolerance." + metric, "0"));
+        long slack = Long.parseLong(budgets.getProperty("slack." + metric, "0"));
+        long limit = (long) Math.floor(Long.parseLong(budget) * (1 + tolerance)) + slack;
+        softly.assertThat(value)
+          .as("%s, with a budget of %s, a tolerance of %.0f%% and a slack of %d", key, budget, tolerance * 100, slack)
+          .isLessThanOrEqualTo(limit);
+    }
+
+    @AfterAll
+    static void updateBudgets() {
+        if (!UPDATE) {
+            return;
+        }
+        StringBuilder file = new StringBuilder();
+        file.append("# Budgets of RecipeBudgetsIT, as measured on the corpus of each recipe. A budget is exceeded when\n")
+          .append("# a measurement is over it by more than the tolerance of its metric, a fraction of the budget, plus\n")
+          .append("# the slack of the metric, an amount that absorbs the noise in measuring small budgets.\n")
+          .append("# Regenerate with -Dcom.yourorg.budgets.update=true, and review the difference.\n");
+        for (String name : new TreeSet<>(budgets.stringPropertyNames())) {
+            if (name.startsWith("tolerance.") || name.startsWith("slack.")) {
+                file.append(name).append('=').append(budgets.getProperty(name)).append('\n');
+            }
+        }
+        for (Map.Entry<String, Long> value : measured.entrySet()) {
+            file.append(value.getKey()).append('=').append(value.getValue()).append('\n');
+        }
+        try {
+            Files.write(Path.of("src/test/resources", BUDGETS), file.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void run(Recipe recipe, List<SourceFile> corpus) {
+        recipe.run(new InMemoryLargeSourceSet(corpus), new InMemoryExecutionContext());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeEventsTest {
+
+    @Test
+    void recordsHotPathsWithRecipeAndSourcePath(@TempDir Path dir) throws Exception {
+        List<RecordedEvent> events = record(dir, new NoCollectionMutation(), mutatingSources(),
+          "Precondition", "Visit", "TemplateCompile", "TemplateApply", "Dataflow");
+
+        assertThat(events).allSatisfy(e -> assertThat(e.getString("recipe")).isEqualTo("com.yourorg.NoCollectionMutation"));
+        assertThat(events(events, "Precondition")).extracting(e -> e.getString("sourcePath") + ":" + e.getBoolean("passed"))
+          .startsWith("Mutating.java:true", "Unrelated.java:false");
+        assertThat(events(events, "Visit")).first()
+          .satisfies(e -> assertThat(e.getString("sourcePath")).isEqualTo("Mutating.java"))
+          .satisfies(e -> assertThat(e.getBoolean("changed")).isTrue());
+        assertThat(events(events, "Dataflow")).first()
+          .satisfies(e -> assertThat(e.getString("sourcePath")).isEqualTo("Mutating.java"))
+          .satisfies(e -> assertThat(e.getBoolean("found")).isTrue());
+        assertThat(events(events, "TemplateApply")).singleElement()
+          .satisfies(e -> assertThat(e.getString("sourcePath")).isEqualTo("Mutating.java"))
+          .satisfies(e -> assertThat(e.getString("template")).isEqualTo("new ArrayList<>(#{any(java.util.List)})"));
+        assertThat(events(events, "TemplateCompile")).hasSizeLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void eventsCarryTheRecipeWhenVisitsAreNotRecorded(@TempDir Path dir) throws Exception {
+        List<RecordedEvent> events = record(dir, new NoCollectionMutation(), mutatingSources(), "TemplateApply", "Dataflow");
+
+        assertThat(events(events, "Visit")).isEmpty();
+        assertThat(events(events, "TemplateApply")).isNotEmpty();
+        assertThat(events(events, "Dataflow")).isNotEmpty();
+        assertThat(events).allSatisfy(e -> assertThat(e.getString("recipe")).isEqualTo("com.yourorg.NoCollectionMutation"));
+    }
+
+    @Test
+    void recipesBehaveTheSameWhenNotRecording() {
+        List<SourceFile> sourceFiles = JavaParser.fromJavaVersion().build()
+          .parse("class A {\n    boolean b(boolean c) {\n        return c ? true : false;\n    }\n}\n").toList();
+
+        RecipeRun run = run(new SimplifyTernaryIndexed(), sourceFiles);
+
+        assertThat(run.getChangeset().getAllResults()).singleElement()
+          .satisfies(r -> assertThat(r.getAfter().printAll()).contains("return c;"));
+    }
+
+    private static List<SourceFile> mutatingSources() {
+        return JavaParser.fromJavaVersion().classpath("rewrite-core", "rewrite-java").build()
+          .parse(new InMemoryExecutionContext(),
+            """
+              import org.openrewrite.ExecutionContext;
+              import org.openrewrite.java.JavaIsoVisitor;
+              import org.openrewrite.java.tree.Expression;
+              import org.openrewrite.java.tree.J;
+              import java.util.List;
+
+              class Mutating extends JavaIsoVisitor<ExecutionContext> {
+                  @Override
+                  public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                      List<Expression> args = method.getArguments();
+                      args.remove(0);
+                      return method;
+                  }
+              }
+              """,
+            """
+              class Unrelated {
+              }
+              """).toList();
+    }
+
+    private static List<RecordedEvent> record(Path dir, Recipe recipe, List<SourceFile> sourceFiles,
+                                              String... events) throws Exception {
+        try (Recording recording = new Recording()) {
+            // Events are enabled by default, so those not asked for are disabled
+            for (String event : List.of("Precondition", "Visit", "TemplateCompile", "TemplateApply", "Dataflow")) {
+                recording.disable("com.yourorg." + event);
+            }
+            for (String event : events) {
+                recording.enable("com.yourorg." + event).withoutThreshold();
+            }
+            recording.start();
+            run(recipe, sourceFiles);
+            recording.stop();
+            recording.dump(dir.resolve("recording.jfr"));
+            return RecordingFile.readAllEvents(dir.resolve("recording.jfr"));
+        }
+    }
+
+    private static RecipeRun run(Recipe recipe, List<SourceFile> sourceFiles) {
+        return recipe.run(new InMemoryLargeSourceSet(sourceFiles), new InMemoryExecutionContext());
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals("com.yourorg." + name)).toList();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import com.yourorg.table.PreconditionSelectivity;
+import com.yourorg.table.RecipeExecutionMetrics;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.config.YamlResourceLoader;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.text.PlainTextParser;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeMetricsTest {
+
+    private static final String COMPOSITE = """
+      type: specs.openrewrite.org/v1beta/recipe
+      name: com.example.Composite
+      displayName: Composite
+      recipeList:
+        - com.yourorg.NoGuavaListsNewArrayList
+        - com.yourorg.AppendToReleaseNotes:
+            message: Hello world
+      """;
+
+    @Test
+    void measuresEachRecipeOfAComposite() {
+        RecipeMetrics metrics = RecipeMetrics.measure(composite());
+
+        RecipeRun run = metrics.run(new InMemoryLargeSourceSet(sourceFiles()), new InMemoryExecutionContext());
+
+        List<RecipeExecutionMetrics.Row> rows = run.getDataTableRows("com.yourorg.table.RecipeExecutionMetrics");
+        assertThat(rows).extracting(RecipeExecutionMetrics.Row::getRecipeName).containsExactly(
+          "com.example.Composite", "com.yourorg.NoGuavaListsNewArrayList", "com.yourorg.AppendToReleaseNotes");
+        assertThat(rows).extracting(RecipeExecutionMetrics.Row::getParentRecipeName)
+          .containsExactly(null, "com.example.Composite", "com.example.Composite");
+
+        RecipeExecutionMetrics.Row guava = rows.get(1);
+        // The Java sources are visited in every cycle, but only the one calling Lists.newArrayList() ever passes
+        // the precondition, and only in the cycle that changes it
+        assertThat(guava.getSourceFilesVisited()).isPositive().isEven();
+        assertThat(guava.getSourceFilesPassedPreconditions()).isEqualTo(1);
+        assertThat(guava.getSourceFilesChanged()).isEqualTo(1);
+        assertThat(guava.getTemplateApplications()).isEqualTo(2);
+        assertThat(guava.getTemplateCompilations()).isBetween(1L, 2L);
+        assertThat(guava.getWallTimeNanos()).isPositive();
+
+        RecipeExecutionMetrics.Row releaseNotes = rows.get(2);
+        assertThat(releaseNotes.getSourceFilesChanged()).isEqualTo(1);
+        assertThat(releaseNotes.getSourceFilesPassedPreconditions()).isEqualTo(releaseNotes.getSourceFilesVisited());
+        assertThat(releaseNotes.getTemplateApplications()).isZero();
+        assertThat(releaseNotes.getTemplateCompilations()).isZero();
+    }
+
+    @Test
+    void measuredRecipeMakesTheSameChanges() {
+        RecipeRun measured = RecipeMetrics.measure(composite())
+          .run(new InMemoryLargeSourceSet(sourceFiles()), new InMemoryExecutionContext());
+        RecipeRun unmeasured = composite().run(new InMemoryLargeSourceSet(sourceFiles()), new InMemoryExecutionContext());
+
+        assertThat(measured.getChangeset().getAllResults()).map(r -> r.getAfter().printAll())
+          .containsExactlyElementsOf(unmeasured.getChangeset().getAllResults().stream().map(r -> r.getAfter().printAll()).toList());
+        assertThat(measured.getChangeset().getAllResults().get(0).getRecipeDescriptorsThatMadeChanges())
+          .extracting(d -> d.getName()).containsExactly("com.yourorg.NoGuavaListsNewArrayList");
+    }
+
+    @Test
+    void keepsTheFileInterestOfTheMeasuredRecipe() {
+        assertThat(FileInterestMatcher.of(RecipeMetrics.measure(new NoGuavaListsNewArrayList()).getRecipe()).getGlobs())
+          .containsExactly("**.java");
+        assertThat(FileInterestMatcher.of(RecipeMetrics.measure(composite()).getRecipe()).getGlobs())
+          .containsExactlyElementsOf(FileInterestMatcher.of(composite()).getGlobs())
+          .contains("**.java", "RELEASE.md");
+    }
+
+    @Test
+    void reportsPreconditionSelectivity() {
+        List<SourceFile> sourceFiles = JavaParser.fromJavaVersion().build()
+          .parse(
+            """
+              import java.util.List;
+              class A {
+                  int size(List<String> list) {
+                      return list.size();
+                  }
+              }
+              """,
+            """
+              class B {
+              }
+              """).toList();
+
+        RecipeRun run = RecipeMetrics.measure(new NoCollectionMutation())
+          .run(new InMemoryLargeSourceSet(sourceFiles), new InMemoryExecutionContext());
+
+        List<PreconditionSelectivity.Row> rows = run.getDataTableRows("com.yourorg.table.PreconditionSelectivity");
+        assertThat(rows).extracting(PreconditionSelectivity.Row::getBranch)
+          .containsExactly(null, "UsesType java.util.List", "UsesType org.openrewrite.Tree");
+        assertThat(rows).extracting(PreconditionSelectivity.Row::getRecipeName).containsOnly("com.yourorg.NoCollectionMutation");
+        assertThat(rows.get(0)).satisfies(r -> {
+            assertThat(r.getChecks()).isEqualTo(2);
+            assertThat(r.getRejections()).isEqualTo(1);
+            assertThat(r.getTimeNanos()).isPositive();
+        });
+        // Whichever branch is checked first, A is only rejected by the Tree branch and B by both
+        assertThat(rows.get(1)).satisfies(r -> {
+            assertThat(r.getChecks()).isEqualTo(2);
+            assertThat(r.getRejections()).isEqualTo(1);
+        });
+        assertThat(rows.get(2)).satisfies(r -> {
+            assertThat(r.getChecks()).isBetween(1L, 2L);
+            assertThat(r.getRejections()).isEqualTo(r.getChecks());
+        });
+    }
+
+    @Test
+    void countsOnlyThePreconditionOfTheMeasuredRecipe() {
+        // The fused recipe checks the preconditions of the recipes it runs, but has none of its own
+        RecipeRun run = RecipeMetrics.measure(new FusedJavaRecipes(List.of(new NoGuavaListsNewArrayList())))
+          .run(new InMemoryLargeSourceSet(sourceFiles()), new InMemoryExecutionContext());
+
+        List<RecipeExecutionMetrics.Row> rows = run.getDataTableRows("com.yourorg.table.RecipeExecutionMetrics");
+        assertThat(rows).singleElement().satisfies(fused -> {
+            assertThat(fused.getSourceFilesVisited()).isPositive();
+            assertThat(fused.getSourceFilesPassedPreconditions()).isEqualTo(fused.getSourceFilesVisited());
+            assertThat(fused.getSourceFilesChanged()).isEqualTo(1);
+        });
+        assertThat(run.getDataTableRows("com.yourorg.table.PreconditionSelectivity")).isEmpty();
+    }
+
+    private static Recipe composite() {
+        return Environment.builder()
+          .scanRuntimeClasspath("com.yourorg")
+          .load(new YamlResourceLoader(new ByteArrayInputStream(COMPOSITE.getBytes(StandardCharsets.UTF_8)),
+            URI.create("rewrite.yml"), new Properties()))
+          .build()
+          .activateRecipes("com.example.Composite");
+    }
+
+    private static List<SourceFile> sourceFiles() {
+        List<SourceFile> sourceFiles = new ArrayList<>(JavaParser.fromJavaVersion().classpath("guava").build()
+          .parse(new InMemoryExecutionContext(),
+            """
+              import com.google.common.collect.Lists;
+              import java.util.List;
+              class A {
+                  List<Integer> a = Lists.newArrayList();
+                  List<Integer> b = Lists.newArrayList(a);
+              }
+              """,
+            """
+              import java.util.ArrayList;
+              import java.util.List;
+              class B {
+                  List<Integer> b = new ArrayList<>();
+              }
+              """).toList());
+        PlainTextParser.builder().build().parse("Release 1.0\n")
+          .map(sf -> (SourceFile) sf.withSourcePath(Path.of("RELEASE.md")))
+          .forEach(sourceFiles::add);
+        return sourceFiles;
+    }
+}
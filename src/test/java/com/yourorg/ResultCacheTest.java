@@ -0,0 +1,157 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.ChangeMethodName;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTest {
+
+    private static final String PIPELINE = """
+      resources:
+        - name: tasks
+          source:
+            uri: git@github.com:Example/concourse-tasks.git
+            tag_filter: 8.1.0
+      """;
+
+    @Test
+    void replaysResultsWithoutParsing(@TempDir Path root, @TempDir Path cacheDir) throws Exception {
+        write(root.resolve("ci/pipeline.yml"), PIPELINE);
+        write(root.resolve("ci/pipeline-other.yml"), "resources: []\n");
+        UpdateConcoursePipeline recipe = new UpdateConcoursePipeline("8.2.0");
+
+        LocalRecipeRunner.Run first = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(),
+          Runnable::run, 1, new ResultCache(cacheDir, Long.MAX_VALUE));
+        assertThat(first.getFilesParsed()).isEqualTo(2);
+        assertThat(first.getResults()).hasSize(1);
+
+        ResultCache cache = new ResultCache(cacheDir, Long.MAX_VALUE);
+        LocalRecipeRunner.Run second = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(),
+          Runnable::run, 1, cache);
+        assertThat(second.getFilesParsed()).isZero();
+        assertThat(second.getFilesCached()).isEqualTo(2);
+        assertThat(second.getResults()).isEmpty();
+        assertThat(cache.getHits()).isEqualTo(2);
+
+        assertThat(second.write()).isEqualTo(1);
+        assertThat(root.resolve("ci/pipeline.yml")).content().isEqualTo(first.getResults().get(0).getAfter().printAll());
+        assertThat(root.resolve("ci/pipeline-other.yml")).content().isEqualTo("resources: []\n");
+    }
+
+    @Test
+    void changedContentIsParsedAgain(@TempDir Path root, @TempDir Path cacheDir) throws Exception {
+        write(root.resolve("ci/pipeline.yml"), PIPELINE);
+        write(root.resolve("ci/pipeline-other.yml"), "resources: []\n");
+        UpdateConcoursePipeline recipe = new UpdateConcoursePipeline("8.2.0");
+        ResultCache cache = new ResultCache(cacheDir, Long.MAX_VALUE);
+        LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), Runnable::run, 1, cache);
+
+        write(root.resolve("ci/pipeline-other.yml"), PIPELINE);
+        LocalRecipeRunner.Run run = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), Runnable::run, 1, cache);
+
+        assertThat(run.getFilesParsed()).isEqualTo(1);
+        assertThat(run.getFilesCached()).isEqualTo(1);
+        assertThat(run.getResults()).singleElement()
+          .satisfies(r -> assertThat(r.getAfter().getSourcePath()).hasToString("ci/pipeline-other.yml"));
+        assertThat(run.getCachedChanges()).containsOnlyKeys(Path.of("ci/pipeline.yml"));
+    }
+
+    @Test
+    void javaSourcesAreParsedAgainWithTheSourcesTheyDependOn(@TempDir Path root, @TempDir Path cacheDir) throws Exception {
+        write(root.resolve("src/B.java"), "class B { void foo() {} }");
+        write(root.resolve("src/A.java"), "class A extends B { void test() { foo(); } }");
+        ChangeMethodName recipe = new ChangeMethodName("B foo()", "bar", null, null);
+        ResultCache cache = new ResultCache(cacheDir, Long.MAX_VALUE);
+        LocalRecipeRunner.Run first = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), Runnable::run, 1, cache);
+        assertThat(first.getResults()).hasSize(2);
+
+        // Only A changed, but A calls a method B declares, so B is needed to attribute it
+        write(root.resolve("src/A.java"), "class A extends B { void test() { foo(); foo(); } }");
+        LocalRecipeRunner.Run run = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), Runnable::run, 1, cache);
+
+        assertThat(run.getFilesParsed()).isEqualTo(2);
+        assertThat(run.getFilesCached()).isZero();
+        assertThat(run.getResults())
+          .filteredOn(r -> r.getAfter().getSourcePath().endsWith("A.java"))
+          .singleElement()
+          .satisfies(r -> assertThat(r.getAfter().printAll()).isEqualTo("class A extends B { void test() { bar(); bar(); } }"));
+
+        LocalRecipeRunner.Run again = LocalRecipeRunner.run(root, recipe, new InMemoryExecutionContext(), Runnable::run, 1, cache);
+        assertThat(again.getFilesParsed()).isZero();
+        assertThat(again.getFilesCached()).isEqualTo(2);
+        assertThat(again.getCachedChanges()).containsOnlyKeys(Path.of("src/A.java"), Path.of("src/B.java"));
+    }
+
+    @Test
+    void keyCoversOptionValues() {
+        assertThat(ResultCache.recipeKey(new UpdateConcoursePipeline("8.2.0")))
+          .isEqualTo(ResultCache.recipeKey(new UpdateConcoursePipeline("8.2.0")))
+          .isNotEqualTo(ResultCache.recipeKey(new UpdateConcoursePipeline("8.3.0")));
+        assertThat(ResultCache.recipeKey(new AppendToReleaseNotes("Hello", null)))
+          .isNotEqualTo(ResultCache.recipeKey(new AppendToReleaseNotes("Goodbye", null)));
+    }
+
+    @Test
+    void onlyRecipesWhoseChangesDependOnOneFileAreCacheable() {
+        assertThat(ResultCache.isCacheable(new UpdateConcoursePipeline("8.2.0"))).isTrue();
+        assertThat(ResultCache.isCacheable(new ClassHierarchy())).isFalse();
+        assertThat(ResultCache.isCacheable(new AppendToReleaseNotes("Hello", null))).isFalse();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed(@TempDir Path cacheDir) throws Exception {
+        ResultCache cache = new ResultCache(cacheDir, 2 * entrySize());
+        byte[] after = "after".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 3; i++) {
+            cache.put("recipe", Path.of("file" + i), "content", ResultCache.Entry.changed(Path.of("file" + i), after));
+        }
+        try (Stream<Path> entries = Files.walk(cacheDir)) {
+            long time = 0;
+            for (Path entry : entries.filter(Files::isRegularFile).sorted().toList()) {
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(time += 1000));
+            }
+        }
+        // Each of the gets makes its entry the most recently used
+        assertThat(cache.get("recipe", Path.of("file0"), "content")).isNotNull();
+        assertThat(cache.get("recipe", Path.of("file2"), "content")).isNotNull();
+
+        assertThat(cache.trim()).isEqualTo(1);
+        assertThat(cache.get("recipe", Path.of("file1"), "content")).isNull();
+        assertThat(cache.get("recipe", Path.of("file0"), "content").getAfter()).isEqualTo(after);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    private static long entrySize() {
+        // Format, kind, path and content
+        return 4 + 1 + 2 + "file0".length() + 4 + "after".length();
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
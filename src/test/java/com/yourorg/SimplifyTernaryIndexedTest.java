@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+// SimplifyTernaryIndexed restates the rules of SimplifyTernary, so rather than copying the expectations of
+// SimplifyTernaryTest, these tests check that both recipes make exactly the same changes to the same ternaries.
+class SimplifyTernaryIndexedTest implements RewriteTest {
+
+    private static final int MAXIMUM_CYCLES = 5;
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new SimplifyTernaryIndexed());
+    }
+
+    @Test
+    @DocumentExample
+    void simplified() {
+        rewriteRun(
+          //language=java
+          java(
+            """
+              class Test {
+                  boolean trueCondition = booleanExpression() ? true : false;
+                  boolean falseCondition = booleanExpression() ? false : true;
+
+                  boolean booleanExpression() {
+                    return true;
+                  }
+              }
+              """,
+            """
+              class Test {
+                  boolean trueCondition = booleanExpression();
+                  boolean falseCondition = !booleanExpression();
+
+                  boolean booleanExpression() {
+                    return true;
+                  }
+              }
+              """
+          )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+      "true ? true : false",
+      "false ? false : true",
+      "!true ? false : true",
+      "!false ? true : false",
+      "booleanExpression() ? true : false",
+      "booleanExpression() ? false : true",
+      "a && b ? true : false",
+      "a && b ? false : true",
+      "a || b ? false : true",
+      "a == b ? false : true",
+      "!(a ? false : true)",
+      "a ? (b ? true : false) : false",
+      "a ? true : b ? false : true",
+      "java.util.Objects.equals(a, b) ? false : true",
+      "Boolean.TRUE ? true : false",
+      "a ? booleanExpression() : !booleanExpression()",
+      "a ? true : !booleanExpression()",
+      "a ? booleanExpression() : false",
+      "a ? false : false",
+      "a ? Boolean.TRUE : Boolean.FALSE"
+    })
+    void sameChangesAsGeneratedRecipes(String ternary) {
+        String source = source(ternary);
+        assertThat(run(new SimplifyTernaryIndexed(), source, 1))
+          .isEqualTo(run(new SimplifyTernaryRecipes(), source, 1));
+    }
+
+    /**
+     * The generated recipes apply one rule to the whole source file before the next, while the indexed recipe applies
+     * the first matching rule to each ternary in a single traversal. So when one rule's ternary contains another's, the
+     * two may need a different number of cycles, but they must still arrive at the same result.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+      "(a ? true : false) ? false : true",
+      "(a ? true : false) ? true : false",
+      "(a ? false : true) ? false : true",
+      "(a ? false : true) ? true : false",
+      "((a ? true : false) ? false : true) ? false : true"
+    })
+    void sameResultAsGeneratedRecipesForNestedTernaries(String ternary) {
+        String source = source(ternary);
+        String indexed = run(new SimplifyTernaryIndexed(), source, MAXIMUM_CYCLES);
+        assertThat(indexed).isNotEqualTo(source).isEqualTo(run(new SimplifyTernaryRecipes(), source, MAXIMUM_CYCLES));
+    }
+
+    @Test
+    void generatedRecipesChangeTheFixtures() {
+        // Guards against the comparisons above passing only because neither recipe changes anything
+        String source = source("a ? true : false");
+        assertThat(run(new SimplifyTernaryRecipes(), source, 1)).isEqualTo(source("a"));
+    }
+
+    private static String source(String ternary) {
+        //language=java
+        return """
+          class Test {
+              boolean a;
+              boolean b;
+
+              boolean test() {
+                  return %s;
+              }
+
+              boolean booleanExpression() {
+                  return true;
+              }
+          }
+          """.formatted(ternary);
+    }
+
+    /**
+     * Run a recipe over a source file for up to the given number of cycles, stopping early once a cycle changes nothing.
+     */
+    private static String run(Recipe recipe, String source, int cycles) {
+        List<SourceFile> sourceFiles = JavaParser.fromJavaVersion().build().parse(source).toList();
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            List<Result> results = recipe.run(new InMemoryLargeSourceSet(sourceFiles), new InMemoryExecutionContext())
+              .getChangeset().getAllResults();
+            if (results.isEmpty()) {
+                break;
+            }
+            sourceFiles = List.of(results.get(0).getAfter());
+        }
+        return sourceFiles.get(0).printAll();
+    }
+}
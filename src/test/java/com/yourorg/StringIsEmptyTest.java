@@ -15,7 +15,6 @@
  */
 package com.yourorg;
 
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.Recipe;
@@ -24,16 +23,13 @@ import org.openrewrite.test.RewriteTest;
 
 import static org.openrewrite.java.Assertions.java;
 
-@Disabled("Remove this annotation to run the tests once you implement the recipe")
 class StringIsEmptyTest implements RewriteTest {
 
     @Override
     public void defaults(RecipeSpec spec) {
         // Note that we instantiate a generated class here, with `Recipes` appended to the Refaster class name
         // You might need to trigger an explicit build of your project to generate this class with Ctrl + F9
-
-        // TODO: Uncomment the line below once you have implemented the recipe
-        //spec.recipe(new StringIsEmptyRecipe());
+        spec.recipe(new StringIsEmptyRecipes());
     }
 
     @DocumentExample
@@ -52,6 +48,8 @@ class StringIsEmptyTest implements RewriteTest {
                       b = 0 == s.length();
                       b = s.length() < 1;
                       b = 1 > s.length();
+                      b = s.length() <= 0;
+                      b = 0 >= s.length();
                       b = s.equals("");
                       b = "".equals(s);
                       b = s.isEmpty();
@@ -68,6 +66,8 @@ class StringIsEmptyTest implements RewriteTest {
                       b = s.isEmpty();
                       b = s.isEmpty();
                       b = s.isEmpty();
+                      b = s.isEmpty();
+                      b = s.isEmpty();
                   }
               }
               """
@@ -157,11 +157,45 @@ class StringIsEmptyTest implements RewriteTest {
         );
     }
 
+    @Test
+    void standardizeStringIsNotEmpty() {
+        rewriteRun(
+          spec -> spec.recipe(new StringIsEmptyRecipes.LengthIsNotZeroRecipe()),
+          //language=java
+          java(
+            """
+              class A {
+                  void test(String s, boolean b) {
+                      b = s.length() != 0;
+                      b = 0 != s.length();
+                      b = s.length() > 0;
+                      b = 0 < s.length();
+                      b = s.length() >= 1;
+                      b = 1 <= s.length();
+                  }
+              }
+              """,
+            """
+              class A {
+                  void test(String s, boolean b) {
+                      b = !s.isEmpty();
+                      b = !s.isEmpty();
+                      b = !s.isEmpty();
+                      b = !s.isEmpty();
+                      b = !s.isEmpty();
+                      b = !s.isEmpty();
+                  }
+              }
+              """
+          )
+        );
+    }
+
     @Test
     void recipeDocumentation() {
         // This is a test to validate the correctness of the documentation in the recipe
         // By default you get generated documentation, but you can customize it through the RecipeDescriptor annotation
-        Recipe recipe = null; // TODO: = new StringIsEmptyRecipe();
+        Recipe recipe = new StringIsEmptyRecipes();
         String displayName = recipe.getDisplayName();
         String description = recipe.getDescription();
         assert "Standardize empty String checks".equals(displayName) : displayName;
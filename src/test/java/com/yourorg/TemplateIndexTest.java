@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Tree;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.marker.Markers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateIndexTest {
+
+    private static final TemplateRules.Rule TRUE_FALSE = new TemplateRules.Rule("#{expr:any(boolean)} ? true : false", "#{expr:any(boolean)}");
+    private static final TemplateRules.Rule FALSE_TRUE = new TemplateRules.Rule("#{expr:any(boolean)} ? false : true", "!(#{expr:any(boolean)})");
+    private static final TemplateRules.Rule ANY_TRUE = new TemplateRules.Rule("#{a:any(boolean)} ? true : #{b:any(boolean)}", "#{a} || #{b}");
+    private static final TemplateRules.Rule LENGTH_IS_ZERO = new TemplateRules.Rule("#{s:any(java.lang.String)}.length() == 0", "#{s}.isEmpty()");
+
+    private final TemplateRules rules = new TemplateRules(TRUE_FALSE, FALSE_TRUE, ANY_TRUE, LENGTH_IS_ZERO);
+
+    @Test
+    void literalBranchesSelectBucket() {
+        List<J.Ternary> ternaries = find(J.Ternary.class, """
+          class Test {
+              boolean a, b;
+              boolean trueFalse = a ? true : false;
+              boolean falseTrue = a && b ? false : true;
+              boolean trueOther = a ? true : b;
+              boolean neither = a ? b : !b;
+          }
+          """);
+
+        assertThat(rules.candidates(ternaries.get(0))).containsExactly(TRUE_FALSE, ANY_TRUE);
+        assertThat(rules.candidates(ternaries.get(1))).containsExactly(FALSE_TRUE);
+        assertThat(rules.candidates(ternaries.get(2))).containsExactly(ANY_TRUE);
+        assertThat(rules.candidates(ternaries.get(3))).isEmpty();
+    }
+
+    @Test
+    void rootKindSelectsBucket() {
+        List<J.Binary> binaries = find(J.Binary.class, """
+          class Test {
+              boolean empty(String s) {
+                  return s.length() == 0;
+              }
+              boolean notEmpty(String s) {
+                  return s.length() != 0;
+              }
+              boolean empty(java.util.List<String> l) {
+                  return l.size() == 0;
+              }
+          }
+          """);
+
+        assertThat(rules.candidates(binaries.get(0))).containsExactly(LENGTH_IS_ZERO);
+        assertThat(rules.candidates(binaries.get(1))).isEmpty();
+        // The method name is part of the shape, as only the method's select is a wildcard
+        assertThat(rules.candidates(binaries.get(2))).isEmpty();
+    }
+
+    @Test
+    void arityAndUnindexedKindsSelectNoBucket() {
+        List<J.MethodInvocation> methods = find(J.MethodInvocation.class, """
+          class Test {
+              int a(String s) {
+                  return s.length();
+              }
+              int b(String s) {
+                  return s.indexOf("x");
+              }
+              int c(String s) {
+                  return s.indexOf("x", 1);
+              }
+          }
+          """);
+
+        TemplateIndex<String> index = new TemplateIndex<>();
+        index.add(methods.get(0), t -> t instanceof J.Identifier, "length");
+        index.add(methods.get(1), t -> t instanceof J.Literal, "indexOf");
+
+        assertThat(index.candidates(methods.get(0))).containsExactly("length");
+        assertThat(index.candidates(methods.get(1))).containsExactly("indexOf");
+        assertThat(index.candidates(methods.get(2))).isEmpty();
+        assertThat(index.candidates(methods.get(0).getName())).isEmpty();
+    }
+
+    @Test
+    void parameterPatternIsCandidateForEveryTree() {
+        List<J.Ternary> ternaries = find(J.Ternary.class, "class Test { int n = true ? 1 : 2; }");
+
+        TemplateIndex<String> index = new TemplateIndex<>();
+        index.add(ternaries.get(0), t -> t instanceof J.Literal, "ternary");
+        index.add(ternaries.get(0).getCondition(), t -> true, "anything");
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.candidates(ternaries.get(0))).containsExactly("ternary", "anything");
+        assertThat(index.candidates(ternaries.get(0).getTruePart())).containsExactly("anything");
+    }
+
+    @Test
+    void afterTemplateMayOnlyReferToBeforeParameters() {
+        TemplateRules invalid = new TemplateRules(new TemplateRules.Rule("#{a:any(boolean)} ? true : false", "#{b}"));
+        assertThatThrownBy(() -> invalid.candidates(new J.Empty(Tree.randomId(), Space.EMPTY, Markers.EMPTY)))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("parameter b");
+    }
+
+    private static <J2 extends J> List<J2> find(Class<J2> type, String source) {
+        J.CompilationUnit cu = (J.CompilationUnit) JavaParser.fromJavaVersion().build()
+          .parse(source)
+          .findFirst()
+          .orElseThrow();
+        List<J2> found = new ArrayList<>();
+        new JavaIsoVisitor<List<J2>>() {
+            @Override
+            public J preVisit(J tree, List<J2> found) {
+                if (type.isInstance(tree)) {
+                    found.add(type.cast(tree));
+                }
+                return tree;
+            }
+        }.visit(cu, found);
+        return found;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the {@link TypeTable} of {@code assertj-core} that the templates of {@link AssertEqualsToAssertThat} are
+ * compiled against, from the AssertJ on the test classpath:
+ * <pre>
+ * ./mvnw -Ptype-table process-test-classes
+ * # or
+ * ./gradlew createTypeTable
+ * </pre>
+ * The table holds {@code Assertions} and every AssertJ type that the signatures of the methods the templates call
+ * refer to, transitively, with only those methods. {@link TypeTableTest} fails when the table in
+ * {@code src/main/resources} is no longer the one this would write.
+ */
+public class TypeTableGenerator {
+
+    static final String ARTIFACT = "assertj-core";
+    static final List<String> ROOTS = List.of("org/assertj/core/api/Assertions");
+    static final Set<String> MEMBERS = Set.of("assertThat", "as", "isEqualTo");
+    private static final String PACKAGE = "org/assertj/";
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : "src/main/resources").resolve(TypeTable.resource(ARTIFACT));
+        Files.createDirectories(output.getParent());
+        Files.write(output, generate());
+        System.out.println("Wrote " + output);
+    }
+
+    static byte[] generate() throws IOException {
+        Map<String, byte[]> stubs = new TreeMap<>();
+        Deque<String> queue = new ArrayDeque<>(ROOTS);
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (!stubs.containsKey(name)) {
+                stubs.put(name, stub(name, referenced -> {
+                    if (referenced.startsWith(PACKAGE) && !stubs.containsKey(referenced)) {
+                        queue.add(referenced);
+                    }
+                }));
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(TypeTable.MAGIC);
+            out.writeInt(TypeTable.FORMAT);
+            out.writeInt(stubs.size());
+            for (Map.Entry<String, byte[]> stub : stubs.entrySet()) {
+                out.writeUTF(stub.getKey());
+                out.writeInt(stub.getValue().length);
+                out.write(stub.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the class without annotations, fields, nested classes or code, and with only the {@link #MEMBERS}
+     */
+    private static byte[] stub(String name, Consumer<String> references) throws IOException {
+        byte[] bytes;
+        try (InputStream in = TypeTableGenerator.class.getClassLoader().getResourceAsStream(name + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException(name + " is not on the classpath");
+            }
+            bytes = in.readAllBytes();
+        }
+        ClassWriter writer = new ClassWriter(0);
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                super.visit(version, access, name, signature, superName, interfaces);
+                if (superName != null) {
+                    references.accept(superName);
+                }
+                for (String i : interfaces) {
+                    references.accept(i);
+                }
+                signature(signature, references);
+            }
+
+            @Override
+            public void visitSource(String source, String debug) {
+            }
+
+            @Override
+            public void visitNestHost(String nestHost) {
+            }
+
+            @Override
+            public void visitOuterClass(String owner, String name, String descriptor) {
+            }
+
+            @Override
+            public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                return null;
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+                return null;
+            }
+
+            @Override
+            public void visitAttribute(Attribute attribute) {
+            }
+
+            @Override
+            public void visitNestMember(String nestMember) {
+            }
+
+            @Override
+            public void visitPermittedSubclass(String permittedSubclass) {
+            }
+
+            @Override
+            public void visitInnerClass(String inner, String outer, String innerName, int access) {
+                // Only the entry that says what this class is nested in, if anything
+                if (inner.equals(name) && outer != null) {
+                    super.visitInnerClass(inner, outer, innerName, access);
+                    references.accept(outer);
+                }
+            }
+
+            @Override
+            public RecordComponentVisitor visitRecordComponent(String name, String descriptor, String signature) {
+                return null;
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if (!MEMBERS.contains(name) || (access & (Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) != 0) {
+                    return null;
+                }
+                Type method = Type.getMethodType(descriptor);
+                type(method.getReturnType(), references);
+                for (Type argument : method.getArgumentTypes()) {
+                    type(argument, references);
+                }
+                signature(signature, references);
+                MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+                if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) == 0) {
+                    mv.visitCode();
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                    mv.visitInsn(Opcodes.ATHROW);
+                    mv.visitMaxs(1, (Type.getArgumentsAndReturnSizes(descriptor) >> 2));
+                }
+                mv.visitEnd();
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return writer.toByteArray();
+    }
+
+    private static void type(Type type, Consumer<String> references) {
+        if (type.getSort() == Type.ARRAY) {
+            type = type.getElementType();
+        }
+        if (type.getSort() == Type.OBJECT) {
+            references.accept(type.getInternalName());
+        }
+    }
+
+    private static void signature(String signature, Consumer<String> references) {
+        if (signature == null) {
+            return;
+        }
+        new SignatureReader(signature).accept(new SignatureVisitor(Opcodes.ASM9) {
+            private String classType;
+
+            @Override
+            public void visitClassType(String name) {
+                classType = name;
+                references.accept(name);
+            }
+
+            @Override
+            public void visitInnerClassType(String name) {
+                classType = classType + "$" + name;
+                references.accept(classType);
+            }
+        });
+    }
+}
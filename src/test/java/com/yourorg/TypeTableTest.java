@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeTableTest {
+
+    @Test
+    void bundledTableIsUpToDate() throws IOException {
+        try (InputStream bundled = getClass().getClassLoader().getResourceAsStream(TypeTable.resource("assertj-core"))) {
+            assertThat(bundled).as("Run TypeTableGenerator to bundle the type table").isNotNull();
+            assertThat(new GZIPInputStream(bundled).readAllBytes())
+              .as("Run TypeTableGenerator to update the type table")
+              .isEqualTo(new GZIPInputStream(new ByteArrayInputStream(TypeTableGenerator.generate())).readAllBytes());
+        }
+    }
+
+    @Test
+    void holdsTheTypesTheTemplatesReferTo() {
+        TypeTable table = TypeTable.of("assertj-core");
+
+        assertThat(table.getClassNames()).contains(
+          "org/assertj/core/api/Assertions",
+          "org/assertj/core/api/AbstractAssert",
+          "org/assertj/core/api/AbstractIntegerAssert",
+          "org/assertj/core/api/Descriptable");
+        assertThat(table.getClasses()).hasSameSizeAs(table.getClassNames());
+        assertThat(TypeTable.of("no-such-artifact").isEmpty()).isTrue();
+    }
+
+    @Test
+    void templatesAreAttributedWithTheStubs() {
+        List<SourceFile> sourceFiles = JavaParser.fromJavaVersion().classpath("junit-jupiter-api").build()
+          .parse(
+            """
+              import org.junit.jupiter.api.Assertions;
+
+              class A {
+                  void foo() {
+                      Assertions.assertEquals(1, 2, "description");
+                  }
+              }
+              """).toList();
+
+        J.CompilationUnit after = (J.CompilationUnit) new AssertEqualsToAssertThat()
+          .run(new InMemoryLargeSourceSet(sourceFiles), new InMemoryExecutionContext())
+          .getChangeset().getAllResults().get(0).getAfter();
+
+        List<JavaType.Method> methods = new ArrayList<>();
+        new JavaIsoVisitor<List<JavaType.Method>>() {
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, List<JavaType.Method> methods) {
+                methods.add(method.getMethodType());
+                return super.visitMethodInvocation(method, methods);
+            }
+        }.visit(after, methods);
+
+        assertThat(methods).extracting(JavaType.Method::getName).containsExactly("isEqualTo", "as", "assertThat");
+        JavaType.FullyQualified assertions = methods.get(2).getDeclaringType();
+        assertThat(assertions.getFullyQualifiedName()).isEqualTo("org.assertj.core.api.Assertions");
+        // Only what the stub of Assertions declares, rather than everything the real class does
+        assertThat(assertions.getMethods()).extracting(JavaType.Method::getName)
+          .contains("assertThat")
+          .doesNotContain("fail", "assertThatThrownBy")
+          .allMatch(TypeTableGenerator.MEMBERS::contains);
+    }
+}
@@ -16,10 +16,17 @@
 package com.yourorg;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.test.RewriteTest;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.openrewrite.yaml.Assertions.yaml;
 
@@ -54,4 +61,150 @@ class UpdateConcoursePipelineTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void versionsByUri() {
+        rewriteRun(
+          spec -> spec.recipe(new UpdateConcoursePipeline("8.2.0", Map.of(
+            "git@github.com:Example/concourse-*.git", "9.0.0",
+            "https://github.com/Example/*", "7.5.1"
+          ))),
+          //language=yaml
+          yaml(
+            """
+              ---
+              resources:
+                - name: tasks
+                  type: git
+                  source:
+                    uri: git@github.com:Example/concourse-tasks.git
+                    tag_filter: 8.1.0
+                - name: scripts
+                  type: git
+                  source:
+                    uri: https://github.com/Example/scripts.git
+                    tag_filter: "7.5.0"
+                - name: other
+                  type: git
+                  source:
+                    uri: git@github.com:Other/other.git
+                    tag_filter: 8.1.0
+              """,
+            """
+              ---
+              resources:
+                - name: tasks
+                  type: git
+                  source:
+                    uri: git@github.com:Example/concourse-tasks.git
+                    tag_filter: 9.0.0
+                - name: scripts
+                  type: git
+                  source:
+                    uri: https://github.com/Example/scripts.git
+                    tag_filter: "7.5.1"
+                - name: other
+                  type: git
+                  source:
+                    uri: git@github.com:Other/other.git
+                    tag_filter: 8.2.0
+              """,
+            spec -> spec.path(Paths.get("ci/pipeline.yml"))
+          )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void mostSpecificUriPatternApplies(boolean reversed) {
+        List<String> patterns = new ArrayList<>(List.of(
+          "*", "git@github.com:Example/*", "git@github.com:Example/concourse-*.git", "*/concourse-tasks.git"));
+        if (reversed) {
+            Collections.reverse(patterns);
+        }
+        Map<String, String> versions = new LinkedHashMap<>();
+        for (String pattern : patterns) {
+            versions.put(pattern, switch (pattern) {
+                case "*" -> "1.0.0";
+                case "git@github.com:Example/*" -> "2.0.0";
+                case "git@github.com:Example/concourse-*.git" -> "3.0.0";
+                default -> "4.0.0";
+            });
+        }
+        rewriteRun(
+          spec -> spec.recipe(new UpdateConcoursePipeline(null, versions)),
+          //language=yaml
+          yaml(
+            """
+              ---
+              resources:
+                - name: tasks
+                  type: git
+                  source:
+                    uri: git@github.com:Example/concourse-tasks.git
+                    tag_filter: 8.1.0
+                - name: scripts
+                  type: git
+                  source:
+                    uri: git@github.com:Example/concourse-scripts.git
+                    tag_filter: 8.1.0
+                - name: other
+                  type: git
+                  source:
+                    uri: git@github.com:Example/other.git
+                    tag_filter: 8.1.0
+                - name: elsewhere
+                  type: git
+                  source:
+                    uri: https://example.com/elsewhere.git
+                    tag_filter: 8.1.0
+              """,
+            """
+              ---
+              resources:
+                - name: tasks
+                  type: git
+                  source:
+                    uri: git@github.com:Example/concourse-tasks.git
+                    tag_filter: 3.0.0
+                - name: scripts
+                  type: git
+                  source:
+                    uri: git@github.com:Example/concourse-scripts.git
+                    tag_filter: 3.0.0
+                - name: other
+                  type: git
+                  source:
+                    uri: git@github.com:Example/other.git
+                    tag_filter: 2.0.0
+                - name: elsewhere
+                  type: git
+                  source:
+                    uri: https://example.com/elsewhere.git
+                    tag_filter: 1.0.0
+              """,
+            spec -> spec.path(Paths.get("ci/pipeline.yml"))
+          )
+        );
+    }
+
+    @Test
+    void onlyUrisWithAVersionAreUpdated() {
+        rewriteRun(
+          spec -> spec.recipe(new UpdateConcoursePipeline(null, Map.of("*concourse-tasks.git", "9.0.0"))),
+          //language=yaml
+          yaml(
+            """
+              ---
+              resources:
+                - name: other
+                  type: git
+                  source:
+                    uri: git@github.com:Other/other.git
+                    tag_filter: 8.1.0
+              """,
+            spec -> spec.path(Paths.get("ci/pipeline.yml"))
+          )
+        );
+    }
 }
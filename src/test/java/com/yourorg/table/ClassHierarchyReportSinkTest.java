@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yourorg.table;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.yourorg.table.ClassHierarchyReport.Relationship.EXTENDS;
+import static com.yourorg.table.ClassHierarchyReport.Relationship.IMPLEMENTS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassHierarchyReportSinkTest {
+
+    @Test
+    void readsBackRowsAcrossBatches(@TempDir Path dir) {
+        List<ClassHierarchyReport.Row> written = new ArrayList<>();
+        try (ClassHierarchyReportSink sink = new ClassHierarchyReportSink(dir.resolve("rows"), 3)) {
+            for (int i = 0; i < 10; i++) {
+                ClassHierarchyReport.Row row = new ClassHierarchyReport.Row("com.example.C" + i,
+                  i % 2 == 0 ? EXTENDS : IMPLEMENTS, i % 2 == 0 ? "java.lang.Object" : "java.io.Serializable");
+                sink.write(row);
+                written.add(row);
+            }
+            assertThat(sink.getRowCount()).isEqualTo(10);
+            assertThat(sink.rows()).toIterable().containsExactlyElementsOf(written);
+        }
+        assertThat(ClassHierarchyReportSink.read(dir.resolve("rows"))).toIterable().containsExactlyElementsOf(written);
+    }
+
+    @Test
+    void emptySink(@TempDir Path dir) {
+        try (ClassHierarchyReportSink sink = new ClassHierarchyReportSink(dir.resolve("rows"))) {
+            assertThat(sink.rows()).isExhausted();
+        }
+    }
+
+    @Test
+    void exportsCsv(@TempDir Path dir) {
+        try (ClassHierarchyReportSink sink = new ClassHierarchyReportSink(dir.resolve("rows"))) {
+            sink.write(new ClassHierarchyReport.Row("A", EXTENDS, "java.lang.Object"));
+            sink.write(new ClassHierarchyReport.Row("A", IMPLEMENTS, "java.io.Serializable"));
+        }
+        StringWriter csv = new StringWriter();
+        ClassHierarchyReportSink.exportCsv(dir.resolve("rows"), csv);
+        assertThat(csv.toString()).isEqualTo("""
+          Class name,Relationship,Super class name
+          A,EXTENDS,java.lang.Object
+          A,IMPLEMENTS,java.io.Serializable
+          """);
+    }
+}